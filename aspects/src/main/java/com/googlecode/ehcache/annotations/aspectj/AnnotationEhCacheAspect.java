@@ -11,9 +11,12 @@ import org.aspectj.lang.annotation.SuppressAjWarnings;
 import org.aspectj.lang.reflect.MethodSignature;
 
 import com.googlecode.ehcache.annotations.CacheAttributeSource;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
 import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.CacheableBatch;
 import com.googlecode.ehcache.annotations.TriggersRemove;
 import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptor;
+import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatistics;
 
 @SuppressWarnings("unused") // cacheable annotation
 @Aspect
@@ -23,14 +26,21 @@ public class AnnotationEhCacheAspect {
 	private CacheAttributeSource cacheAttributeSource;
 	
 	@SuppressAjWarnings("adviceDidNotMatch")
-	@Around("execution(@Cacheable * * (..))")
+	@Around("execution(@com.googlecode.ehcache.annotations.Cacheable * * (..))")
 	public Object aroundCache(final ProceedingJoinPoint jp) throws Throwable {
 		AspectJAopAllianceMethod m = new AspectJAopAllianceMethod(jp);
 		return interceptor.invoke(m);
 	}
 	
 	@SuppressAjWarnings("adviceDidNotMatch")
-	@Around("execution(@TriggersRemove * * (..))")
+	@Around("execution(@com.googlecode.ehcache.annotations.CacheableBatch * * (..))")
+	public Object aroundCacheBatch(final ProceedingJoinPoint jp) throws Throwable {
+		AspectJAopAllianceMethod m = new AspectJAopAllianceMethod(jp);
+		return interceptor.invoke(m);
+	}
+	
+	@SuppressAjWarnings("adviceDidNotMatch")
+	@Around("execution(@com.googlecode.ehcache.annotations.TriggersRemove * * (..))")
 	public Object aroundTriggersRemove(final ProceedingJoinPoint jp) throws Throwable {
 		AspectJAopAllianceMethod m = new AspectJAopAllianceMethod(jp);
 		return interceptor.invoke(m);
@@ -45,20 +55,39 @@ public class AnnotationEhCacheAspect {
 		interceptor.setCacheAttributeSource(cacheAttributeSource);
 	}
 	
+	public void setStatistics(EhCacheInterceptorStatistics statistics) {
+		interceptor.setStatistics(statistics);
+	}
+	
+	public void setCacheOperationListener(CacheOperationListener cacheOperationListener) {
+		interceptor.setCacheOperationListener(cacheOperationListener);
+	}
+	
 	private static class AspectJAopAllianceMethod implements MethodInvocation {
 		private ProceedingJoinPoint jp;
+		private Object[] args;
 		
 		public AspectJAopAllianceMethod(ProceedingJoinPoint jp) {
 			super();
 			this.jp = jp;
 		}
 
+		/*
+		 * getArgs() returns a copy, keep one array so changes to it are passed to proceed()
+		 * like they are for Spring AOP invocations
+		 */
 		public Object[] getArguments() {
-			return jp.getArgs();
+			if (args == null) {
+				args = jp.getArgs();
+			}
+			return args;
 		}
 
 		public Object proceed() throws Throwable {
-			return jp.proceed();
+			if (args == null) {
+				return jp.proceed();
+			}
+			return jp.proceed(args);
 		}
 
 		public Object getThis() {
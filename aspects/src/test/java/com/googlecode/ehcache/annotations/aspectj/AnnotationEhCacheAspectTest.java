@@ -0,0 +1,124 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.aspectj;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.impl.CacheAttributeSourceImpl;
+import com.googlecode.ehcache.annotations.key.HashCodeCacheKeyGenerator;
+
+/**
+ * Invokes the aspect the way woven code does, with an AspectJ join point instead of a Spring AOP invocation.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class AnnotationEhCacheAspectTest {
+    private CacheManager cacheManager;
+    private CacheAttributeSourceImpl cacheAttributeSource;
+    private AnnotationEhCacheAspect aspect;
+    
+    @Before
+    public void setup() throws Exception {
+        this.cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("AnnotationEhCacheAspectTest"));
+        
+        this.cacheAttributeSource = new CacheAttributeSourceImpl();
+        this.cacheAttributeSource.setCacheManager(this.cacheManager);
+        this.cacheAttributeSource.setCreateCaches(true);
+        this.cacheAttributeSource.setBeanFactory(new DefaultListableBeanFactory());
+        this.cacheAttributeSource.setDefaultCacheKeyGenerator(new HashCodeCacheKeyGenerator());
+        this.cacheAttributeSource.afterPropertiesSet();
+        
+        this.aspect = new AnnotationEhCacheAspect();
+        this.aspect.setCacheAttributeSource(this.cacheAttributeSource);
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        this.cacheAttributeSource.destroy();
+        this.cacheManager.shutdown();
+    }
+    
+    @Test
+    public void testSoftTimeToLive() throws Throwable {
+        final CachedTarget target = new CachedTarget();
+        final Method method = CachedTarget.class.getMethod("softTimeToLive", String.class);
+        
+        Assert.assertEquals("softTimeToLive(a)=1", this.aspect.aroundCache(this.createJoinPoint(target, method, "a")));
+        Assert.assertEquals("softTimeToLive(a)=1", this.aspect.aroundCache(this.createJoinPoint(target, method, "a")));
+        
+        Thread.sleep(1100);
+        
+        //A join point cannot be proceeded after the advice returns, the stale value is refreshed by the caller
+        Assert.assertEquals("softTimeToLive(a)=2", this.aspect.aroundCache(this.createJoinPoint(target, method, "a")));
+        Assert.assertEquals("softTimeToLive(a)=2", this.aspect.aroundCache(this.createJoinPoint(target, method, "a")));
+        Assert.assertEquals(2, target.getSoftTimeToLiveCount());
+    }
+    
+    private ProceedingJoinPoint createJoinPoint(final CachedTarget target, final Method method, final String argument) throws Throwable {
+        final MethodSignature signature = EasyMock.createNiceMock(MethodSignature.class);
+        EasyMock.expect(signature.getMethod()).andReturn(method).anyTimes();
+        
+        final ProceedingJoinPoint joinPoint = EasyMock.createNiceMock(ProceedingJoinPoint.class);
+        EasyMock.expect(joinPoint.getSignature()).andReturn(signature).anyTimes();
+        EasyMock.expect(joinPoint.getThis()).andReturn(target).anyTimes();
+        EasyMock.expect(joinPoint.getArgs()).andReturn(new Object[] { argument }).anyTimes();
+        EasyMock.expect(joinPoint.proceed()).andAnswer(new IAnswer<Object>() {
+            public Object answer() throws Throwable {
+                return target.softTimeToLive(argument);
+            }
+        }).anyTimes();
+        EasyMock.expect(joinPoint.proceed(EasyMock.<Object[]>anyObject())).andAnswer(new IAnswer<Object>() {
+            public Object answer() throws Throwable {
+                return target.softTimeToLive((String)((Object[])EasyMock.getCurrentArguments()[0])[0]);
+            }
+        }).anyTimes();
+        
+        EasyMock.replay(signature, joinPoint);
+        return joinPoint;
+    }
+    
+    public static class CachedTarget {
+        private final AtomicInteger softTimeToLiveCount = new AtomicInteger(0);
+        
+        @Cacheable(cacheName="softTimeToLiveCache", softTimeToLive=1)
+        public String softTimeToLive(String argument) {
+            return "softTimeToLive(" + argument + ")=" + this.softTimeToLiveCount.incrementAndGet();
+        }
+        
+        public int getSoftTimeToLiveCount() {
+            return this.softTimeToLiveCount.get();
+        }
+    }
+}
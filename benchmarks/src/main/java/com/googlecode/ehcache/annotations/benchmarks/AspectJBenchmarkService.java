@@ -0,0 +1,37 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.DecoratedCacheType;
+
+/**
+ * Implementation with annotated methods, the AnnotationEhCacheAspect is woven into it at build time.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class AspectJBenchmarkService implements BenchmarkService {
+    @Cacheable(cacheName="benchmarkCache")
+    public String get(long id) {
+        return BenchmarkServiceImpl.load(id);
+    }
+
+    @Cacheable(cacheName="selfPopulatingCache", decoratedCacheType=DecoratedCacheType.SELF_POPULATING_CACHE)
+    public String getSelfPopulating(long id) {
+        return BenchmarkServiceImpl.load(id);
+    }
+}
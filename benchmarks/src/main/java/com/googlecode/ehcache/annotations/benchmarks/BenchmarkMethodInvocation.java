@@ -0,0 +1,59 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Minimal {@link MethodInvocation} with fixed arguments, {@link #proceed()} returns a fixed value.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class BenchmarkMethodInvocation implements MethodInvocation {
+    private final Method method;
+    private final Object[] arguments;
+    private final Object value;
+
+    public BenchmarkMethodInvocation(Method method, Object[] arguments, Object value) {
+        this.method = method;
+        this.arguments = arguments;
+        this.value = value;
+    }
+
+    public Method getMethod() {
+        return this.method;
+    }
+
+    public Object[] getArguments() {
+        return this.arguments;
+    }
+
+    public Object proceed() throws Throwable {
+        return this.value;
+    }
+
+    public Object getThis() {
+        return null;
+    }
+
+    public AccessibleObject getStaticPart() {
+        return this.method;
+    }
+}
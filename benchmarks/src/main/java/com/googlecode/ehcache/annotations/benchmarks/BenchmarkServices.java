@@ -0,0 +1,88 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * The {@link BenchmarkService} for a benchmark trial, called directly, through a Spring proxy or woven with AspectJ.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class BenchmarkServices {
+    public enum InvocationMode {
+        /**
+         * Direct call of the un-annotated implementation, the baseline
+         */
+        DIRECT,
+        /**
+         * Spring AOP proxy, &lt;ehcache:annotation-driven mode="proxy"/&gt;
+         */
+        PROXY,
+        /**
+         * Compile time woven AnnotationEhCacheAspect, &lt;ehcache:annotation-driven mode="aspectj"/&gt;
+         */
+        ASPECTJ;
+    }
+    
+    @Param
+    public InvocationMode mode;
+    
+    private ClassPathXmlApplicationContext applicationContext;
+    private BenchmarkService benchmarkService;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (this.mode) {
+            case DIRECT: {
+                this.benchmarkService = new BenchmarkServiceImpl();
+                break;
+            }
+            case PROXY: {
+                this.applicationContext = new ClassPathXmlApplicationContext("/proxyBenchmarkContext.xml");
+                this.benchmarkService = this.applicationContext.getBean("benchmarkService", BenchmarkService.class);
+                break;
+            }
+            case ASPECTJ: {
+                this.applicationContext = new ClassPathXmlApplicationContext("/aspectjBenchmarkContext.xml");
+                this.benchmarkService = this.applicationContext.getBean("benchmarkService", BenchmarkService.class);
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException("Unknown mode: " + this.mode);
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.applicationContext != null) {
+            this.applicationContext.close();
+        }
+    }
+
+    public BenchmarkService getBenchmarkService() {
+        return this.benchmarkService;
+    }
+}
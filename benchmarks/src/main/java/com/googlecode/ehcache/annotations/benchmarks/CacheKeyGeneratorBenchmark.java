@@ -0,0 +1,217 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.googlecode.ehcache.annotations.key.AbstractDeepCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.ArrayCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.HashCodeCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.ListCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.MessageDigestCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.Murmur3CacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.ScalarCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.StringCacheKeyGenerator;
+
+/**
+ * Key generation cost of each {@link CacheKeyGenerator} for common argument shapes. {@link #generateKey()} always
+ * uses the deep generator, {@link #generateMethodKey()} uses the generator the CacheAttributeSourceImpl would pick
+ * for the method, which is a {@link ScalarCacheKeyGenerator} for signatures with only scalar parameters.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheKeyGeneratorBenchmark {
+    /**
+     * Argument shapes, each matches one of the static methods of this class
+     */
+    public enum ArgumentShape {
+        NONE,
+        SCALARS,
+        STRING,
+        PRIMITIVE_ARRAY,
+        COLLECTIONS,
+        OBJECT_GRAPH;
+    }
+    
+    @Param({ "hash", "hashAllocationFree", "string", "list", "digest", "murmur3", "array" })
+    public String generator;
+    
+    @Param
+    public ArgumentShape shape;
+    
+    private CacheKeyGenerator<? extends Serializable> cacheKeyGenerator;
+    private CacheKeyGenerator<? extends Serializable> methodCacheKeyGenerator;
+    private BenchmarkMethodInvocation invocation;
+    
+    @Setup
+    public void setup() throws Exception {
+        this.cacheKeyGenerator = createCacheKeyGenerator(this.generator);
+        
+        final Method method;
+        final Object[] arguments;
+        switch (this.shape) {
+            case NONE: {
+                method = CacheKeyGeneratorBenchmark.class.getMethod("none");
+                arguments = new Object[0];
+                break;
+            }
+            case SCALARS: {
+                method = CacheKeyGeneratorBenchmark.class.getMethod("scalars", int.class, long.class, boolean.class, TimeUnit.class);
+                arguments = new Object[] { 42, 1234567890123L, true, TimeUnit.SECONDS };
+                break;
+            }
+            case STRING: {
+                method = CacheKeyGeneratorBenchmark.class.getMethod("string", String.class);
+                arguments = new Object[] { "com.googlecode.ehcache.annotations.benchmarks" };
+                break;
+            }
+            case PRIMITIVE_ARRAY: {
+                final int[] ints = new int[64];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = i * 31;
+                }
+                method = CacheKeyGeneratorBenchmark.class.getMethod("primitiveArray", int[].class);
+                arguments = new Object[] { ints };
+                break;
+            }
+            case COLLECTIONS: {
+                final Map<String, Object> map = new LinkedHashMap<String, Object>();
+                map.put("A", 123);
+                map.put("B", Arrays.asList("hello", "world"));
+                method = CacheKeyGeneratorBenchmark.class.getMethod("collections", List.class, Map.class);
+                arguments = new Object[] { Arrays.asList("foo", "bar", "bop"), map };
+                break;
+            }
+            case OBJECT_GRAPH: {
+                final Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(0);
+                method = CacheKeyGeneratorBenchmark.class.getMethod("objectGraph", Object.class);
+                arguments = new Object[] { new Object[] { "foo", new Object[] { 1, 2L, null, calendar }, new long[] { 1, 2, 3 } } };
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException("Unknown shape: " + this.shape);
+            }
+        }
+        
+        this.invocation = new BenchmarkMethodInvocation(method, arguments, null);
+        this.methodCacheKeyGenerator = createMethodCacheKeyGenerator(this.cacheKeyGenerator, method);
+    }
+    
+    @Benchmark
+    public Serializable generateKey() {
+        return this.cacheKeyGenerator.generateKey(this.invocation);
+    }
+    
+    @Benchmark
+    public Serializable generateMethodKey() {
+        return this.methodCacheKeyGenerator.generateKey(this.invocation);
+    }
+    
+    private static CacheKeyGenerator<? extends Serializable> createCacheKeyGenerator(String name) throws Exception {
+        if ("hash".equals(name)) {
+            return new HashCodeCacheKeyGenerator();
+        }
+        if ("hashAllocationFree".equals(name)) {
+            final HashCodeCacheKeyGenerator hashCodeCacheKeyGenerator = new HashCodeCacheKeyGenerator();
+            hashCodeCacheKeyGenerator.setAllocationFree(true);
+            return hashCodeCacheKeyGenerator;
+        }
+        if ("string".equals(name)) {
+            return new StringCacheKeyGenerator();
+        }
+        if ("list".equals(name)) {
+            return new ListCacheKeyGenerator();
+        }
+        if ("digest".equals(name)) {
+            return new MessageDigestCacheKeyGenerator();
+        }
+        if ("murmur3".equals(name)) {
+            return new Murmur3CacheKeyGenerator();
+        }
+        if ("array".equals(name)) {
+            return new ArrayCacheKeyGenerator();
+        }
+        throw new IllegalArgumentException("Unknown generator: " + name);
+    }
+
+    /**
+     * Same selection as CacheAttributeSourceImpl.getMethodCacheKeyGenerator
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static CacheKeyGenerator<? extends Serializable> createMethodCacheKeyGenerator(CacheKeyGenerator<? extends Serializable> cacheKeyGenerator, Method method) {
+        if (!(cacheKeyGenerator instanceof AbstractDeepCacheKeyGenerator)) {
+            return cacheKeyGenerator;
+        }
+        for (final Class<?> parameterType : method.getParameterTypes()) {
+            if (!ScalarCacheKeyGenerator.isScalarType(parameterType)) {
+                return cacheKeyGenerator;
+            }
+        }
+        return new ScalarCacheKeyGenerator((AbstractDeepCacheKeyGenerator)cacheKeyGenerator);
+    }
+    
+    public static Object none() {
+        return null;
+    }
+    
+    public static Object scalars(int i, long l, boolean b, TimeUnit e) {
+        return null;
+    }
+    
+    public static Object string(String s) {
+        return null;
+    }
+    
+    public static Object primitiveArray(int[] ints) {
+        return null;
+    }
+    
+    public static Object collections(List<String> list, Map<String, Object> map) {
+        return null;
+    }
+    
+    public static Object objectGraph(Object graph) {
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptor;
+
+/**
+ * Overhead of the {@link EhCacheInterceptor} for a cache hit and a cache miss compared to calling the method directly.
+ * Misses use a new key for every call so they include the put and the eviction of the least recently used entry.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorBenchmark {
+    private static final long HIT_KEY = -1;
+    
+    @Benchmark
+    public String hit(BenchmarkServices services) {
+        return services.getBenchmarkService().get(HIT_KEY);
+    }
+    
+    @Benchmark
+    public String miss(BenchmarkServices services, KeySequence keys) {
+        return services.getBenchmarkService().get(keys.next());
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread sequence of keys, each thread gets a distinct range so the keys never repeat across threads.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@State(Scope.Thread)
+public class KeySequence {
+    private static final AtomicLong THREADS = new AtomicLong();
+    
+    private long nextKey = THREADS.incrementAndGet() << 40;
+    
+    public long next() {
+        return this.nextKey++;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.googlecode.ehcache.annotations.RefreshableCacheEntry;
+import com.googlecode.ehcache.annotations.RefreshingCacheEntryFactory;
+import com.googlecode.ehcache.annotations.RefreshingSelfPopulatingCache;
+import com.googlecode.ehcache.annotations.support.TaskSchedulerAdapter;
+
+/**
+ * Cost of one synchronous refresh pass over all of the entries of a {@link RefreshingSelfPopulatingCache}. The
+ * refresh task is never scheduled, refreshes only happen when the benchmark calls them.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshingSelfPopulatingCacheBenchmark {
+    private static final TaskSchedulerAdapter NO_SCHEDULER = new TaskSchedulerAdapter() {
+        public void scheduleAtFixedRate(Runnable task, long period) {
+        }
+    };
+    
+    @Param({ "100", "10000" })
+    public int entries;
+    
+    private CacheManager cacheManager;
+    private RefreshingSelfPopulatingCache cache;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.cacheManager = new CacheManager(RefreshingSelfPopulatingCacheBenchmark.class.getResource("/ehcache-benchmarks.xml"));
+        
+        //A refresh interval of 0 makes every entry old enough to be refreshed on every pass
+        this.cache = new RefreshingSelfPopulatingCache(this.cacheManager.getEhcache("refreshingCache"), 
+                new RefreshingCacheEntryFactory(), NO_SCHEDULER, null, 0);
+        
+        final Method method = BenchmarkService.class.getMethod("get", long.class);
+        for (long key = 0; key < this.entries; key++) {
+            final String value = BenchmarkServiceImpl.load(key);
+            final BenchmarkMethodInvocation invocation = new BenchmarkMethodInvocation(method, new Object[] { key }, value);
+            this.cache.put(new Element(key, new RefreshableCacheEntry(invocation, value)));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.cacheManager.shutdown();
+    }
+    
+    @Benchmark
+    public void refresh() {
+        this.cache.refresh();
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention on a {@link SelfPopulatingCache} with many threads. Hits spread over a small set of hot keys which
+ * share the locks of the underlying BlockingCache, misses use a new key for every call.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SelfPopulatingCacheBenchmark {
+    private static final int HOT_KEYS = 16;
+    
+    @Benchmark
+    public String hit(BenchmarkServices services, KeySequence keys) {
+        return services.getBenchmarkService().getSelfPopulating(keys.next() % HOT_KEYS);
+    }
+    
+    @Benchmark
+    public String miss(BenchmarkServices services, KeySequence keys) {
+        return services.getBenchmarkService().getSelfPopulating(keys.next());
+    }
+}
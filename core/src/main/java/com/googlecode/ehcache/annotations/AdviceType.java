@@ -34,5 +34,9 @@ public enum AdviceType {
     /**
      * {@link TriggersRemove} advice
      */
-    REMOVE;
+    REMOVE,
+    /**
+     * {@link CacheableBatch} advice
+     */
+    CACHE_BATCH;
 }
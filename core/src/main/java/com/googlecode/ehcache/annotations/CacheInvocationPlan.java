@@ -0,0 +1,163 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.io.Serializable;
+
+import net.sf.ehcache.Ehcache;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.task.TaskExecutor;
+
+import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
+import com.googlecode.ehcache.annotations.support.ExceptionKeyFilter;
+
+/**
+ * Everything needed to service an invocation of a {@link Cacheable} method, computed once when the
+ * method's {@link CacheableAttribute} is created. If the caches for the method do not depend on the
+ * invocation, as is the case with the caches returned by the default resolver factory, they are resolved
+ * when the plan is built and the per-invocation resolver calls are skipped entirely.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class CacheInvocationPlan {
+    private final CacheableCacheResolver cacheResolver;
+    private final boolean staticallyResolved;
+    private final Ehcache cache;
+    private final ThreadLocal<MethodInvocation> selfPopulatingEntryFactory;
+    private final Ehcache exceptionCache;
+    private final boolean cacheLoaderConfigured;
+    private final boolean checkValueCacheFirst;
+    private final ExceptionKeyFilter exceptionKeyFilter;
+    private final TaskExecutor refreshExecutor;
+
+    /**
+     * Creates a plan that resolves caches via the {@link CacheableCacheResolver} on every invocation.
+     * 
+     * @param checkValueCacheFirst If the value cache should be checked before the exception cache
+     * @param refreshExecutor Executor for background refreshes of stale values, null if values are not refreshed
+     */
+    public CacheInvocationPlan(CacheableCacheResolver cacheResolver, boolean checkValueCacheFirst, TaskExecutor refreshExecutor) {
+        this.cacheResolver = cacheResolver;
+        this.staticallyResolved = false;
+        this.cache = null;
+        this.selfPopulatingEntryFactory = null;
+        this.exceptionCache = null;
+        this.cacheLoaderConfigured = true;
+        this.checkValueCacheFirst = checkValueCacheFirst;
+        this.exceptionKeyFilter = null;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Creates a plan with caches that were resolved up front.
+     *
+     * @param cache The cache to use, cannot be null
+     * @param selfPopulatingEntryFactory The self-populating entry factory for the cache, null if the cache is not self-populating
+     * @param exceptionCache The exception cache, null if exceptions are not cached
+     * @param checkValueCacheFirst If the value cache should be checked before the exception cache
+     * @param exceptionKeyFilter Filter of the keys in the exception cache, null if all lookups should go to the exception cache
+     * @param refreshExecutor Executor for background refreshes of stale values, null if values are not refreshed
+     */
+    public CacheInvocationPlan(CacheableCacheResolver cacheResolver, Ehcache cache, ThreadLocal<MethodInvocation> selfPopulatingEntryFactory, 
+            Ehcache exceptionCache, boolean checkValueCacheFirst, ExceptionKeyFilter exceptionKeyFilter, TaskExecutor refreshExecutor) {
+        this.cacheResolver = cacheResolver;
+        this.staticallyResolved = true;
+        this.cache = cache;
+        this.selfPopulatingEntryFactory = selfPopulatingEntryFactory;
+        this.exceptionCache = exceptionCache;
+        this.cacheLoaderConfigured = !cache.getRegisteredCacheLoaders().isEmpty();
+        this.checkValueCacheFirst = checkValueCacheFirst;
+        this.exceptionKeyFilter = exceptionKeyFilter;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return true if the caches were resolved when the plan was built
+     */
+    public boolean isStaticallyResolved() {
+        return this.staticallyResolved;
+    }
+
+    /**
+     * @see CacheableCacheResolver#resolveCache(Serializable, MethodInvocation)
+     */
+    public Ehcache resolveCache(Serializable cacheKey, MethodInvocation invocation) {
+        if (this.staticallyResolved) {
+            return this.cache;
+        }
+        return this.cacheResolver.resolveCache(cacheKey, invocation);
+    }
+
+    /**
+     * @see CacheableCacheResolver#resolveSelfPopulatingCacheEntryFactory(Ehcache, Serializable, MethodInvocation)
+     */
+    public ThreadLocal<MethodInvocation> resolveSelfPopulatingCacheEntryFactory(Ehcache cache, Serializable cacheKey, MethodInvocation invocation) {
+        if (this.staticallyResolved) {
+            return this.selfPopulatingEntryFactory;
+        }
+        return this.cacheResolver.resolveSelfPopulatingCacheEntryFactory(cache, cacheKey, invocation);
+    }
+
+    /**
+     * @see CacheableCacheResolver#resolveExceptionCache(Serializable, MethodInvocation, Throwable)
+     */
+    public Ehcache resolveExceptionCache(Serializable cacheKey, MethodInvocation invocation, Throwable t) {
+        if (this.staticallyResolved) {
+            return this.exceptionCache;
+        }
+        return this.cacheResolver.resolveExceptionCache(cacheKey, invocation, t);
+    }
+
+    /**
+     * @return true if the cache may have a CacheLoader registered and must be read via
+     * {@link Ehcache#getWithLoader(Object, net.sf.ehcache.loader.CacheLoader, Object)}. For statically
+     * resolved caches this is determined when the plan is built, loaders registered afterwards are not seen.
+     */
+    public boolean isCacheLoaderConfigured() {
+        return this.cacheLoaderConfigured;
+    }
+
+    /**
+     * @return true if the value cache should be checked before the exception cache.
+     */
+    public boolean isCheckValueCacheFirst() {
+        return this.checkValueCacheFirst;
+    }
+
+    /**
+     * @return Filter of the keys cached in the exception cache, null if there is no filter.
+     */
+    public ExceptionKeyFilter getExceptionKeyFilter() {
+        return this.exceptionKeyFilter;
+    }
+
+    /**
+     * @return Executor for background refreshes of stale values, null if values are not refreshed.
+     */
+    public TaskExecutor getRefreshExecutor() {
+        return this.refreshExecutor;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvocationPlan [staticallyResolved=" + this.staticallyResolved + ", cache=" + (this.cache == null ? null : this.cache.getName())
+                + ", selfPopulating=" + (this.selfPopulatingEntryFactory != null) + ", exceptionCache="
+                + (this.exceptionCache == null ? null : this.exceptionCache.getName()) + ", cacheLoaderConfigured=" + this.cacheLoaderConfigured 
+                + ", checkValueCacheFirst=" + this.checkValueCacheFirst + ", exceptionKeyFilter=" + (this.exceptionKeyFilter != null) + "]";
+    }
+}
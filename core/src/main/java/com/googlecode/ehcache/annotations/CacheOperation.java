@@ -0,0 +1,56 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+/**
+ * A single cache operation started by {@link CacheOperationListener#begin(CacheOperationType, java.lang.reflect.Method)}.
+ * Details are set as they become known, not all details apply to all {@link CacheOperationType}s. 
+ * {@link #complete()} is always called once the operation completes, even if it failed.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface CacheOperation {
+    /**
+     * @param cacheName Name of the cache the operation used
+     */
+    public void setCacheName(String cacheName);
+    
+    /**
+     * @param selfPopulating true if the value was read through a self-populating cache
+     */
+    public void setSelfPopulating(boolean selfPopulating);
+    
+    /**
+     * @param result How a {@link CacheOperationType#CACHEABLE} operation was served
+     */
+    public void setResult(CacheOperationResult result);
+    
+    /**
+     * @param nanos Time taken to generate the cache key in nanoseconds
+     */
+    public void setKeyGenerationTime(long nanos);
+    
+    /**
+     * @param nanos Time taken by the advised method to load the value in nanoseconds
+     */
+    public void setLoadTime(long nanos);
+    
+    /**
+     * Called when the operation completes
+     */
+    public void complete();
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.lang.reflect.Method;
+
+/**
+ * Notified of the cache operations performed for advised methods, used to feed profiling and tracing tools.
+ * {@link #begin(CacheOperationType, Method)} is called when the operation starts and
+ * {@link CacheOperation#complete()} when it completes, so implementations can measure the operation or
+ * place it on a timeline.
+ * 
+ * Implementations are called on every operation and must be cheap when they are not recording.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface CacheOperationListener {
+    /**
+     * Called when a cache operation starts.
+     * 
+     * @param type The type of operation
+     * @param method The advised method the operation is for
+     * @return The operation to fill in and end once it completes, null if the operation should not be recorded
+     */
+    public CacheOperation begin(CacheOperationType type, Method method);
+}
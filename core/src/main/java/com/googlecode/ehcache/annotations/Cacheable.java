@@ -27,6 +27,7 @@ import net.sf.ehcache.constructs.blocking.LockTimeoutException;
 import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.SpELCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheResolverFactory;
 
 /**
@@ -54,6 +55,56 @@ public @interface Cacheable {
      */
     DecoratedCacheType decoratedCacheType() default DecoratedCacheType.NONE;
 
+    /**
+     * If true concurrent invocations that miss the cache for the same key wait for the first of them to invoke
+     * the method and all return its result. Cache hits are not affected. Only used if {@link #decoratedCacheType()}
+     * is set to {@link DecoratedCacheType#NONE}, self-populating caches already block concurrent misses.
+     */
+    boolean coalesceMisses() default false;
+
+    /**
+     * Seconds after which a cached value is considered stale. Stale values are still returned immediately but the
+     * first caller to see one submits a background invocation of the method to replace it. Callers only wait for the
+     * method once the cached element expires, the element's time to live acts as the hard limit. Defaults to 0 which
+     * disables refreshing of stale values. Only used if {@link #decoratedCacheType()} is set to {@link DecoratedCacheType#NONE}.
+     * <p>
+     * Refreshes run on the executor configured for <code>annotation-driven</code>, or if there is none on a shared pool
+     * of two daemon threads that queues at most 1000 refreshes. With <code>mode="aspectj"</code> the join point cannot be
+     * proceeded once the advised call has returned, the first caller to see a stale value refreshes it before returning.
+     */
+    int softTimeToLive() default 0;
+
+    /**
+     * Seconds cached values live for, set on each {@link net.sf.ehcache.Element} stored by the method. Defaults to -1
+     * which uses the cache's timeToLiveSeconds, 0 means the value never expires based on its age. Lets methods with
+     * different lifetimes share a cache. Only used if {@link #decoratedCacheType()} is set to {@link DecoratedCacheType#NONE}.
+     */
+    int timeToLive() default -1;
+    
+    /**
+     * Seconds cached values live for after they were last accessed, set on each {@link net.sf.ehcache.Element} stored
+     * by the method. Defaults to -1 which uses the cache's timeToIdleSeconds, 0 means the value never expires based
+     * on its idle time. Only used if {@link #decoratedCacheType()} is set to {@link DecoratedCacheType#NONE}.
+     */
+    int timeToIdle() default -1;
+    
+    /**
+     * Seconds cached null values live for. Defaults to -1 which uses {@link #timeToLive()}. Only used if
+     * {@link #cacheNull()} is true and {@link #decoratedCacheType()} is set to {@link DecoratedCacheType#NONE}.
+     */
+    int nullTimeToLive() default -1;
+
+    /**
+     * Enables probabilistic early recomputation of cached values as they approach expiration. The time it took to
+     * load each value is stored with it and every hit recomputes the value early with a probability that grows as
+     * the element's expiration time nears, larger values recompute earlier. Spreading the recomputation out avoids
+     * many callers missing at once when a popular element expires. Defaults to 0 which disables early recomputation,
+     * 1.0 is a reasonable starting point. Only used if {@link #decoratedCacheType()} is set to {@link DecoratedCacheType#NONE}.
+     * 
+     * When enabled values are stored in the cache wrapped in a {@link LoadTimedCacheEntry}.
+     */
+    double earlyExpirationBeta() default 0;
+
     /**
      * If a EhCache {@link SelfPopulatingCache} wrapper should be used to ensure only one
      * value per key is created.
@@ -83,6 +134,24 @@ public @interface Cacheable {
      */
     long refreshInterval() default 60 * 1000;
     
+    /**
+     * SpEL expression evaluated to generate the cache key, parsed once per method. Has the same variables as
+     * {@link SpELCacheKeyGenerator}, for example <code>#args[0].id</code> uses the id of the first argument as the key.
+     * The arguments are the ones that remain after any {@link PartialCacheKey} filtering. The expression must return
+     * a {@link java.io.Serializable} object. Requires Spring 3.0 or later and cannot be combined with
+     * {@link #keyGeneratorName()} or {@link #keyGenerator()}.
+     */
+    String key() default "";
+    
+    /**
+     * SpEL expressions evaluated to tag the cached value, parsed once per method. Has the same variables as
+     * {@link SpELCacheKeyGenerator} but is evaluated against all of the method arguments, for example
+     * <code>'customer:' + #args[0]</code>. If an expression returns a {@link java.util.Collection} or array each element
+     * is a tag. {@link TriggersRemove#tags()} removes every value in a cache that has one of the tags.
+     * Tags are only applied to the values cached by this method, not to cached exceptions.
+     */
+    String[] tags() default {};
+    
     /**
      * The Spring Bean name of the {@link CacheKeyGenerator} to use.
      * Ignored if {@link #keyGenerator()} is specified. 
@@ -96,6 +165,25 @@ public @interface Cacheable {
      */
     String exceptionCacheName() default "";
     
+    /**
+     * If true the value cache is checked first and the exception cache is only checked when there is no cached
+     * value. Defaults to false, the exception cache is checked before the value cache. Only used if
+     * {@link #exceptionCacheName()} is specified and {@link #decoratedCacheType()} is {@link DecoratedCacheType#NONE}.
+     */
+    boolean checkValueCacheFirst() default false;
+    
+    /**
+     * If true an in-memory bloom filter of the keys cached in the exception cache is used to answer most exception
+     * cache lookups without reading the cache. The filter is shared by all methods using the same exception cache
+     * and only sees exceptions cached by methods that have it enabled, exceptions placed in the cache any other way,
+     * for example loaded from a persistent disk store, are ignored. Only used if {@link #exceptionCacheName()} is specified.
+     * <p>
+     * The filter is sized for the <code>maxElementsInMemory</code> of the exception cache, or 10000 keys if that is
+     * unlimited. It is cleared when the exception cache is cleared and rebuilt from the keys in the exception cache
+     * whenever as many keys as it is sized for have been added, so expired exceptions do not degrade it over time.
+     */
+    boolean exceptionCacheKeyFilter() default false;
+    
     /**
      * Used the specify and configure the {@link CacheKeyGenerator} to use.
      * If this and {@link #keyGeneratorName()} are not specified the default generator will be used.  
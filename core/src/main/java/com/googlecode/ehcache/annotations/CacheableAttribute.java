@@ -15,6 +15,10 @@
  */
 package com.googlecode.ehcache.annotations;
 
+import java.io.Serializable;
+import java.util.List;
+
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
 
 /**
@@ -35,8 +39,43 @@ public interface CacheableAttribute extends MethodAttribute {
      */
     public boolean isCacheNull();
     
+    /**
+     * @return true If concurrent invocations that miss the cache for the same key should share a single invocation.
+     */
+    public boolean isCoalesceMisses();
+    
+    /**
+     * @return Seconds after which a cached value should be refreshed in the background, 0 if values are never refreshed.
+     */
+    public int getSoftTimeToLive();
+    
+    /**
+     * @return Seconds cached values live for, -1 to use the cache's default.
+     */
+    public int getTimeToLive();
+    
+    /**
+     * @return Seconds cached values live for after they were last accessed, -1 to use the cache's default.
+     */
+    public int getTimeToIdle();
+    
+    /**
+     * @return Seconds cached null values live for, -1 to use {@link #getTimeToLive()}.
+     */
+    public int getNullTimeToLive();
+    
+    /**
+     * @return The beta used to recompute values early as they near expiration, 0 if values are never recomputed early.
+     */
+    public double getEarlyExpirationBeta();
+    
     /**
      * @return The {@link CacheableInterceptor} to use when handling intercepted method invocations. Cannot return null.
      */
     public CacheableInterceptor getCacheInterceptor();
+    
+    /**
+     * @return Generators for the tags of cached values, see {@link Cacheable#tags()}. Empty if values are not tagged, cannot return null.
+     */
+    public List<CacheKeyGenerator<Serializable>> getTagGenerators();
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collection;
+import java.util.Map;
+
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+import com.googlecode.ehcache.annotations.resolver.CacheResolverFactory;
+
+/**
+ * Annotation for methods that load a batch of values, for example <code>Map&lt;Id, V&gt; loadAll(Collection&lt;Id&gt; ids)</code>.
+ * Each element of the {@link Collection} parameter is cached separately. On invocation the values for the elements that are
+ * already cached are read from the cache and the method is only invoked with the elements that were not found. The values it
+ * returns are cached and merged with the cached values into the returned {@link Map}.
+ * <p>
+ * The method must have exactly one parameter whose type is {@link Collection}, {@link java.util.List} or {@link java.util.Set}
+ * and must return a {@link Map} keyed by the elements of that collection. Elements without a value are left out of the returned
+ * map. The cache key for each element is generated from the method invocation with the collection parameter replaced by the element.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@Target( { ElementType.METHOD } )
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface CacheableBatch {
+    /**
+     * The name of the cache to use
+     */
+    String cacheName();
+    
+    /**
+     * If true elements the method returns no value for are cached as null and are not passed to the method again
+     * until they expire. If false they are passed to the method on every invocation. Defaults to true.
+     */
+    boolean cacheNull() default true;
+    
+    /**
+     * The Spring Bean name of the {@link CacheKeyGenerator} to use.
+     * Ignored if {@link #keyGenerator()} is specified. 
+     * If this and {@link #keyGenerator()} are not specified the default generator will be used.
+     */
+    String keyGeneratorName() default "";
+    
+    /**
+     * Used the specify and configure the {@link CacheKeyGenerator} to use.
+     * If this and {@link #keyGeneratorName()} are not specified the default generator will be used.  
+     */
+    KeyGenerator keyGenerator() default @KeyGenerator(name = "");
+    
+    /**
+     * The Spring Bean name of the {@link CacheResolverFactory} to use to resolve the correct cache at runtime.
+     * Ignored if {@link #resolverFactory()} is specified.
+     * If this and {@link #resolverFactory()} are not specified the specified {@link #cacheName()} will be used.
+     */
+    String resolverFactoryName() default "";
+    
+    /**
+     * Used the specify and configure the {@link CacheResolverFactory} to use.
+     * If this and {@link #resolverFactoryName()} are not specified the specified {@link #cacheName()} will be used. 
+     */
+    ResolverFactory resolverFactory() default @ResolverFactory(name = "");
+}
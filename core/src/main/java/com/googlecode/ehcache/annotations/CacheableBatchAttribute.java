@@ -0,0 +1,47 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
+
+/**
+ * Represents the objects needed to intercept calls to methods annotated
+ * with {@link com.googlecode.ehcache.annotations.CacheableBatch}
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface CacheableBatchAttribute extends MethodAttribute {
+    /**
+     * @return The {@link CacheableCacheResolver} used to determine the Cache for each element. Cannot return null.
+     */
+    public CacheableCacheResolver getCacheResolver();
+    
+    /**
+     * @return true If elements the method returns no value for should be cached as null.
+     */
+    public boolean isCacheNull();
+    
+    /**
+     * @return The index of the collection parameter whose elements are cached individually.
+     */
+    public int getCollectionParameterIndex();
+    
+    /**
+     * @return true if the collection parameter is a {@link java.util.Set}, false if it accepts a {@link java.util.List}.
+     */
+    public boolean isSetParameter();
+}
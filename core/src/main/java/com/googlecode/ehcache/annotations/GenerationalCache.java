@@ -0,0 +1,516 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.constructs.EhcacheDecoratorAdapter;
+import net.sf.ehcache.distribution.CacheReplicator;
+import net.sf.ehcache.event.CacheEventListener;
+import net.sf.ehcache.event.RegisteredEventListeners;
+import net.sf.ehcache.loader.CacheLoader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Decorator that folds a per-cache generation number into every key, turning {@link #removeAll()} into a
+ * constant time increment of the generation instead of a walk over every store of the cache. Entries from
+ * older generations can no longer be reached through the decorator and age out of the underlying cache
+ * through the normal eviction and expiry policies. If a {@link TaskExecutor} is provided each generation
+ * change also queues a background sweep that removes the unreachable entries.
+ * <p>
+ * Elements in the underlying cache are keyed by {@link GenerationKey}. {@link #getKeys()} and its variants return
+ * the keys of the current generation as they were passed to the decorator, the key lists and sizes reported by
+ * the underlying cache include unreachable entries until they are evicted or swept.
+ * <p>
+ * Listeners registered with the {@link #getCacheEventNotificationService()} of the decorator are notified of the
+ * events of the current generation with the keys passed to the decorator, listeners registered directly on the
+ * underlying cache see {@link GenerationKey}s. A generation change notifies the listeners of the decorator of a
+ * removeAll, the listeners of the underlying cache are not notified as nothing was removed from it.
+ * <p>
+ * The generation only exists in the JVM that created the decorator, replicated and clustered caches cannot be
+ * decorated as a removeAll would not make the entries unreachable on the other nodes. Generations are numbered
+ * within a random epoch chosen when the decorator is created, so entries a persistent disk store kept from a
+ * previous run can never be reached again. If a {@link TaskExecutor} is provided they are swept when the decorator
+ * is created, otherwise they occupy the store until they are evicted or expire.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class GenerationalCache extends EhcacheDecoratorAdapter {
+    protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+    
+    private final long epoch = new SecureRandom().nextLong();
+    private final AtomicLong generation = new AtomicLong(0);
+    private final AtomicBoolean sweepQueued = new AtomicBoolean(false);
+    private final TaskExecutor sweepExecutor;
+    private final RegisteredEventListeners eventListeners;
+    
+    public GenerationalCache(Ehcache underlyingCache) {
+        this(underlyingCache, null);
+    }
+
+    /**
+     * @param underlyingCache The cache to store the generation keyed elements in
+     * @param sweepExecutor Executor used to remove the entries of old generations, null to leave them to eviction
+     * @throws IllegalArgumentException If the cache is replicated or clustered
+     */
+    public GenerationalCache(Ehcache underlyingCache, TaskExecutor sweepExecutor) {
+        super(underlyingCache);
+        if (isDistributed(underlyingCache)) {
+            throw new IllegalArgumentException("Cache " + underlyingCache.getName() + " is replicated or clustered, " +
+                    "the generation of a GenerationalCache is local to a single JVM so a removeAll would not reach the other nodes");
+        }
+        
+        this.sweepExecutor = sweepExecutor;
+        this.eventListeners = new RegisteredEventListeners(this);
+        underlyingCache.getCacheEventNotificationService().registerListener(new GenerationEventListener());
+        
+        //Entries already in the cache, such as those of a persistent disk store, are from an older generation
+        if (underlyingCache.getSize() > 0) {
+            this.queueSweep();
+        }
+    }
+    
+    /**
+     * @return true if the cache is replicated to other nodes or clustered, such caches cannot be decorated
+     */
+    public static boolean isDistributed(Ehcache cache) {
+        final CacheConfiguration cacheConfiguration = cache.getCacheConfiguration();
+        if (cacheConfiguration != null && cacheConfiguration.isTerracottaClustered()) {
+            return true;
+        }
+        
+        for (final CacheEventListener listener : cache.getCacheEventNotificationService().getCacheEventListeners()) {
+            if (listener instanceof CacheReplicator) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return The epoch of the decorator, the generations of a decorator are only compared within its epoch
+     */
+    public long getEpoch() {
+        return this.epoch;
+    }
+    
+    /**
+     * @return The current generation of the cache
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+    
+    /**
+     * Moves the cache to a new generation, making every existing entry unreachable.
+     * 
+     * @return The new generation of the cache
+     */
+    public long nextGeneration() {
+        final long next = this.generation.incrementAndGet();
+        this.logger.debug("Cache {} moved to generation {}", this.getName(), next);
+        
+        //Only the listeners of the decorator see the removeAll, nothing was removed from the underlying cache
+        this.eventListeners.notifyRemoveAll(false);
+        
+        this.queueSweep();
+        return next;
+    }
+    
+    /**
+     * Removes every entry of the underlying cache that is not reachable from the current generation.
+     * 
+     * @return The number of entries removed
+     */
+    public int sweep() {
+        int removed = 0;
+        for (final Object key : this.underlyingCache.getKeys()) {
+            if (!this.isCurrent(key) && this.underlyingCache.removeQuiet(key)) {
+                removed++;
+            }
+        }
+        
+        this.logger.debug("Swept {} entries of old generations from cache {}", removed, this.getName());
+        return removed;
+    }
+    
+    protected void queueSweep() {
+        if (this.sweepExecutor == null || !this.sweepQueued.compareAndSet(false, true)) {
+            return;
+        }
+        
+        this.sweepExecutor.execute(new Runnable() {
+            public void run() {
+                //Clear the flag first so a generation change during the sweep queues another one
+                sweepQueued.set(false);
+                try {
+                    sweep();
+                }
+                catch (Throwable t) {
+                    logger.error("An exception was thrown while sweeping old generations from cache " + getName(), t);
+                }
+            }
+        });
+    }
+    
+    protected boolean isCurrent(Object key) {
+        if (!(key instanceof GenerationKey)) {
+            return false;
+        }
+        
+        final GenerationKey generationKey = (GenerationKey)key;
+        return generationKey.epoch == this.epoch && generationKey.generation == this.generation.get();
+    }
+    
+    protected Object toGenerationKey(Object key) {
+        if (key instanceof GenerationKey) {
+            return key;
+        }
+        return new GenerationKey(this.epoch, this.generation.get(), key);
+    }
+    
+    protected Element toGenerationElement(Element element) {
+        if (element == null) {
+            return null;
+        }
+        
+        final Object key = element.getObjectKey();
+        final Object generationKey = this.toGenerationKey(key);
+        if (generationKey == key) {
+            return element;
+        }
+        
+        return copyElement(element, generationKey);
+    }
+    
+    /**
+     * @return A copy of the element of the underlying cache keyed by the key passed to the decorator, null if the element is not from the current generation
+     */
+    protected Element toKeyElement(Element element) {
+        if (element == null || !this.isCurrent(element.getObjectKey())) {
+            return null;
+        }
+        
+        return copyElement(element, ((GenerationKey)element.getObjectKey()).key);
+    }
+    
+    protected List<Object> filterKeys(List<?> keys) {
+        final List<Object> currentKeys = new ArrayList<Object>(keys.size());
+        for (final Object key : keys) {
+            if (this.isCurrent(key)) {
+                currentKeys.add(((GenerationKey)key).key);
+            }
+        }
+        return currentKeys;
+    }
+    
+    private static Element copyElement(Element element, Object key) {
+        return new Element(key, element.getObjectValue(), element.getVersion(), 
+                element.getCreationTime(), element.getLastAccessTime(), element.getHitCount(), 
+                element.usesCacheDefaultLifespan(), element.getTimeToLive(), element.getTimeToIdle(), 
+                element.getLastUpdateTime());
+    }
+    
+    @Override
+    public RegisteredEventListeners getCacheEventNotificationService() {
+        return this.eventListeners;
+    }
+
+    @Override
+    public void removeAll() throws IllegalStateException, CacheException {
+        this.nextGeneration();
+    }
+
+    @Override
+    public void removeAll(boolean doNotNotifyCacheReplicators) throws IllegalStateException, CacheException {
+        this.nextGeneration();
+    }
+
+    @Override
+    public Element get(Object key) throws IllegalStateException, CacheException {
+        return this.underlyingCache.get(this.toGenerationKey(key));
+    }
+
+    @Override
+    public Element get(Serializable key) throws IllegalStateException, CacheException {
+        return this.underlyingCache.get(this.toGenerationKey(key));
+    }
+
+    @Override
+    public Element getQuiet(Object key) throws IllegalStateException, CacheException {
+        return this.underlyingCache.getQuiet(this.toGenerationKey(key));
+    }
+
+    @Override
+    public Element getQuiet(Serializable key) throws IllegalStateException, CacheException {
+        return this.underlyingCache.getQuiet(this.toGenerationKey(key));
+    }
+
+    @Override
+    public Element getWithLoader(Object key, CacheLoader loader, Object loaderArgument) throws CacheException {
+        return this.underlyingCache.getWithLoader(this.toGenerationKey(key), loader, loaderArgument);
+    }
+
+    @Override
+    public void put(Element element, boolean doNotNotifyCacheReplicators) throws IllegalArgumentException, IllegalStateException, CacheException {
+        this.underlyingCache.put(this.toGenerationElement(element), doNotNotifyCacheReplicators);
+    }
+
+    @Override
+    public void put(Element element) throws IllegalArgumentException, IllegalStateException, CacheException {
+        this.underlyingCache.put(this.toGenerationElement(element));
+    }
+
+    @Override
+    public void putQuiet(Element element) throws IllegalArgumentException, IllegalStateException, CacheException {
+        this.underlyingCache.putQuiet(this.toGenerationElement(element));
+    }
+
+    @Override
+    public void putWithWriter(Element element) throws IllegalArgumentException, IllegalStateException, CacheException {
+        this.underlyingCache.putWithWriter(this.toGenerationElement(element));
+    }
+
+    @Override
+    public Element putIfAbsent(Element element) throws NullPointerException {
+        return this.underlyingCache.putIfAbsent(this.toGenerationElement(element));
+    }
+
+    @Override
+    public Element replace(Element element) throws NullPointerException {
+        return this.underlyingCache.replace(this.toGenerationElement(element));
+    }
+
+    @Override
+    public boolean replace(Element old, Element element) throws NullPointerException, IllegalArgumentException {
+        return this.underlyingCache.replace(this.toGenerationElement(old), this.toGenerationElement(element));
+    }
+
+    @Override
+    public boolean remove(Object key, boolean doNotNotifyCacheReplicators) throws IllegalStateException {
+        return this.underlyingCache.remove(this.toGenerationKey(key), doNotNotifyCacheReplicators);
+    }
+
+    @Override
+    public boolean remove(Object key) throws IllegalStateException {
+        return this.underlyingCache.remove(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean remove(Serializable key, boolean doNotNotifyCacheReplicators) throws IllegalStateException {
+        return this.underlyingCache.remove(this.toGenerationKey(key), doNotNotifyCacheReplicators);
+    }
+
+    @Override
+    public boolean remove(Serializable key) throws IllegalStateException {
+        return this.underlyingCache.remove(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean removeQuiet(Object key) throws IllegalStateException {
+        return this.underlyingCache.removeQuiet(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean removeQuiet(Serializable key) throws IllegalStateException {
+        return this.underlyingCache.removeQuiet(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean removeWithWriter(Object key) throws IllegalStateException, CacheException {
+        return this.underlyingCache.removeWithWriter(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean removeElement(Element element) throws NullPointerException {
+        return this.underlyingCache.removeElement(this.toGenerationElement(element));
+    }
+
+    @Override
+    public boolean isKeyInCache(Object key) {
+        return this.underlyingCache.isKeyInCache(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean isElementInMemory(Object key) {
+        return this.underlyingCache.isElementInMemory(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean isElementInMemory(Serializable key) {
+        return this.underlyingCache.isElementInMemory(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean isElementOnDisk(Object key) {
+        return this.underlyingCache.isElementOnDisk(this.toGenerationKey(key));
+    }
+
+    @Override
+    public boolean isElementOnDisk(Serializable key) {
+        return this.underlyingCache.isElementOnDisk(this.toGenerationKey(key));
+    }
+
+    @Override
+    public List<Object> getKeys() throws IllegalStateException, CacheException {
+        return this.filterKeys(this.underlyingCache.getKeys());
+    }
+
+    @Override
+    public List<Object> getKeysNoDuplicateCheck() throws IllegalStateException {
+        return this.filterKeys(this.underlyingCache.getKeysNoDuplicateCheck());
+    }
+
+    @Override
+    public List<Object> getKeysWithExpiryCheck() throws IllegalStateException, CacheException {
+        return this.filterKeys(this.underlyingCache.getKeysWithExpiryCheck());
+    }
+
+    /**
+     * Registered on the underlying cache, passes the events of the current generation on to the listeners
+     * registered with the decorator.
+     */
+    private final class GenerationEventListener implements CacheEventListener {
+        public void notifyElementRemoved(Ehcache cache, Element element) throws CacheException {
+            final Element keyElement = toKeyElement(element);
+            if (keyElement != null) {
+                eventListeners.notifyElementRemoved(keyElement, false);
+            }
+        }
+
+        public void notifyElementPut(Ehcache cache, Element element) throws CacheException {
+            final Element keyElement = toKeyElement(element);
+            if (keyElement != null) {
+                eventListeners.notifyElementPut(keyElement, false);
+            }
+        }
+
+        public void notifyElementUpdated(Ehcache cache, Element element) throws CacheException {
+            final Element keyElement = toKeyElement(element);
+            if (keyElement != null) {
+                eventListeners.notifyElementUpdated(keyElement, false);
+            }
+        }
+
+        public void notifyElementExpired(Ehcache cache, Element element) {
+            final Element keyElement = toKeyElement(element);
+            if (keyElement != null) {
+                eventListeners.notifyElementExpiry(keyElement, false);
+            }
+        }
+
+        public void notifyElementEvicted(Ehcache cache, Element element) {
+            final Element keyElement = toKeyElement(element);
+            if (keyElement != null) {
+                eventListeners.notifyElementEvicted(keyElement, false);
+            }
+        }
+
+        public void notifyRemoveAll(Ehcache cache) {
+            eventListeners.notifyRemoveAll(false);
+        }
+
+        public void dispose() {
+            eventListeners.dispose();
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            throw new CloneNotSupportedException(GenerationEventListener.class.getName() + " belongs to a single cache and cannot be cloned");
+        }
+    }
+
+    /**
+     * Key of the elements in the underlying cache, pairs the key used by the caller with the epoch and generation
+     * the element was stored in.
+     */
+    public static final class GenerationKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final long epoch;
+        private final long generation;
+        private final Object key;
+        
+        public GenerationKey(long epoch, long generation, Object key) {
+            this.epoch = epoch;
+            this.generation = generation;
+            this.key = key;
+        }
+
+        public long getEpoch() {
+            return this.epoch;
+        }
+
+        public long getGeneration() {
+            return this.generation;
+        }
+
+        public Object getKey() {
+            return this.key;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + (int) (epoch ^ (epoch >>> 32));
+            result = prime * result + (int) (generation ^ (generation >>> 32));
+            result = prime * result + ((key == null) ? 0 : key.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null)
+                return false;
+            if (getClass() != obj.getClass())
+                return false;
+            GenerationKey other = (GenerationKey) obj;
+            if (epoch != other.epoch)
+                return false;
+            if (generation != other.generation)
+                return false;
+            if (key == null) {
+                if (other.key != null)
+                    return false;
+            }
+            else if (!key.equals(other.key))
+                return false;
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "GenerationKey [epoch=" + epoch + ", generation=" + generation + ", key=" + key + "]";
+        }
+    }
+}
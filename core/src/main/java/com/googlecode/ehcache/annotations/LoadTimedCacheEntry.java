@@ -0,0 +1,56 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.io.Serializable;
+
+/**
+ * Cached value along with how long it took to load, used for {@link Cacheable#earlyExpirationBeta()}.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class LoadTimedCacheEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long loadTime;
+
+    /**
+     * @param value The cached value
+     * @param loadTime The time it took to load the value in nanoseconds
+     */
+    public LoadTimedCacheEntry(Object value, long loadTime) {
+        this.value = value;
+        this.loadTime = loadTime;
+    }
+
+    public Object getValue() {
+        return this.value;
+    }
+
+    /**
+     * @return The time it took to load the value in nanoseconds
+     */
+    public long getLoadTime() {
+        return this.loadTime;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTimedCacheEntry [loadTime=" + this.loadTime + ", value=" + this.value + "]";
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.lang.reflect.Method;
+
+/**
+ * Optional extension of {@link CacheAttributeSource} for sources that can return the runtime information
+ * for a method in a single lookup. Sources that do not implement it are queried with
+ * {@link CacheAttributeSource#getAdviceType(Method, Class)} followed by the matching get*Attribute method.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface MethodAttributeSource extends CacheAttributeSource {
+    /**
+     * Gets the runtime information for a method in a single lookup. The type of the returned attribute
+     * is determined by {@link MethodAttribute#getAdviceType()}.
+     * 
+     * @param method The method to inspect
+     * @param targetClass The class the method exists on
+     * @return Runtime configuration for the method, null if the method is not advised.
+     */
+    public MethodAttribute getMethodAttribute(Method method, Class<?> targetClass);
+}
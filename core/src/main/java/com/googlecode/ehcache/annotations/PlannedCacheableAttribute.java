@@ -0,0 +1,31 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+/**
+ * Optional extension of {@link CacheableAttribute} for attributes that carry a precomputed
+ * {@link CacheInvocationPlan}. For attributes that do not implement it the caches are resolved via
+ * {@link CacheableAttribute#getCacheResolver()} on every invocation.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface PlannedCacheableAttribute extends CacheableAttribute {
+    /**
+     * @return The precomputed {@link CacheInvocationPlan} for the method. Cannot return null.
+     */
+    public CacheInvocationPlan getInvocationPlan();
+}
@@ -28,6 +28,7 @@ import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
 import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 import net.sf.ehcache.event.CacheManagerEventListener;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.task.TaskExecutor;
@@ -49,6 +50,7 @@ public class RefreshingSelfPopulatingCache extends SelfPopulatingCache {
     private final TaskSchedulerAdapter scheduler;
     private final TaskExecutor executer;
     private final long refreshInterval;
+    private volatile CacheOperationListener cacheOperationListener;
     
     public RefreshingSelfPopulatingCache(Ehcache cache, CacheEntryFactory cacheEntryFactory,
             TaskSchedulerAdapter scheduler, TaskExecutor executer,
@@ -92,6 +94,13 @@ public class RefreshingSelfPopulatingCache extends SelfPopulatingCache {
     public long getRefreshInterval() {
         return refreshInterval;
     }
+    
+    /**
+     * @param cacheOperationListener Listener notified of each element refresh, null for no listener
+     */
+    public void setCacheOperationListener(CacheOperationListener cacheOperationListener) {
+        this.cacheOperationListener = cacheOperationListener;
+    }
 
     protected void scheduleRefreshTask() {
         scheduler.scheduleAtFixedRate(new Runnable() {
@@ -137,10 +146,11 @@ public class RefreshingSelfPopulatingCache extends SelfPopulatingCache {
                 this.logger.warn("RefreshingSelfPopulatingCache contains an entry which is not a RefreshableCacheEntry for key {} this entry will be ignored during refresh.", key);
                 return null;
             }
+            final RefreshableCacheEntry refreshableCacheEntry = (RefreshableCacheEntry)value;
             
             //If no executor refresh synchronously
             if (this.executer == null) {
-                super.refreshElement(element, backingCache, quiet);
+                this.refreshEntry(element, backingCache, quiet, refreshableCacheEntry);
             }
             //If executor refresh via thread-pool
             else {
@@ -149,7 +159,7 @@ public class RefreshingSelfPopulatingCache extends SelfPopulatingCache {
                 executer.execute(new Runnable() {
                     public void run() {
                         try {
-                            RefreshingSelfPopulatingCache.super.refreshElement(element, backingCache, quiet);
+                            refreshEntry(element, backingCache, quiet, refreshableCacheEntry);
                         }
                         catch (Throwable e) {
                             logger.error("An exception was thrown while refreshing the ca", e);
@@ -174,4 +184,36 @@ public class RefreshingSelfPopulatingCache extends SelfPopulatingCache {
         
         return element;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Refreshes the element via {@link SelfPopulatingCache#refreshElement(Element, Ehcache, boolean)}, reporting
+     * the refresh to the {@link CacheOperationListener} if one is set.
+     */
+    private void refreshEntry(Element element, Ehcache backingCache, boolean quiet, RefreshableCacheEntry refreshableCacheEntry) throws Exception {
+        final CacheOperationListener cacheOperationListener = this.cacheOperationListener;
+        final MethodInvocation methodInvocation = refreshableCacheEntry.getMethodInvocation();
+        final CacheOperation operation;
+        if (cacheOperationListener != null && methodInvocation != null) {
+            operation = cacheOperationListener.begin(CacheOperationType.REFRESH, methodInvocation.getMethod());
+        }
+        else {
+            operation = null;
+        }
+        
+        if (operation == null) {
+            super.refreshElement(element, backingCache, quiet);
+            return;
+        }
+        
+        operation.setCacheName(backingCache.getName());
+        operation.setSelfPopulating(true);
+        final long start = System.nanoTime();
+        try {
+            super.refreshElement(element, backingCache, quiet);
+        }
+        finally {
+            operation.setLoadTime(System.nanoTime() - start);
+            operation.complete();
+        }
+    }
+}
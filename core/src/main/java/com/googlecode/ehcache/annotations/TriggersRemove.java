@@ -23,6 +23,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.SpELCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheResolverFactory;
 
 
@@ -45,6 +46,31 @@ public @interface TriggersRemove {
      */
     boolean removeAll() default false;
     
+    /**
+     * If true the method's single {@link java.util.Collection} parameter is expanded and a key is generated and
+     * removed for each of its elements. The key for an element is generated from the method invocation with the
+     * collection parameter replaced by the element, matching the keys of a method that takes a single element.
+     * Ignored if {@link #removeAll()} is true.
+     */
+    boolean expandCollection() default false;
+    
+    /**
+     * SpEL expression evaluated to generate the cache key, parsed once per method. Has the same variables as
+     * {@link SpELCacheKeyGenerator}, for example <code>#args[0].id</code> uses the id of the first argument as the key.
+     * The arguments are the ones that remain after any {@link PartialCacheKey} filtering. The expression must return
+     * a {@link java.io.Serializable} object. Requires Spring 3.0 or later and cannot be combined with
+     * {@link #keyGeneratorName()} or {@link #keyGenerator()}.
+     * If {@link #removeAll()} is true no key is generated.
+     */
+    String key() default "";
+    
+    /**
+     * SpEL expressions evaluated to find the tags to remove, see {@link Cacheable#tags()}. Every value in the caches
+     * that was tagged with one of the tags is removed instead of the value for the generated key.
+     * Ignored if {@link #removeAll()} is true.
+     */
+    String[] tags() default {};
+    
     /**
      * The Spring Bean name of the {@link CacheKeyGenerator} to use for all caches.
      * Ignored if {@link #keyGenerator()} is specified. 
@@ -63,8 +89,10 @@ public @interface TriggersRemove {
     /**
      * Used to specify 'when' to run the ehcache remove call:
      * before or after method invocation.
-     * If you specify {@link When#AFTER_METHOD_INVOCATION} and your method invocation throws
-     * an exception, the ehcache remove call WILL NOT execute.
+     * If you specify {@link When#AFTER_METHOD_INVOCATION} or {@link When#AFTER_METHOD_INVOCATION_ASYNC} and your
+     * method invocation throws an exception, the ehcache remove call WILL NOT execute.
+     * With {@link When#AFTER_METHOD_INVOCATION_ASYNC} the removal happens in the background shortly after the
+     * method returns, identical removals queued within the configured window are coalesced.
      * Default value is {@link When#BEFORE_METHOD_INVOCATION}.
      */
     When when() default When.BEFORE_METHOD_INVOCATION;
@@ -18,9 +18,14 @@
  */
 package com.googlecode.ehcache.annotations;
 
+import java.io.Serializable;
+import java.util.List;
+
 import net.sf.ehcache.Ehcache;
 
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver;
+import com.googlecode.ehcache.annotations.support.DebouncedCacheRemover;
 
 /**
  * Represents the objects needed to intercept calls to methods annotated
@@ -43,10 +48,25 @@ public interface TriggersRemoveAttribute extends MethodAttribute {
      * @return true if {@link Ehcache#removeAll()} should be called.
      */
     public boolean isRemoveAll();
+    
+    /**
+     * @return The index of the collection parameter whose elements each have their key removed, -1 if a single key is removed.
+     */
+    public int getCollectionParameterIndex();
+
+    /**
+     * @return Generators for the tags whose values are removed, see {@link TriggersRemove#tags()}. Empty if the generated key is removed instead, cannot return null.
+     */
+    public List<CacheKeyGenerator<Serializable>> getTagGenerators();
 
     /**
      * 
      * @return 'when' to run the removeall (before or after the method invocation)
      */
     public When getWhen();
+    
+    /**
+     * @return The remover that queues removals for {@link When#AFTER_METHOD_INVOCATION_ASYNC}, null for other values of {@link #getWhen()}.
+     */
+    public DebouncedCacheRemover getDebouncedCacheRemover();
 }
@@ -23,5 +23,10 @@ package com.googlecode.ehcache.annotations;
  */
 public enum When {
     BEFORE_METHOD_INVOCATION,
-    AFTER_METHOD_INVOCATION;
+    AFTER_METHOD_INVOCATION,
+    /**
+     * After a successful method invocation the removal is queued and performed in the background. Duplicate
+     * removals queued within the configured window are only performed once.
+     */
+    AFTER_METHOD_INVOCATION_ASYNC;
 }
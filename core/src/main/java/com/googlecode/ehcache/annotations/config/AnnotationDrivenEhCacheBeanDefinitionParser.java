@@ -17,6 +17,8 @@ package com.googlecode.ehcache.annotations.config;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.springframework.aop.Pointcut;
@@ -32,6 +34,7 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.BeanDefinitionParser;
 import org.springframework.beans.factory.xml.ParserContext;
 import org.springframework.beans.factory.xml.XmlReaderContext;
+import org.springframework.jmx.export.MBeanExporter;
 import org.springframework.util.StringUtils;
 import org.w3c.dom.Element;
 
@@ -42,11 +45,14 @@ import com.googlecode.ehcache.annotations.TriggersRemove;
 import com.googlecode.ehcache.annotations.impl.CacheAttributeSourceImpl;
 import com.googlecode.ehcache.annotations.impl.CacheStaticMethodMatcherPointcut;
 import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptor;
+import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatistics;
+import com.googlecode.ehcache.annotations.key.ArrayCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.CachingReflectionHelper;
 import com.googlecode.ehcache.annotations.key.HashCodeCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.ListCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.MessageDigestCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.Murmur3CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.ReflectionHashCodeCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.ReflectionHelperAware;
 import com.googlecode.ehcache.annotations.key.StringCacheKeyGenerator;
@@ -71,11 +77,20 @@ public class AnnotationDrivenEhCacheBeanDefinitionParser implements BeanDefiniti
     public static final String XSD_ATTR__SELF_POPULATING_CACHE_SCOPE = "self-populating-cache-scope";
     public static final String XSD_ATTR__SCHEDULER = "scheduler";
     public static final String XSD_ATTR__EXECUTOR = "executor";
+    public static final String XSD_ATTR__ASYNC_REMOVE_WINDOW = "async-remove-window";
+    public static final String XSD_ATTR__STATISTICS = "statistics";
+    public static final String XSD_ATTR__STATISTICS_OBJECT_NAME = "statistics-object-name";
+    public static final String XSD_ATTR__MBEAN_SERVER = "mbean-server";
+    public static final String XSD_ATTR__CACHE_OPERATION_LISTENER = "cache-operation-listener";
 
     static final String EHCACHE_CACHING_ADVISOR_BEAN_NAME = AnnotationDrivenEhCacheBeanDefinitionParser.class.getPackage().getName() + ".internalEhCacheCachingAdvisor";
 	public static final String EHCACHE_CACHING_ASPECT_BEAN_NAME = AnnotationDrivenEhCacheBeanDefinitionParser.class.getPackage().getName() + ".internalEhCacheCachingAspect";
 	public static final String EHCACHE_CACHING_ASPECT_CLASS_NAME = "com.googlecode.ehcache.annotations.aspectj.AnnotationEhCacheAspect";
 
+    public static final String EHCACHE_INTERCEPTOR_STATISTICS_BEAN_NAME = AnnotationDrivenEhCacheBeanDefinitionParser.class.getPackage().getName() + ".internalEhCacheInterceptorStatistics";
+    static final String EHCACHE_INTERCEPTOR_STATISTICS_EXPORTER_BEAN_NAME = AnnotationDrivenEhCacheBeanDefinitionParser.class.getPackage().getName() + ".internalEhCacheInterceptorStatisticsExporter";
+    public static final String DEFAULT_STATISTICS_OBJECT_NAME = "com.googlecode.ehcache.annotations:type=EhCacheInterceptorStatistics";
+
     static final String DEFAULT_CACHE_KEY_GENERATOR = HashCodeCacheKeyGenerator.DEFAULT_BEAN_NAME;
     static final String CACHING_REFLECTION_HELPER_BEAN_NAME = CachingReflectionHelper.class.getName();
     
@@ -123,6 +138,14 @@ public class AnnotationDrivenEhCacheBeanDefinitionParser implements BeanDefiniti
 			def.setBeanClassName(EHCACHE_CACHING_ASPECT_CLASS_NAME);
 			def.setFactoryMethodName("aspectOf");
 			def.getPropertyValues().add("cacheAttributeSource", cacheAttributeSourceReference);
+			
+			final RuntimeBeanReference statisticsReference = this.setupStatistics(element, parserContext, elementSource);
+			if (statisticsReference != null) {
+			    def.getPropertyValues().add("statistics", statisticsReference);
+			}
+			if (element.hasAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)) {
+			    def.getPropertyValues().add("cacheOperationListener", new RuntimeBeanReference(element.getAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)));
+			}
 			//registerTransactionManager(element, def);
 			parserContext.registerBeanComponent(new BeanComponentDefinition(def, EHCACHE_CACHING_ASPECT_BEAN_NAME));
 		}
@@ -196,10 +219,12 @@ public class AnnotationDrivenEhCacheBeanDefinitionParser implements BeanDefiniti
     protected RuntimeBeanReference setupDefaultCacheKeyGenerators(Element element, ParserContext parserContext, Object elementSource) {
         //Register all of the default cache key generator types
         this.setupDefaultCacheKeyGenerator(ListCacheKeyGenerator.class, parserContext, elementSource);
+        this.setupDefaultCacheKeyGenerator(ArrayCacheKeyGenerator.class, parserContext, elementSource);
         this.setupDefaultCacheKeyGenerator(HashCodeCacheKeyGenerator.class, parserContext, elementSource);
         this.setupDefaultCacheKeyGenerator(MessageDigestCacheKeyGenerator.class, parserContext, elementSource);
         this.setupDefaultCacheKeyGenerator(ReflectionHashCodeCacheKeyGenerator.class, parserContext, elementSource);
         this.setupDefaultCacheKeyGenerator(StringCacheKeyGenerator.class, parserContext, elementSource);
+        this.setupDefaultCacheKeyGenerator(Murmur3CacheKeyGenerator.class, parserContext, elementSource);
         
         //If the default cache key generator was specified simply return a bean reference for that
         final String defaultCacheKeyGeneratorName = element.getAttribute(XSD_ATTR__DEFAULT_CACHE_KEY_GENERATOR);
@@ -295,6 +320,13 @@ public class AnnotationDrivenEhCacheBeanDefinitionParser implements BeanDefiniti
            	RuntimeBeanReference schedulerReference = new RuntimeBeanReference(element.getAttribute(XSD_ATTR__SCHEDULER));
            	propertyValues.addPropertyValue("scheduler", schedulerReference);
         }
+        if (element.hasAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)) {
+            propertyValues.addPropertyValue("cacheOperationListener", new RuntimeBeanReference(element.getAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)));
+        }
+        final String asyncRemoveWindow = element.getAttribute(XSD_ATTR__ASYNC_REMOVE_WINDOW);
+        if (StringUtils.hasLength(asyncRemoveWindow)) {
+            propertyValues.addPropertyValue("asyncRemoveWindow", asyncRemoveWindow);
+        }
 
         final XmlReaderContext readerContext = parserContext.getReaderContext();
         final String cacheAttributeSourceBeanName = readerContext.registerWithGeneratedName(cacheAttributeSource);
@@ -332,11 +364,60 @@ public class AnnotationDrivenEhCacheBeanDefinitionParser implements BeanDefiniti
         final MutablePropertyValues propertyValues = interceptor.getPropertyValues();
         propertyValues.addPropertyValue("cacheAttributeSource", cacheableAttributeSourceRuntimeReference);
         
+        final RuntimeBeanReference statisticsReference = this.setupStatistics(element, parserContext, elementSource);
+        if (statisticsReference != null) {
+            propertyValues.addPropertyValue("statistics", statisticsReference);
+        }
+        if (element.hasAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)) {
+            propertyValues.addPropertyValue("cacheOperationListener", new RuntimeBeanReference(element.getAttribute(XSD_ATTR__CACHE_OPERATION_LISTENER)));
+        }
+        
         final XmlReaderContext readerContext = parserContext.getReaderContext();
         final String interceptorBeanName = readerContext.registerWithGeneratedName(interceptor);
         return new RuntimeBeanReference(interceptorBeanName);
     }
 
+    /**
+     * If statistics are enabled create the {@link EhCacheInterceptorStatistics} and an {@link MBeanExporter}
+     * that registers them with JMX.
+     * 
+     * @return Reference to the {@link EhCacheInterceptorStatistics}, null if statistics are not enabled.
+     */
+    protected RuntimeBeanReference setupStatistics(Element element, ParserContext parserContext, Object elementSource) {
+        if (!Boolean.parseBoolean(element.getAttribute(XSD_ATTR__STATISTICS))) {
+            return null;
+        }
+        
+        final RootBeanDefinition statistics = new RootBeanDefinition(EhCacheInterceptorStatistics.class);
+        statistics.setSource(elementSource);
+        statistics.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        
+        final BeanDefinitionRegistry registry = parserContext.getRegistry();
+        registry.registerBeanDefinition(EHCACHE_INTERCEPTOR_STATISTICS_BEAN_NAME, statistics);
+        final RuntimeBeanReference statisticsReference = new RuntimeBeanReference(EHCACHE_INTERCEPTOR_STATISTICS_BEAN_NAME);
+        
+        String objectName = element.getAttribute(XSD_ATTR__STATISTICS_OBJECT_NAME);
+        if (!StringUtils.hasLength(objectName)) {
+            objectName = DEFAULT_STATISTICS_OBJECT_NAME;
+        }
+        //MBeanExporter looks up bean names itself
+        final Map<String, String> beans = new LinkedHashMap<String, String>();
+        beans.put(objectName, EHCACHE_INTERCEPTOR_STATISTICS_BEAN_NAME);
+        
+        final RootBeanDefinition exporter = new RootBeanDefinition(MBeanExporter.class);
+        exporter.setSource(elementSource);
+        exporter.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        
+        final MutablePropertyValues propertyValues = exporter.getPropertyValues();
+        propertyValues.addPropertyValue("beans", beans);
+        if (element.hasAttribute(XSD_ATTR__MBEAN_SERVER)) {
+            propertyValues.addPropertyValue("server", new RuntimeBeanReference(element.getAttribute(XSD_ATTR__MBEAN_SERVER)));
+        }
+        registry.registerBeanDefinition(EHCACHE_INTERCEPTOR_STATISTICS_EXPORTER_BEAN_NAME, exporter);
+        
+        return statisticsReference;
+    }
+
     /**
      * Create {@link PointcutAdvisor} that puts the {@link Pointcut} and {@link MethodInterceptor} together.
      * 
@@ -20,9 +20,23 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,26 +45,35 @@ import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import com.googlecode.ehcache.annotations.AdviceType;
-import com.googlecode.ehcache.annotations.CacheAttributeSource;
+import com.googlecode.ehcache.annotations.CacheInvocationPlan;
+import com.googlecode.ehcache.annotations.CacheNotFoundException;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
 import com.googlecode.ehcache.annotations.Cacheable;
 import com.googlecode.ehcache.annotations.CacheableAttribute;
+import com.googlecode.ehcache.annotations.CacheableBatch;
+import com.googlecode.ehcache.annotations.CacheableBatchAttribute;
 import com.googlecode.ehcache.annotations.CacheableInterceptor;
 import com.googlecode.ehcache.annotations.DecoratedCacheType;
 import com.googlecode.ehcache.annotations.DefaultCacheableInterceptor;
 import com.googlecode.ehcache.annotations.DefaultTriggersRemoveInterceptor;
 import com.googlecode.ehcache.annotations.KeyGenerator;
 import com.googlecode.ehcache.annotations.MethodAttribute;
+import com.googlecode.ehcache.annotations.MethodAttributeSource;
 import com.googlecode.ehcache.annotations.ParameterMask;
 import com.googlecode.ehcache.annotations.PartialCacheKey;
 import com.googlecode.ehcache.annotations.Property;
@@ -60,15 +83,23 @@ import com.googlecode.ehcache.annotations.TriggersRemove;
 import com.googlecode.ehcache.annotations.TriggersRemoveAttribute;
 import com.googlecode.ehcache.annotations.TriggersRemoveInterceptor;
 import com.googlecode.ehcache.annotations.When;
+import com.googlecode.ehcache.annotations.key.AbstractDeepCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.key.ReflectionHelper;
 import com.googlecode.ehcache.annotations.key.ReflectionHelperAware;
+import com.googlecode.ehcache.annotations.key.ScalarCacheKeyGenerator;
+import com.googlecode.ehcache.annotations.key.SpELCacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheResolverFactory;
+import com.googlecode.ehcache.annotations.resolver.CacheableBatchCacheResolverFactory;
 import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
 import com.googlecode.ehcache.annotations.resolver.DefaultCacheResolverFactory;
+import com.googlecode.ehcache.annotations.resolver.SingletonCacheableCacheResolver;
 import com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver;
+import com.googlecode.ehcache.annotations.support.DebouncedCacheRemover;
+import com.googlecode.ehcache.annotations.support.ExceptionKeyFilter;
 import com.googlecode.ehcache.annotations.support.TaskSchedulerAdapter;
 import com.googlecode.ehcache.annotations.support.TaskSchedulerAdapterFactory;
+import com.googlecode.ehcache.annotations.support.TimerTaskSchedulerAdapter;
     
 
 /**
@@ -78,17 +109,27 @@ import com.googlecode.ehcache.annotations.support.TaskSchedulerAdapterFactory;
  * @author Eric Dalquist
  * @version $Revision$
  */
-public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFactoryAware, InitializingBean {
+public class CacheAttributeSourceImpl implements MethodAttributeSource, BeanFactoryAware, InitializingBean, DisposableBean {
+    private static final int DEFAULT_EXCEPTION_KEY_FILTER_SIZE = 10000;
+    private static final long DEFAULT_ASYNC_REMOVE_WINDOW = 100;
+    private static final int DEFAULT_REFRESH_THREADS = 2;
+    private static final int DEFAULT_REFRESH_QUEUE_SIZE = 1000;
+    
     /**
      * Logger available to subclasses.
      */
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     
     /**
-     * Caches for advice data
+     * Caches for advice data, both advised and ignored methods are tracked in a table per target class
+     */
+    private final ConcurrentMap<Class<?>, MethodAttributeTable> attributesCache = new ConcurrentHashMap<Class<?>, MethodAttributeTable>();
+    private final MethodAttributeTable noTargetClassAttributes = new MethodAttributeTable();
+    
+    /**
+     * Filters of the keys in each exception cache, keyed by cache name
      */
-    private final MultiKeyConcurrentMap<Class<?>, Method, Boolean> ingoredMethods = new MultiKeyConcurrentMap<Class<?>, Method, Boolean>();
-    private final MultiKeyConcurrentMap<Class<?>, Method, MethodAttribute> attributesCache = new MultiKeyConcurrentMap<Class<?>, Method, MethodAttribute>();
+    private final ConcurrentMap<String, ExceptionKeyFilter> exceptionKeyFilters = new ConcurrentHashMap<String, ExceptionKeyFilter>();
     
     private DefaultListableBeanFactory childBeanFactory;
     
@@ -104,6 +145,12 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
 
     private TaskSchedulerAdapter scheduler;
     private SchedulingTaskExecutor executor;
+    private CacheOperationListener cacheOperationListener;
+    private ThreadPoolExecutor defaultRefreshThreadPool;
+    private TaskExecutor defaultRefreshExecutor;
+    private long asyncRemoveWindow = DEFAULT_ASYNC_REMOVE_WINDOW;
+    private DebouncedCacheRemover debouncedCacheRemover;
+    private Timer asyncRemoveTimer;
     	
     public void setScheduler(Object scheduler) {
     	this.scheduler = TaskSchedulerAdapterFactory.createTaskSchedulerAdapter(scheduler);
@@ -113,6 +160,23 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
     	this.executor = executor;
     }
     
+    /**
+     * @param cacheOperationListener Listener notified of element refreshes by the default {@link CacheResolverFactory}
+     */
+    public void setCacheOperationListener(CacheOperationListener cacheOperationListener) {
+        this.cacheOperationListener = cacheOperationListener;
+    }
+    
+    /**
+     * @param asyncRemoveWindow Time in milliseconds removals from {@link When#AFTER_METHOD_INVOCATION_ASYNC} methods are queued for, defaults to 100
+     */
+    public void setAsyncRemoveWindow(long asyncRemoveWindow) {
+        if (asyncRemoveWindow <= 0) {
+            throw new IllegalArgumentException("asyncRemoveWindow must be greater than 0");
+        }
+        this.asyncRemoveWindow = asyncRemoveWindow;
+    }
+    
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
         this.beanFactory = beanFactory;
         this.childBeanFactory = new DefaultListableBeanFactory(this.beanFactory);
@@ -153,6 +217,7 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
             }
             defaultCacheResolverFactory.setExecutor(executor);
             defaultCacheResolverFactory.setScheduler(scheduler);            
+            defaultCacheResolverFactory.setCacheOperationListener(cacheOperationListener);
             this.cacheResolverFactory = defaultCacheResolverFactory;
         }
         else {
@@ -168,6 +233,33 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
             if (this.scheduler != null) {
                 this.logger.warn("scheduler was specified but a custom CacheResolverFactory was also configured. The scheduler value will be ignored.");
             }
+            if (this.cacheOperationListener != null) {
+                this.logger.warn("cacheOperationListener was specified but a custom CacheResolverFactory was also configured. Refreshes will not be reported to it.");
+            }
+        }
+    }
+    
+    /**
+     * Performs any queued asynchronous removals and stops the timer used to schedule them if one was created.
+     */
+    public void destroy() throws Exception {
+        final DebouncedCacheRemover remover;
+        final Timer timer;
+        final ThreadPoolExecutor refreshThreadPool;
+        synchronized (this) {
+            remover = this.debouncedCacheRemover;
+            timer = this.asyncRemoveTimer;
+            refreshThreadPool = this.defaultRefreshThreadPool;
+        }
+        
+        if (timer != null) {
+            timer.cancel();
+        }
+        if (remover != null) {
+            remover.flush();
+        }
+        if (refreshThreadPool != null) {
+            refreshThreadPool.shutdown();
         }
     }
     
@@ -207,34 +299,48 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
         return null;
     }
     
-    private MethodAttribute getMethodAttribute(final Method method, final Class<?> targetClass) {
-        //Check if the method has already been inspected and should be ignored
-        if (this.ingoredMethods.containsKey(targetClass, method)) {
-            return null;
-        }
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.MethodAttributeSource#getMethodAttribute(java.lang.reflect.Method, java.lang.Class)
+     */
+    public MethodAttribute getMethodAttribute(final Method method, final Class<?> targetClass) {
+        final MethodAttributeTable attributeTable = this.getMethodAttributeTable(targetClass);
         
-        //Check the cache if the method has already had its advise attributes created
-        final MethodAttribute attributes = this.attributesCache.get(targetClass, method);
-        if (attributes != null) {
-            return attributes;
+        //Check if the method has already been inspected
+        MethodAttribute att = attributeTable.get(method);
+        if (att == null) {
+            // We need to work it out.
+            att = this.computeMethodAttribute(method, targetClass);
+            
+            // Put it in the cache.
+            if (att == null) {
+                att = MethodAttributeTable.NOT_ADVISED;
+            }
+            else {
+                this.logger.debug("Adding {} advised method '{}' with attribute: {}", new Object[] { att.getAdviceType(), method.getName(), att });
+            }
+            att = attributeTable.putIfAbsent(method, att);
         }
         
-        // We need to work it out.
-        final MethodAttribute att = this.computeMethodAttribute(method, targetClass);
-        
-        // Put it in the cache.
-        if (att == null) {
-            this.ingoredMethods.put(targetClass, method, Boolean.TRUE);
+        if (att == MethodAttributeTable.NOT_ADVISED) {
+            return null;
+        }
+        return att;
+    }
+    
+    private MethodAttributeTable getMethodAttributeTable(final Class<?> targetClass) {
+        if (targetClass == null) {
+            return this.noTargetClassAttributes;
         }
-        else  {
-            this.logger.debug("Adding {} advised method '{}' with attribute: {}", new Object[] { att.getAdviceType(), method.getName(), att });
-            final MethodAttribute existing = this.attributesCache.putIfAbsent(targetClass, method, att);
+        
+        MethodAttributeTable attributeTable = this.attributesCache.get(targetClass);
+        if (attributeTable == null) {
+            attributeTable = new MethodAttributeTable();
+            final MethodAttributeTable existing = this.attributesCache.putIfAbsent(targetClass, attributeTable);
             if (existing != null) {
-                return existing;
+                attributeTable = existing;
             }
         }
-        
-        return att;
+        return attributeTable;
     }
 
 
@@ -283,7 +389,7 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
     }
 
     /**
-     * Determine if the specified {@link AnnotatedElement} is annotated with either {@link Cacheable} or {@link TriggersRemove}
+     * Determine if the specified {@link AnnotatedElement} is annotated with {@link Cacheable}, {@link CacheableBatch} or {@link TriggersRemove}
      * 
      * @param method The element to inspect
      * @return The advice attributes about the element, null if the element is not advised
@@ -301,6 +407,12 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
             return this.parseTriggersRemoveAnnotation(triggersRemove, method, parameterMask);
         }
         
+        CacheableBatch cacheableBatch = method.getAnnotation(CacheableBatch.class);
+        if (cacheableBatch != null) {
+            final ParameterMask parameterMask = this.parsePartialCacheKeyAnnotations(method);
+            return this.parseCacheableBatchAnnotation(cacheableBatch, method, parameterMask);
+        }
+        
         for (final Annotation metaAnn : method.getAnnotations()) {
             final Class<? extends Annotation> annotationType = metaAnn.annotationType();
             cacheableAnnotation = annotationType.getAnnotation(Cacheable.class);
@@ -314,6 +426,12 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
                 final ParameterMask parameterMask = this.parsePartialCacheKeyAnnotations(method);
                 return this.parseTriggersRemoveAnnotation(triggersRemove, method, parameterMask);
             }
+            
+            cacheableBatch = annotationType.getAnnotation(CacheableBatch.class);
+            if (cacheableBatch != null) {
+                final ParameterMask parameterMask = this.parsePartialCacheKeyAnnotations(method);
+                return this.parseCacheableBatchAnnotation(cacheableBatch, method, parameterMask);
+            }
         }
 
         return null;
@@ -357,7 +475,7 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
         
         final String keyGeneratorName = ann.keyGeneratorName();
         final KeyGenerator keyGenerator = ann.keyGenerator();
-        final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator = this.getCacheKeyGenerator(keyGeneratorName, keyGenerator);
+        final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator = this.getCacheKeyGenerator(ann.key(), keyGeneratorName, keyGenerator, method, parameterMask);
         
         final String cacheableInteceptorName = ann.cacheableInteceptorName();
         final CacheableInterceptor cacheInterceptor = this.getCacheInterceptor(cacheableInteceptorName);
@@ -367,8 +485,138 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
         if (!cacheNull && (decoratedCacheType == DecoratedCacheType.REFRESHING_SELF_POPULATING_CACHE || decoratedCacheType == DecoratedCacheType.SELF_POPULATING_CACHE)) {
             this.logger.warn("cacheNull is set to false and decoratedCacheType is " + decoratedCacheType + ", cacheNull will be ignored on: " + method);
         }
+        final boolean coalesceMisses = ann.coalesceMisses();
+        if (coalesceMisses && decoratedCacheType != DecoratedCacheType.NONE) {
+            this.logger.warn("coalesceMisses is set to true and decoratedCacheType is " + decoratedCacheType + ", coalesceMisses will be ignored on: " + method);
+        }
+        int softTimeToLive = ann.softTimeToLive();
+        if (softTimeToLive < 0) {
+            throw new IllegalArgumentException("softTimeToLive must be greater than or equal to 0 on: " + method);
+        }
+        if (softTimeToLive > 0 && decoratedCacheType != DecoratedCacheType.NONE) {
+            this.logger.warn("softTimeToLive is set and decoratedCacheType is " + decoratedCacheType + ", softTimeToLive will be ignored on: " + method);
+            softTimeToLive = 0;
+        }
+        double earlyExpirationBeta = ann.earlyExpirationBeta();
+        if (earlyExpirationBeta < 0 || Double.isNaN(earlyExpirationBeta) || Double.isInfinite(earlyExpirationBeta)) {
+            throw new IllegalArgumentException("earlyExpirationBeta must be a finite number greater than or equal to 0 on: " + method);
+        }
+        if (earlyExpirationBeta > 0 && decoratedCacheType != DecoratedCacheType.NONE) {
+            this.logger.warn("earlyExpirationBeta is set and decoratedCacheType is " + decoratedCacheType + ", earlyExpirationBeta will be ignored on: " + method);
+            earlyExpirationBeta = 0;
+        }
+        int timeToLive = this.getElementLifespan(ann.timeToLive(), "timeToLive", method);
+        int timeToIdle = this.getElementLifespan(ann.timeToIdle(), "timeToIdle", method);
+        int nullTimeToLive = this.getElementLifespan(ann.nullTimeToLive(), "nullTimeToLive", method);
+        if ((timeToLive >= 0 || timeToIdle >= 0 || nullTimeToLive >= 0) && decoratedCacheType != DecoratedCacheType.NONE) {
+            this.logger.warn("timeToLive, timeToIdle or nullTimeToLive is set and decoratedCacheType is " + decoratedCacheType + ", they will be ignored on: " + method);
+            timeToLive = -1;
+            timeToIdle = -1;
+            nullTimeToLive = -1;
+        }
 
-        return new CacheableAttributeImpl(cacheResolver, cacheKeyGenerator, parameterMask, cacheNull, cacheInterceptor);
+        final TaskExecutor refreshExecutor = softTimeToLive > 0 ? this.getRefreshExecutor() : null;
+        final CacheInvocationPlan invocationPlan = this.createInvocationPlan(ann, method, cacheResolver, refreshExecutor);
+        
+        final List<CacheKeyGenerator<Serializable>> tagGenerators = this.getTagGenerators(ann.tags());
+        
+        return new CacheableAttributeImpl(cacheResolver, cacheKeyGenerator, parameterMask, cacheNull, coalesceMisses, softTimeToLive, 
+                earlyExpirationBeta, timeToLive, timeToIdle, nullTimeToLive, cacheInterceptor, tagGenerators, invocationPlan);
+    }
+    
+    /**
+     * Validates an element time to live or idle, -1 means the cache default is used.
+     */
+    private int getElementLifespan(int seconds, String name, Method method) {
+        if (seconds < -1) {
+            throw new IllegalArgumentException(name + " must be greater than or equal to -1 on: " + method);
+        }
+        return seconds;
+    }
+    
+    /**
+     * Build the {@link CacheInvocationPlan} for a {@link Cacheable} method. Caches are resolved up front when
+     * the resolver is known to return the same caches for every invocation.
+     * 
+     * @param ann The annotation on the method
+     * @param method The annotated method
+     * @param cacheResolver The resolver for the method
+     * @param refreshExecutor Executor for background refreshes of stale values, null if values are not refreshed
+     * @return The invocation plan for the method
+     */
+    protected CacheInvocationPlan createInvocationPlan(Cacheable ann, Method method, CacheableCacheResolver cacheResolver, TaskExecutor refreshExecutor) {
+        final boolean checkValueCacheFirst = ann.checkValueCacheFirst();
+        
+        //Subclasses may override the resolve methods so only the exact type is safe to resolve up front
+        if (cacheResolver.getClass() == SingletonCacheableCacheResolver.class) {
+            final SingletonCacheableCacheResolver singletonCacheResolver = (SingletonCacheableCacheResolver)cacheResolver;
+            final Ehcache exceptionCache = singletonCacheResolver.getExceptionCache();
+            
+            ExceptionKeyFilter exceptionKeyFilter = null;
+            if (ann.exceptionCacheKeyFilter() && exceptionCache != null) {
+                exceptionKeyFilter = this.getExceptionKeyFilter(exceptionCache);
+            }
+            
+            return new CacheInvocationPlan(cacheResolver, 
+                    singletonCacheResolver.getCache(), 
+                    singletonCacheResolver.getSelfPopulatingEntryFactory(), 
+                    exceptionCache,
+                    checkValueCacheFirst,
+                    exceptionKeyFilter,
+                    refreshExecutor);
+        }
+        
+        if (ann.exceptionCacheKeyFilter()) {
+            this.logger.warn("exceptionCacheKeyFilter is true but the exception cache is resolved per invocation by " + cacheResolver + ", exceptionCacheKeyFilter will be ignored on: " + method);
+        }
+        
+        return new CacheInvocationPlan(cacheResolver, checkValueCacheFirst, refreshExecutor);
+    }
+    
+    /**
+     * @return The configured executor, or a shared pool of {@value #DEFAULT_REFRESH_THREADS} daemon threads if no
+     * executor was configured. The shared pool queues at most {@value #DEFAULT_REFRESH_QUEUE_SIZE} refreshes, further
+     * refreshes are rejected and the stale value is refreshed by a later caller.
+     */
+    private synchronized TaskExecutor getRefreshExecutor() {
+        if (this.executor != null) {
+            return this.executor;
+        }
+        
+        if (this.defaultRefreshExecutor == null) {
+            final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ehcache-stale-refresh-");
+            threadFactory.setDaemon(true);
+            this.defaultRefreshThreadPool = new ThreadPoolExecutor(DEFAULT_REFRESH_THREADS, DEFAULT_REFRESH_THREADS, 
+                    0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(DEFAULT_REFRESH_QUEUE_SIZE), threadFactory);
+            this.defaultRefreshExecutor = new ConcurrentTaskExecutor(this.defaultRefreshThreadPool);
+        }
+        return this.defaultRefreshExecutor;
+    }
+    
+    /**
+     * Get the key filter for the exception cache, creating it and registering it as a listener on the cache
+     * if needed. The filter is initially sized for the number of elements the exception cache can hold in memory.
+     */
+    private ExceptionKeyFilter getExceptionKeyFilter(Ehcache exceptionCache) {
+        final String cacheName = exceptionCache.getName();
+        ExceptionKeyFilter exceptionKeyFilter = this.exceptionKeyFilters.get(cacheName);
+        if (exceptionKeyFilter == null) {
+            int expectedElements = exceptionCache.getCacheConfiguration().getMaxElementsInMemory();
+            if (expectedElements <= 0) {
+                expectedElements = DEFAULT_EXCEPTION_KEY_FILTER_SIZE;
+            }
+            
+            exceptionKeyFilter = new ExceptionKeyFilter(exceptionCache, expectedElements);
+            final ExceptionKeyFilter existing = this.exceptionKeyFilters.putIfAbsent(cacheName, exceptionKeyFilter);
+            if (existing != null) {
+                exceptionKeyFilter = existing;
+            }
+            else {
+                //Clear the filter along with the exception cache
+                exceptionCache.getCacheEventNotificationService().registerListener(exceptionKeyFilter);
+            }
+        }
+        return exceptionKeyFilter;
     }
 
     /**
@@ -386,15 +634,147 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
 
         final String keyGeneratorName = ann.keyGeneratorName();
         final KeyGenerator keyGenerator = ann.keyGenerator();
-        final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator = this.getCacheKeyGenerator(keyGeneratorName, keyGenerator);
+        final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator = this.getCacheKeyGenerator(ann.key(), keyGeneratorName, keyGenerator, method, parameterMask);
         
         final String triggersRemoveInteceptorName = ann.triggersRemoveInteceptorName();
         final TriggersRemoveInterceptor triggersRemoveInterceptor = this.getTriggersRemoveInterceptor(triggersRemoveInteceptorName);
         
         final boolean removeAll = ann.removeAll();
         final When when = ann.when();
+        final DebouncedCacheRemover debouncedCacheRemover = when == When.AFTER_METHOD_INVOCATION_ASYNC ? this.getDebouncedCacheRemover() : null;
+        
+        List<CacheKeyGenerator<Serializable>> tagGenerators = this.getTagGenerators(ann.tags());
+        if (!tagGenerators.isEmpty() && removeAll) {
+            this.logger.warn("tags are set and removeAll is true, tags will be ignored on: " + method);
+            tagGenerators = Collections.emptyList();
+        }
+        
+        int collectionParameterIndex = -1;
+        if (ann.expandCollection()) {
+            if (removeAll) {
+                this.logger.warn("expandCollection is set to true and removeAll is true, expandCollection will be ignored on: " + method);
+            }
+            else if (!tagGenerators.isEmpty()) {
+                this.logger.warn("expandCollection is set to true and tags are set, expandCollection will be ignored on: " + method);
+            }
+            else {
+                collectionParameterIndex = this.getCollectionParameterIndex(method, "TriggersRemove methods with expandCollection");
+                this.checkCollectionParameterInKey(method, parameterMask, collectionParameterIndex, "TriggersRemove methods with expandCollection");
+            }
+        }
+        
+        return new TriggersRemoveAttributeImpl(cacheResolver, cacheKeyGenerator, parameterMask, triggersRemoveInterceptor, removeAll, 
+                tagGenerators, collectionParameterIndex, when, debouncedCacheRemover);
+    }
+    
+    /**
+     * @return The shared remover for {@link When#AFTER_METHOD_INVOCATION_ASYNC} methods, scheduled using the configured
+     * scheduler or a daemon {@link Timer} if no scheduler was configured.
+     */
+    private synchronized DebouncedCacheRemover getDebouncedCacheRemover() {
+        if (this.debouncedCacheRemover == null) {
+            TaskSchedulerAdapter removeScheduler = this.scheduler;
+            if (removeScheduler == null) {
+                this.asyncRemoveTimer = new Timer("ehcache-async-remove", true);
+                removeScheduler = new TimerTaskSchedulerAdapter(this.asyncRemoveTimer);
+            }
+            
+            this.debouncedCacheRemover = new DebouncedCacheRemover(removeScheduler, this.asyncRemoveWindow);
+        }
+        return this.debouncedCacheRemover;
+    }
+    
+    /**
+     * Find the index of the single {@link Collection} parameter of the method.
+     * 
+     * @param method The method to inspect
+     * @param description Description of the advised method used in the error message
+     * @throws IllegalArgumentException If the method does not have exactly one Collection parameter
+     */
+    private int getCollectionParameterIndex(Method method, String description) {
+        int collectionParameterIndex = -1;
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+                if (collectionParameterIndex >= 0) {
+                    throw new IllegalArgumentException(description + " must have exactly one Collection parameter: " + method);
+                }
+                collectionParameterIndex = i;
+            }
+        }
+        if (collectionParameterIndex < 0) {
+            throw new IllegalArgumentException(description + " must have exactly one Collection parameter: " + method);
+        }
+        return collectionParameterIndex;
+    }
+    
+    /**
+     * Check that the {@link Collection} parameter is part of the cache key. If {@link PartialCacheKey} excludes it
+     * every element of the collection would generate the same key.
+     * 
+     * @param method The method to inspect
+     * @param parameterMask The key parameters of the method
+     * @param collectionParameterIndex Index of the Collection parameter
+     * @param description Description of the advised method used in the error message
+     * @throws IllegalArgumentException If the Collection parameter is not part of the key
+     */
+    private void checkCollectionParameterInKey(Method method, ParameterMask parameterMask, int collectionParameterIndex, String description) {
+        if (parameterMask.shouldMask() && !parameterMask.getMask()[collectionParameterIndex]) {
+            throw new IllegalArgumentException("The Collection parameter of " + description + " must be part of the cache key, annotate it with PartialCacheKey: " + method);
+        }
+    }
+    
+    /**
+     * Construct a {@link CacheableBatchAttribute} from a {@link CacheableBatch} annotation.
+     * 
+     * @param ann The annotation to build the attributes from
+     * @return The constructed cacheable batch advise attributes
+     */
+    protected CacheableBatchAttribute parseCacheableBatchAnnotation(CacheableBatch ann, Method method, ParameterMask parameterMask) {
+        final int collectionParameterIndex = this.getCollectionParameterIndex(method, "CacheableBatch");
+        this.checkCollectionParameterInKey(method, parameterMask, collectionParameterIndex, "CacheableBatch methods");
+        
+        //The method is invoked with a new collection of the missing elements, it has to accept a List or Set
+        final Class<?> collectionType = method.getParameterTypes()[collectionParameterIndex];
+        final boolean setParameter;
+        if (collectionType.isAssignableFrom(ArrayList.class)) {
+            setParameter = false;
+        }
+        else if (collectionType.isAssignableFrom(LinkedHashSet.class)) {
+            setParameter = true;
+        }
+        else {
+            throw new IllegalArgumentException("The Collection parameter of CacheableBatch methods must be declared as Collection, List or Set: " + method);
+        }
+        
+        final Class<?> returnType = method.getReturnType();
+        if (!Map.class.isAssignableFrom(returnType) || !returnType.isAssignableFrom(LinkedHashMap.class)) {
+            throw new IllegalArgumentException("CacheableBatch methods must return Map: " + method);
+        }
+        
+        final String resolverFactoryName = ann.resolverFactoryName();
+        final ResolverFactory resolverFactory = ann.resolverFactory();
+        final CacheResolverFactory cacheResolverFactory = this.getCacheResolverFactory(resolverFactoryName, resolverFactory);
+        
+        final CacheableCacheResolver cacheResolver;
+        if (cacheResolverFactory instanceof CacheableBatchCacheResolverFactory) {
+            cacheResolver = ((CacheableBatchCacheResolverFactory)cacheResolverFactory).getCacheResolver(ann, method);
+        }
+        else {
+            //Factories written before CacheableBatch existed, use the named cache as-is
+            final String cacheName = ann.cacheName();
+            final Ehcache cache = this.cacheManager.getEhcache(cacheName);
+            if (cache == null) {
+                throw new CacheNotFoundException(cacheName);
+            }
+            cacheResolver = new SingletonCacheableCacheResolver(cache, null);
+        }
+        
+        final String keyGeneratorName = ann.keyGeneratorName();
+        final KeyGenerator keyGenerator = ann.keyGenerator();
+        final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator = this.getCacheKeyGenerator(keyGeneratorName, keyGenerator);
         
-        return new TriggersRemoveAttributeImpl(cacheResolver, cacheKeyGenerator, parameterMask, triggersRemoveInterceptor, removeAll, when);
+        return new CacheableBatchAttributeImpl(cacheResolver, cacheKeyGenerator, parameterMask, ann.cacheNull(), collectionParameterIndex, setParameter);
     }
     
     /**
@@ -466,6 +846,69 @@ public class CacheAttributeSourceImpl implements CacheAttributeSource, BeanFacto
         return cacheKeyGenerator;
     }
     
+    /**
+     * Get the {@link CacheKeyGenerator} for a method. If a key expression is specified it is parsed into a generator
+     * via the shared {@link SpELCacheKeyGenerator}, otherwise the named or configured generator is specialized for the method.
+     */
+    private CacheKeyGenerator<? extends Serializable> getCacheKeyGenerator(String key, String keyGeneratorName, KeyGenerator keyGenerator, 
+            Method method, ParameterMask parameterMask) {
+        if (key.length() == 0) {
+            return this.getMethodCacheKeyGenerator(this.getCacheKeyGenerator(keyGeneratorName, keyGenerator), method, parameterMask);
+        }
+        
+        if (keyGeneratorName.length() > 0 || keyGenerator.name().length() > 0) {
+            throw new IllegalArgumentException("key cannot be specified along with keyGeneratorName or keyGenerator on: " + method);
+        }
+        
+        final SpELCacheKeyGenerator spELCacheKeyGenerator = this.getOrCreateChildBean(SpELCacheKeyGenerator.class, SpELCacheKeyGenerator.class.getName(), new Property[0]);
+        return spELCacheKeyGenerator.createCacheKeyGenerator(key);
+    }
+    
+    /**
+     * Parse the tag expressions of a method into generators via the shared {@link SpELCacheKeyGenerator}
+     */
+    private List<CacheKeyGenerator<Serializable>> getTagGenerators(String[] tags) {
+        if (tags.length == 0) {
+            return Collections.emptyList();
+        }
+        
+        final SpELCacheKeyGenerator spELCacheKeyGenerator = this.getOrCreateChildBean(SpELCacheKeyGenerator.class, SpELCacheKeyGenerator.class.getName(), new Property[0]);
+        final List<CacheKeyGenerator<Serializable>> tagGenerators = new ArrayList<CacheKeyGenerator<Serializable>>(tags.length);
+        for (final String tag : tags) {
+            tagGenerators.add(spELCacheKeyGenerator.createCacheKeyGenerator(tag));
+        }
+        return Collections.unmodifiableList(tagGenerators);
+    }
+    
+    /**
+     * Specializes the generator for the method. If the generator is one of the built-in {@link AbstractDeepCacheKeyGenerator}s and every
+     * parameter that is part of the key has a scalar type a {@link ScalarCacheKeyGenerator} is returned which generates
+     * the same keys without the deep inspection, otherwise the generator is returned as-is.
+     * 
+     * @see ScalarCacheKeyGenerator#isScalarType(Class)
+     * @see ScalarCacheKeyGenerator#isSpecializable(CacheKeyGenerator)
+     */
+    protected CacheKeyGenerator<? extends Serializable> getMethodCacheKeyGenerator(CacheKeyGenerator<? extends Serializable> cacheKeyGenerator, 
+            Method method, ParameterMask parameterMask) {
+        if (!ScalarCacheKeyGenerator.isSpecializable(cacheKeyGenerator)) {
+            return cacheKeyGenerator;
+        }
+        
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        final boolean[] mask = parameterMask.shouldMask() ? parameterMask.getMask() : null;
+        for (int index = 0; index < parameterTypes.length; index++) {
+            if ((mask == null || mask[index]) && !ScalarCacheKeyGenerator.isScalarType(parameterTypes[index])) {
+                return cacheKeyGenerator;
+            }
+        }
+        
+        return createScalarCacheKeyGenerator((AbstractDeepCacheKeyGenerator<?, ? extends Serializable>)cacheKeyGenerator);
+    }
+    
+    private static <T extends Serializable> CacheKeyGenerator<T> createScalarCacheKeyGenerator(AbstractDeepCacheKeyGenerator<?, T> cacheKeyGenerator) {
+        return new ScalarCacheKeyGenerator<T>(cacheKeyGenerator);
+    }
+    
     @SuppressWarnings("unchecked")
     protected final CacheKeyGenerator<? extends Serializable> getOrCreateCacheKeyGenerator(KeyGenerator keyGenerator) {
         String keyGeneratorClassName = keyGenerator.name();
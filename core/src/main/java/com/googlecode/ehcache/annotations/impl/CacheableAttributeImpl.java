@@ -16,11 +16,14 @@
 package com.googlecode.ehcache.annotations.impl;
 
 import java.io.Serializable;
+import java.util.List;
 
 import com.googlecode.ehcache.annotations.AdviceType;
+import com.googlecode.ehcache.annotations.CacheInvocationPlan;
 import com.googlecode.ehcache.annotations.CacheableInterceptor;
 import com.googlecode.ehcache.annotations.CacheableAttribute;
 import com.googlecode.ehcache.annotations.ParameterMask;
+import com.googlecode.ehcache.annotations.PlannedCacheableAttribute;
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
 
@@ -31,21 +34,39 @@ import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
  * @author Eric Dalquist
  * @version $Revision$
  */
-class CacheableAttributeImpl implements CacheableAttribute {
+class CacheableAttributeImpl implements PlannedCacheableAttribute {
     private final CacheableCacheResolver cacheInstanceResolver;
     private final CacheKeyGenerator<? extends Serializable> cacheKeyGenerator;
     private final ParameterMask parameterMask;
     private final boolean cacheNull;
+    private final boolean coalesceMisses;
+    private final int softTimeToLive;
+    private final double earlyExpirationBeta;
+    private final int timeToLive;
+    private final int timeToIdle;
+    private final int nullTimeToLive;
     private final CacheableInterceptor cacheInterceptor;
+    private final List<CacheKeyGenerator<Serializable>> tagGenerators;
+    private final CacheInvocationPlan invocationPlan;
     
     public CacheableAttributeImpl(
             CacheableCacheResolver cacheInstanceResolver,CacheKeyGenerator<? extends Serializable> cacheKeyGenerator, 
-            ParameterMask parameterMask, boolean cacheNull, CacheableInterceptor cacheInterceptor) {
+            ParameterMask parameterMask, boolean cacheNull, boolean coalesceMisses, int softTimeToLive, 
+            double earlyExpirationBeta, int timeToLive, int timeToIdle, int nullTimeToLive, 
+            CacheableInterceptor cacheInterceptor, List<CacheKeyGenerator<Serializable>> tagGenerators, CacheInvocationPlan invocationPlan) {
         this.cacheInstanceResolver = cacheInstanceResolver;
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.parameterMask = parameterMask;
         this.cacheNull = cacheNull;
+        this.coalesceMisses = coalesceMisses;
+        this.softTimeToLive = softTimeToLive;
+        this.earlyExpirationBeta = earlyExpirationBeta;
+        this.timeToLive = timeToLive;
+        this.timeToIdle = timeToIdle;
+        this.nullTimeToLive = nullTimeToLive;
         this.cacheInterceptor = cacheInterceptor;
+        this.tagGenerators = tagGenerators;
+        this.invocationPlan = invocationPlan;
     }
     
     public AdviceType getAdviceType() {
@@ -64,6 +85,30 @@ class CacheableAttributeImpl implements CacheableAttribute {
         return this.cacheNull;
     }
     
+    public boolean isCoalesceMisses() {
+        return this.coalesceMisses;
+    }
+    
+    public int getSoftTimeToLive() {
+        return this.softTimeToLive;
+    }
+    
+    public double getEarlyExpirationBeta() {
+        return this.earlyExpirationBeta;
+    }
+    
+    public int getTimeToLive() {
+        return this.timeToLive;
+    }
+    
+    public int getTimeToIdle() {
+        return this.timeToIdle;
+    }
+    
+    public int getNullTimeToLive() {
+        return this.nullTimeToLive;
+    }
+    
     public ParameterMask getCacheKeyParameterMask() {
         return this.parameterMask;
     }
@@ -72,6 +117,14 @@ class CacheableAttributeImpl implements CacheableAttribute {
 		return this.cacheInterceptor;
 	}
 
+    public List<CacheKeyGenerator<Serializable>> getTagGenerators() {
+        return this.tagGenerators;
+    }
+
+    public CacheInvocationPlan getInvocationPlan() {
+        return this.invocationPlan;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -80,7 +133,15 @@ class CacheableAttributeImpl implements CacheableAttribute {
         result = prime * result + ((cacheInterceptor == null) ? 0 : cacheInterceptor.hashCode());
         result = prime * result + ((cacheKeyGenerator == null) ? 0 : cacheKeyGenerator.hashCode());
         result = prime * result + (cacheNull ? 1231 : 1237);
+        result = prime * result + (coalesceMisses ? 1231 : 1237);
+        result = prime * result + softTimeToLive;
+        long temp = Double.doubleToLongBits(earlyExpirationBeta);
+        result = prime * result + (int) (temp ^ (temp >>> 32));
+        result = prime * result + timeToLive;
+        result = prime * result + timeToIdle;
+        result = prime * result + nullTimeToLive;
         result = prime * result + ((parameterMask == null) ? 0 : parameterMask.hashCode());
+        result = prime * result + ((tagGenerators == null) ? 0 : tagGenerators.hashCode());
         return result;
     }
 
@@ -113,12 +174,30 @@ class CacheableAttributeImpl implements CacheableAttribute {
             return false;
         if (cacheNull != other.cacheNull)
             return false;
+        if (coalesceMisses != other.coalesceMisses)
+            return false;
+        if (softTimeToLive != other.softTimeToLive)
+            return false;
+        if (Double.doubleToLongBits(earlyExpirationBeta) != Double.doubleToLongBits(other.earlyExpirationBeta))
+            return false;
+        if (timeToLive != other.timeToLive)
+            return false;
+        if (timeToIdle != other.timeToIdle)
+            return false;
+        if (nullTimeToLive != other.nullTimeToLive)
+            return false;
         if (parameterMask == null) {
             if (other.parameterMask != null)
                 return false;
         }
         else if (!parameterMask.equals(other.parameterMask))
             return false;
+        if (tagGenerators == null) {
+            if (other.tagGenerators != null)
+                return false;
+        }
+        else if (!tagGenerators.equals(other.tagGenerators))
+            return false;
         return true;
     }
 
@@ -126,6 +205,8 @@ class CacheableAttributeImpl implements CacheableAttribute {
     public String toString() {
         return "CacheableAttributeImpl [cacheInstanceResolver=" + cacheInstanceResolver + ", cacheKeyGenerator="
                 + cacheKeyGenerator + ", parameterMask=" + parameterMask + ", cacheNull=" + cacheNull
-                + ", cacheInterceptor=" + cacheInterceptor + "]";
+                + ", coalesceMisses=" + coalesceMisses + ", softTimeToLive=" + softTimeToLive + ", earlyExpirationBeta=" + earlyExpirationBeta 
+                + ", timeToLive=" + timeToLive + ", timeToIdle=" + timeToIdle + ", nullTimeToLive=" + nullTimeToLive
+                + ", cacheInterceptor=" + cacheInterceptor + ", tagGenerators=" + tagGenerators + ", invocationPlan=" + invocationPlan + "]";
     }
 }
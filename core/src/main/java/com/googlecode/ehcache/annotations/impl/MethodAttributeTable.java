@@ -0,0 +1,175 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.impl;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import com.googlecode.ehcache.annotations.AdviceType;
+import com.googlecode.ehcache.annotations.MethodAttribute;
+import com.googlecode.ehcache.annotations.ParameterMask;
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+
+/**
+ * Per-class table of the {@link MethodAttribute}s for advised and non-advised methods. Reads are a single
+ * volatile read of an open-addressed array that is probed by {@link Method} identity, writes copy the array.
+ * AOP frameworks pass the same {@link Method} instance for every invocation of a method so after the first
+ * call the identity probe is all that is needed. Equal but not identical instances are resolved to the
+ * existing entry, a few of them are remembered as aliases so that they also hit the identity probe.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+final class MethodAttributeTable {
+    /**
+     * Stored for methods that have been inspected and are not advised.
+     */
+    static final MethodAttribute NOT_ADVISED = new MethodAttribute() {
+        public AdviceType getAdviceType() {
+            return AdviceType.NONE;
+        }
+        public CacheKeyGenerator<? extends Serializable> getCacheKeyGenerator() {
+            return null;
+        }
+        public ParameterMask getCacheKeyParameterMask() {
+            return ParameterMask.NO_MASK;
+        }
+        @Override
+        public String toString() {
+            return "NOT_ADVISED";
+        }
+    };
+
+    private static final int MAX_ALIASES = 4;
+
+    private volatile Entry[] table = new Entry[16];
+    private int size = 0;
+
+    /**
+     * @return The attribute for the method, {@link #NOT_ADVISED} if it is not advised, null if the method has not been inspected yet
+     */
+    public MethodAttribute get(Method method) {
+        final Entry[] tab = this.table;
+        final int mask = tab.length - 1;
+        for (int i = indexFor(method, mask); ; i = (i + 1) & mask) {
+            final Entry entry = tab[i];
+            if (entry == null) {
+                return this.getEqual(method, tab);
+            }
+            if (entry.method == method) {
+                return entry.attribute;
+            }
+        }
+    }
+
+    /**
+     * Adds the attribute for the method if no attribute exists for an equal method.
+     *
+     * @return The attribute now stored for the method
+     */
+    public synchronized MethodAttribute putIfAbsent(Method method, MethodAttribute attribute) {
+        final MethodAttribute existing = this.getEqual(method, this.table);
+        if (existing != null) {
+            return existing;
+        }
+
+        this.add(method, attribute);
+        return attribute;
+    }
+
+    /**
+     * Slow path for an identity miss, looks for an equal method and remembers the new instance as
+     * an alias if there are not already too many aliases for it.
+     */
+    private MethodAttribute getEqual(Method method, Entry[] tab) {
+        final int mask = tab.length - 1;
+        MethodAttribute attribute = null;
+        int aliases = 0;
+        for (int i = indexFor(method, mask); ; i = (i + 1) & mask) {
+            final Entry entry = tab[i];
+            if (entry == null) {
+                break;
+            }
+            if (entry.method.equals(method)) {
+                attribute = entry.attribute;
+                aliases++;
+            }
+        }
+
+        if (attribute != null && aliases < MAX_ALIASES) {
+            synchronized (this) {
+                //Only add the alias if the table has not been replaced in the meantime
+                if (this.table == tab) {
+                    this.add(method, attribute);
+                }
+            }
+        }
+
+        return attribute;
+    }
+
+    /**
+     * Copy-on-write insert, must be called while holding the lock on this table.
+     */
+    private void add(Method method, MethodAttribute attribute) {
+        final Entry[] tab = this.table;
+        final int newSize = this.size + 1;
+
+        int length = tab.length;
+        while (newSize * 2 > length) {
+            length <<= 1;
+        }
+
+        final Entry[] newTab = new Entry[length];
+        final int mask = length - 1;
+        for (final Entry entry : tab) {
+            if (entry != null) {
+                insert(newTab, mask, entry);
+            }
+        }
+        insert(newTab, mask, new Entry(method, attribute));
+
+        this.size = newSize;
+        this.table = newTab;
+    }
+
+    private static void insert(Entry[] tab, int mask, Entry entry) {
+        int i = indexFor(entry.method, mask);
+        while (tab[i] != null) {
+            i = (i + 1) & mask;
+        }
+        tab[i] = entry;
+    }
+
+    /**
+     * The name hash is cached by String and is the same for every copy of a Method.
+     */
+    private static int indexFor(Method method, int mask) {
+        int h = method.getName().hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    private static final class Entry {
+        private final Method method;
+        private final MethodAttribute attribute;
+
+        public Entry(Method method, MethodAttribute attribute) {
+            this.method = method;
+            this.attribute = attribute;
+        }
+    }
+}
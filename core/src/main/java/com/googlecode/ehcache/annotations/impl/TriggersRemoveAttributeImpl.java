@@ -19,6 +19,7 @@
 package com.googlecode.ehcache.annotations.impl;
 
 import java.io.Serializable;
+import java.util.List;
 
 import com.googlecode.ehcache.annotations.AdviceType;
 import com.googlecode.ehcache.annotations.ParameterMask;
@@ -27,6 +28,7 @@ import com.googlecode.ehcache.annotations.TriggersRemoveInterceptor;
 import com.googlecode.ehcache.annotations.When;
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver;
+import com.googlecode.ehcache.annotations.support.DebouncedCacheRemover;
 
 /**
  * Basic pojo style impl of {@link TriggersRemoveAttribute}
@@ -40,18 +42,25 @@ class TriggersRemoveAttributeImpl implements TriggersRemoveAttribute {
     private final TriggersRemoveInterceptor triggersRemoveInterceptor;
     private final ParameterMask parameterMask;
     private final boolean removeAll;
+    private final List<CacheKeyGenerator<Serializable>> tagGenerators;
+    private final int collectionParameterIndex;
     private final When when;
+    private final DebouncedCacheRemover debouncedCacheRemover;
     
     TriggersRemoveAttributeImpl(
             TriggersRemoveCacheResolver cacheResolver, CacheKeyGenerator<? extends Serializable> cacheKeyGenerator, 
             ParameterMask parameterMask, TriggersRemoveInterceptor triggersRemoveInterceptor,
-            boolean removeAll, When when) {
+            boolean removeAll, List<CacheKeyGenerator<Serializable>> tagGenerators, int collectionParameterIndex, 
+            When when, DebouncedCacheRemover debouncedCacheRemover) {
         this.cacheResolver = cacheResolver;
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.triggersRemoveInterceptor = triggersRemoveInterceptor;
         this.parameterMask = parameterMask;
         this.removeAll = removeAll;
+        this.tagGenerators = tagGenerators;
+        this.collectionParameterIndex = collectionParameterIndex;
         this.when = when;
+        this.debouncedCacheRemover = debouncedCacheRemover;
     }
     
     public AdviceType getAdviceType() {
@@ -73,12 +82,33 @@ class TriggersRemoveAttributeImpl implements TriggersRemoveAttribute {
         return this.removeAll;
     }
     
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.TriggersRemoveAttribute#getTagGenerators()
+     */
+    public List<CacheKeyGenerator<Serializable>> getTagGenerators() {
+        return this.tagGenerators;
+    }
+    
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.TriggersRemoveAttribute#getCollectionParameterIndex()
+     */
+    public int getCollectionParameterIndex() {
+        return this.collectionParameterIndex;
+    }
+    
     /* (non-Javadoc)
      * @see com.googlecode.ehcache.annotations.TriggersRemoveAttribute#when()
      */
     public When getWhen() {
         return this.when;
     }
+    
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.TriggersRemoveAttribute#getDebouncedCacheRemover()
+     */
+    public DebouncedCacheRemover getDebouncedCacheRemover() {
+        return this.debouncedCacheRemover;
+    }
 
     /* (non-Javadoc)
      * @see com.googlecode.ehcache.annotations.FlushableAttribute#getCacheKeyGenerator()
@@ -102,6 +132,8 @@ class TriggersRemoveAttributeImpl implements TriggersRemoveAttribute {
         result = prime * result + ((this.cacheResolver == null) ? 0 : this.cacheResolver.hashCode());
         result = prime * result + ((this.parameterMask == null) ? 0 : this.parameterMask.hashCode());
         result = prime * result + (this.removeAll ? 1231 : 1237);
+        result = prime * result + ((this.tagGenerators == null) ? 0 : this.tagGenerators.hashCode());
+        result = prime * result + this.collectionParameterIndex;
         result = prime * result
                 + ((this.triggersRemoveInterceptor == null) ? 0 : this.triggersRemoveInterceptor.hashCode());
         result = prime * result + ((this.when == null) ? 0 : this.when.hashCode());
@@ -137,6 +169,14 @@ class TriggersRemoveAttributeImpl implements TriggersRemoveAttribute {
             return false;
         if (this.removeAll != other.removeAll)
             return false;
+        if (this.tagGenerators == null) {
+            if (other.tagGenerators != null)
+                return false;
+        }
+        else if (!this.tagGenerators.equals(other.tagGenerators))
+            return false;
+        if (this.collectionParameterIndex != other.collectionParameterIndex)
+            return false;
         if (this.triggersRemoveInterceptor == null) {
             if (other.triggersRemoveInterceptor != null)
                 return false;
@@ -152,7 +192,8 @@ class TriggersRemoveAttributeImpl implements TriggersRemoveAttribute {
     public String toString() {
         return "TriggersRemoveAttributeImpl [cacheResolver=" + this.cacheResolver + ", cacheKeyGenerator="
                 + this.cacheKeyGenerator + ", triggersRemoveInterceptor=" + this.triggersRemoveInterceptor
-                + ", parameterMask=" + this.parameterMask + ", removeAll=" + this.removeAll + ", when=" + this.when
+                + ", parameterMask=" + this.parameterMask + ", removeAll=" + this.removeAll + ", tagGenerators=" + this.tagGenerators
+                + ", collectionParameterIndex=" + this.collectionParameterIndex + ", when=" + this.when
                 + "]";
     }
 }
@@ -18,10 +18,22 @@ package com.googlecode.ehcache.annotations.interceptor;
 import java.io.Serializable;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.constructs.blocking.CacheEntryFactory;
 import net.sf.ehcache.constructs.blocking.SelfPopulatingCache;
 
@@ -29,14 +41,26 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.core.task.TaskExecutor;
 
 import com.googlecode.ehcache.annotations.AdviceType;
 import com.googlecode.ehcache.annotations.CacheAttributeSource;
+import com.googlecode.ehcache.annotations.CacheInvocationPlan;
+import com.googlecode.ehcache.annotations.CacheOperation;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+import com.googlecode.ehcache.annotations.CacheOperationType;
 import com.googlecode.ehcache.annotations.Cacheable;
 import com.googlecode.ehcache.annotations.CacheableAttribute;
+import com.googlecode.ehcache.annotations.CacheableBatch;
+import com.googlecode.ehcache.annotations.CacheableBatchAttribute;
 import com.googlecode.ehcache.annotations.CacheableInterceptor;
+import com.googlecode.ehcache.annotations.LoadTimedCacheEntry;
 import com.googlecode.ehcache.annotations.MethodAttribute;
+import com.googlecode.ehcache.annotations.MethodAttributeSource;
 import com.googlecode.ehcache.annotations.ParameterMask;
+import com.googlecode.ehcache.annotations.PlannedCacheableAttribute;
 import com.googlecode.ehcache.annotations.RefreshableCacheEntry;
 import com.googlecode.ehcache.annotations.TriggersRemove;
 import com.googlecode.ehcache.annotations.TriggersRemoveAttribute;
@@ -45,10 +69,13 @@ import com.googlecode.ehcache.annotations.When;
 import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
 import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
 import com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver;
+import com.googlecode.ehcache.annotations.support.ExceptionKeyFilter;
+import com.googlecode.ehcache.annotations.support.CacheTagIndex;
+import com.googlecode.ehcache.annotations.support.DebouncedCacheRemover;
 
 
 /**
- * Intercepter that handles invocations on methods annotated with {@link Cacheable} or {@link TriggersRemove}.
+ * Intercepter that handles invocations on methods annotated with {@link Cacheable}, {@link CacheableBatch} or {@link TriggersRemove}.
  * 
  * @author Eric Dalquist
  * @version $Revision$
@@ -56,40 +83,93 @@ import com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver;
 public class EhCacheInterceptor implements MethodInterceptor {
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     
+    private final ConcurrentMap<InFlightKey, InFlightInvocation> inFlightInvocations = new ConcurrentHashMap<InFlightKey, InFlightInvocation>();
+    private final ConcurrentMap<InFlightKey, Boolean> refreshesInProgress = new ConcurrentHashMap<InFlightKey, Boolean>();
+    private final ConcurrentMap<String, CacheTagIndex> tagIndexes = new ConcurrentHashMap<String, CacheTagIndex>();
+    private final ThreadLocal<Random> earlyExpirationRandom = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+    
     private CacheAttributeSource cacheAttributeSource;
+    private EhCacheInterceptorStatistics statistics;
+    private CacheOperationListener cacheOperationListener;
 
     public void setCacheAttributeSource(CacheAttributeSource cacheableAttributeSource) {
         this.cacheAttributeSource = cacheableAttributeSource;
     }
+    
+    /**
+     * @param statistics Statistics to record hits, misses, removals and timings of the advised methods in, null to disable statistics
+     */
+    public void setStatistics(EhCacheInterceptorStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    public EhCacheInterceptorStatistics getStatistics() {
+        return this.statistics;
+    }
+    
+    /**
+     * @param cacheOperationListener Listener notified of the cache operations done for advised methods, null for no listener
+     */
+    public void setCacheOperationListener(CacheOperationListener cacheOperationListener) {
+        this.cacheOperationListener = cacheOperationListener;
+    }
+    
+    public CacheOperationListener getCacheOperationListener() {
+        return this.cacheOperationListener;
+    }
 
     /* (non-Javadoc)
      * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
      */
     public final Object invoke(final MethodInvocation methodInvocation) throws Throwable {
         final Method method = methodInvocation.getMethod();
-        final Class<?> targetClass = (methodInvocation.getThis() != null ? methodInvocation.getThis().getClass() : null);
-        final AdviceType adviceType = this.cacheAttributeSource.getAdviceType(method, targetClass);
+        final Object target = methodInvocation.getThis();
+        final Class<?> targetClass = (target != null ? target.getClass() : null);
+        final MethodAttribute methodAttribute = this.getMethodAttribute(method, targetClass);
+        if (methodAttribute == null) {
+            this.logger.trace("The method {} is not advised.", methodInvocation);
+            return methodInvocation.proceed();
+        }
         
+        //Only track the invocation if something is going to be recorded
+        final EhCacheInterceptorStatistics statistics = this.statistics;
+        final CacheOperationListener cacheOperationListener = this.cacheOperationListener;
+        final InvocationRecorder recorder;
+        if (statistics != null || cacheOperationListener != null) {
+            final MethodStatistics methodStatistics = statistics != null ? statistics.getMethodStatistics(method) : null;
+            recorder = new InvocationRecorder(method, methodStatistics, cacheOperationListener);
+        }
+        else {
+            recorder = null;
+        }
+        
+        final AdviceType adviceType = methodAttribute.getAdviceType();
         switch (adviceType) {
             case CACHE: {
-                final CacheableAttribute cacheableAttribute = this.cacheAttributeSource.getCacheableAttribute(method, targetClass);
-                if (cacheableAttribute == null) {
-                    this.logger.warn("CacheAttributeSource.getAdviceType(Method, Class) returned CACHE but CacheAttributeSource.getCacheableAttribute(Method, Class) returned null. Method will be invoked directly with no Cachable advice. Method: {}, Class: {}", method, targetClass);
-                    return methodInvocation.proceed();
+                if (recorder == null) {
+                    return this.invokeCacheable(methodInvocation, (CacheableAttribute)methodAttribute, null);
                 }
                 
-                return this.invokeCacheable(methodInvocation, cacheableAttribute);
-
+                recorder.begin(CacheOperationType.CACHEABLE);
+                try {
+                    return this.invokeCacheable(methodInvocation, (CacheableAttribute)methodAttribute, recorder);
+                }
+                finally {
+                    recorder.end();
+                }
             }
 
             case REMOVE: {
-                final TriggersRemoveAttribute triggersRemoveAttribute = this.cacheAttributeSource.getTriggersRemoveAttribute(method, targetClass);
-                if (triggersRemoveAttribute == null) {
-                    this.logger.warn("CacheAttributeSource.getAdviceType(Method, Class) returned REMOVE but CacheAttributeSource.getTriggersRemoveAttribute(Method, Class) returned null. Method will be invoked directly with no TriggersFlush advice. Method: {}, Class: {}", method, targetClass);
-                    return methodInvocation.proceed();
-                }
-                
-                return this.invokeTriggersRemove(methodInvocation, triggersRemoveAttribute);
+                return this.invokeTriggersRemove(methodInvocation, (TriggersRemoveAttribute)methodAttribute, recorder);
+            }
+            
+            case CACHE_BATCH: {
+                return this.invokeCacheableBatch(methodInvocation, (CacheableBatchAttribute)methodAttribute, recorder);
             }
             
             default: {
@@ -99,61 +179,465 @@ public class EhCacheInterceptor implements MethodInterceptor {
         }
     }
     
+    /**
+     * Looks up the attribute for the method, with a single lookup if the {@link CacheAttributeSource} is a
+     * {@link MethodAttributeSource}.
+     * 
+     * @return The attribute for the method, null if the method is not advised
+     */
+    private MethodAttribute getMethodAttribute(final Method method, final Class<?> targetClass) {
+        final CacheAttributeSource cacheAttributeSource = this.cacheAttributeSource;
+        if (cacheAttributeSource instanceof MethodAttributeSource) {
+            return ((MethodAttributeSource)cacheAttributeSource).getMethodAttribute(method, targetClass);
+        }
+        
+        final AdviceType adviceType = cacheAttributeSource.getAdviceType(method, targetClass);
+        switch (adviceType) {
+            case CACHE: {
+                return cacheAttributeSource.getCacheableAttribute(method, targetClass);
+            }
+            case REMOVE: {
+                return cacheAttributeSource.getTriggersRemoveAttribute(method, targetClass);
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * @return The precomputed plan of a {@link PlannedCacheableAttribute}, otherwise a plan that resolves the caches via
+     * {@link CacheableAttribute#getCacheResolver()} on every invocation and does not refresh stale values in the background.
+     */
+    private CacheInvocationPlan getInvocationPlan(final CacheableAttribute cacheableAttribute) {
+        if (cacheableAttribute instanceof PlannedCacheableAttribute) {
+            return ((PlannedCacheableAttribute)cacheableAttribute).getInvocationPlan();
+        }
+        
+        return new CacheInvocationPlan(cacheableAttribute.getCacheResolver(), false, null);
+    }
+    
     /**
      * Called if the {@link MethodInvocation} is annotated with {@link Cacheable}.
      * 
      * @param methodInvocation Original method invocation
      * @param cacheableAttribute Information about the {@link Cacheable} annotation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
      * @return The result of the invocation or the cached result
      * @throws Throwable exception thrown by the invocation or cached exception
      */
-    private Object invokeCacheable(final MethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute) throws Throwable {
+    private Object invokeCacheable(final MethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute,
+            final InvocationRecorder recorder) throws Throwable {
         //Generate the cache key
-        final Serializable cacheKey = this.generateCacheKey(methodInvocation, cacheableAttribute);
+        final Serializable cacheKey = this.generateCacheKey(methodInvocation, cacheableAttribute, recorder);
         
-        this.checkForCachedException(cacheableAttribute, methodInvocation, cacheKey);
+        final CacheInvocationPlan invocationPlan = this.getInvocationPlan(cacheableAttribute);
+        final boolean checkValueCacheFirst = invocationPlan.isCheckValueCacheFirst();
+        if (!checkValueCacheFirst) {
+            this.checkForCachedException(cacheableAttribute, methodInvocation, cacheKey, recorder);
+        }
         
-        final CacheableCacheResolver cacheResolver = cacheableAttribute.getCacheResolver();
-        final Ehcache cache = cacheResolver.resolveCache(cacheKey, methodInvocation);
+        final Ehcache cache = invocationPlan.resolveCache(cacheKey, methodInvocation);
+        if (recorder != null) {
+            recorder.setCache(cache);
+        }
         
         //See if this is self-populating
-        final ThreadLocal<MethodInvocation> entryFactory = cacheResolver.resolveSelfPopulatingCacheEntryFactory(cache, cacheKey, methodInvocation);
+        final ThreadLocal<MethodInvocation> entryFactory = invocationPlan.resolveSelfPopulatingCacheEntryFactory(cache, cacheKey, methodInvocation);
         if (entryFactory != null) {
+            if (recorder != null) {
+                recorder.setSelfPopulating();
+            }
+            
+            //A self-populating cache invokes the method on a miss so cached exceptions have to be checked first
+            if (checkValueCacheFirst) {
+                this.checkForCachedException(cacheableAttribute, methodInvocation, cacheKey, recorder);
+            }
+            
             return this.invokeSelfPopulatingCacheable(methodInvocation, cacheableAttribute, 
-                    cache, entryFactory, cacheKey);
+                    cache, entryFactory, cacheKey, recorder);
         }
 
-        final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
-        
-        //See if there is a cached result
-        final Element element = cache.getWithLoader(cacheKey, null, methodInvocation);
+        //See if there is a cached result, only going through the loader API if a loader could be registered
+        final Element element;
+        if (invocationPlan.isCacheLoaderConfigured()) {
+            element = cache.getWithLoader(cacheKey, null, methodInvocation);
+        }
+        else {
+            element = cache.get(cacheKey);
+        }
         if (element != null) {
-            final Object value = element.getObjectValue();
+            Object value = element.getObjectValue();
+            long loadTime = -1;
+            if (value instanceof LoadTimedCacheEntry) {
+                final LoadTimedCacheEntry loadTimedEntry = (LoadTimedCacheEntry) value;
+                value = loadTimedEntry.getValue();
+                loadTime = loadTimedEntry.getLoadTime();
+            }
             
+            final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
             final boolean ignoreValue = cacheInterceptor.preInvokeCachable(cache, methodInvocation, cacheKey, value);
             if (!ignoreValue) {
+                //Values nearing expiration are recomputed early by one caller at a time
+                if (loadTime >= 0 && this.isEarlyExpired(cacheableAttribute, element, loadTime)) {
+                    final InFlightKey refreshKey = new InFlightKey(cache, cacheKey);
+                    if (this.refreshesInProgress.putIfAbsent(refreshKey, Boolean.TRUE) == null) {
+                        try {
+                            if (recorder != null) {
+                                recorder.recordMiss();
+                            }
+                            return this.invokeAndCache(methodInvocation, cacheableAttribute, cache, cacheKey, recorder);
+                        }
+                        finally {
+                            this.refreshesInProgress.remove(refreshKey);
+                        }
+                    }
+                }
+                
+                //Stale values are returned while a replacement is loaded in the background
+                final int softTimeToLive = cacheableAttribute.getSoftTimeToLive();
+                if (softTimeToLive > 0 && System.currentTimeMillis() - element.getLatestOfCreationAndUpdateTime() >= softTimeToLive * 1000L) {
+                    final TaskExecutor refreshExecutor = invocationPlan.getRefreshExecutor();
+                    if (refreshExecutor != null && methodInvocation instanceof ProxyMethodInvocation) {
+                        this.refreshStaleValue((ProxyMethodInvocation)methodInvocation, cacheableAttribute, refreshExecutor, cache, cacheKey, recorder);
+                    }
+                    else {
+                        //Only Spring AOP invocations can be proceeded after the caller returns, refresh on this thread
+                        final InFlightKey refreshKey = new InFlightKey(cache, cacheKey);
+                        if (this.refreshesInProgress.putIfAbsent(refreshKey, Boolean.TRUE) == null) {
+                            try {
+                                if (recorder != null) {
+                                    recorder.recordMiss();
+                                }
+                                return this.invokeAndCache(methodInvocation, cacheableAttribute, cache, cacheKey, recorder);
+                            }
+                            finally {
+                                this.refreshesInProgress.remove(refreshKey);
+                            }
+                        }
+                    }
+                }
+                
+                if (recorder != null) {
+                    recorder.recordHit();
+                }
                 return value;
             }
         }
+        
+        if (checkValueCacheFirst) {
+            this.checkForCachedException(cacheableAttribute, methodInvocation, cacheKey, recorder);
+        }
 
         //No cached value or exception, proceed
+        if (recorder != null) {
+            recorder.recordMiss();
+        }
+        if (cacheableAttribute.isCoalesceMisses()) {
+            return this.invokeCoalescedCacheable(methodInvocation, cacheableAttribute, cache, cacheKey, recorder);
+        }
+        return this.invokeAndCache(methodInvocation, cacheableAttribute, cache, cacheKey, recorder);
+    }
+    
+    /**
+     * Invokes the method and caches the result or exception
+     * 
+     * @param methodInvocation The advised invocation
+     * @param cacheableAttribute Configuration for the method invocation
+     * @param cache The cache to store the result in
+     * @param cacheKey The cache key for the invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     * @return The result of the invocation
+     * @throws Throwable Exception from the invocation
+     */
+    private Object invokeAndCache(final MethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute, 
+            final Ehcache cache, final Serializable cacheKey, final InvocationRecorder recorder) throws Throwable {
+        
+        final long start = System.nanoTime();
         final Object value;
         try {
             value = methodInvocation.proceed();
         }
         catch (Throwable t) {
+            if (recorder != null) {
+                recorder.recordLoad(System.nanoTime() - start);
+            }
             this.cacheException(cacheableAttribute, methodInvocation, cacheKey, t);
             throw t;
         }
+        final long loadTime = System.nanoTime() - start;
+        if (recorder != null) {
+            recorder.recordLoad(loadTime);
+        }
         
         //Check both the null-cache flag and with the interceptor if the value should be cached
+        final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
         final boolean shouldCache = cacheInterceptor.postInvokeCacheable(cache, methodInvocation, cacheKey, value);
         if ((value != null || cacheableAttribute.isCacheNull()) && shouldCache) {
-            cache.put(new Element(cacheKey, value));
+            cache.put(this.createElement(cacheableAttribute, cache, cacheKey, value, loadTime));
+            
+            //Indexed after the put so a tagged remove can never leave the new element cached but not indexed
+            this.indexTags(cacheableAttribute, methodInvocation, cache, cacheKey);
         }
 
         return value;
     }
+    
+    /**
+     * Creates the element to cache for a value, wrapping the value in a {@link LoadTimedCacheEntry}
+     * if the method uses early expiration and applying the method's time to live and idle.
+     */
+    private Element createElement(final CacheableAttribute cacheableAttribute, final Ehcache cache, 
+            final Serializable cacheKey, final Object value, final long loadTime) {
+        
+        final Element element;
+        if (cacheableAttribute.getEarlyExpirationBeta() > 0) {
+            element = new Element(cacheKey, new LoadTimedCacheEntry(value, loadTime));
+        }
+        else {
+            element = new Element(cacheKey, value);
+        }
+        
+        int timeToLive = cacheableAttribute.getTimeToLive();
+        if (value == null && cacheableAttribute.getNullTimeToLive() >= 0) {
+            timeToLive = cacheableAttribute.getNullTimeToLive();
+        }
+        final int timeToIdle = cacheableAttribute.getTimeToIdle();
+        if (timeToLive >= 0 || timeToIdle >= 0) {
+            //Once an element has its own lifespan the cache defaults are no longer applied, fill in the unset one
+            final CacheConfiguration cacheConfiguration = cache.getCacheConfiguration();
+            final boolean eternal = cacheConfiguration.isEternal();
+            element.setTimeToLive(timeToLive >= 0 ? timeToLive : (eternal ? 0 : (int)cacheConfiguration.getTimeToLiveSeconds()));
+            element.setTimeToIdle(timeToIdle >= 0 ? timeToIdle : (eternal ? 0 : (int)cacheConfiguration.getTimeToIdleSeconds()));
+        }
+        
+        return element;
+    }
+    
+    /**
+     * Probabilistic early expiration check, the XFetch algorithm from "Optimal Probabilistic Cache Stampede
+     * Prevention" (Vattani, Chierichetti, Lowenstein). The closer the element is to expiring and the longer the
+     * value took to load the more likely it is to be considered expired.
+     * 
+     * @param cacheableAttribute Configuration for the method invocation
+     * @param element The cached element
+     * @param loadTime Time in nanoseconds it took to load the cached value
+     * @return true if the value should be recomputed now
+     */
+    private boolean isEarlyExpired(final CacheableAttribute cacheableAttribute, final Element element, final long loadTime) {
+        final double beta = cacheableAttribute.getEarlyExpirationBeta();
+        if (beta <= 0) {
+            return false;
+        }
+        
+        final long expirationTime = element.getExpirationTime();
+        if (expirationTime == Long.MAX_VALUE) {
+            return false;
+        }
+        
+        //1 - nextDouble() is in (0, 1] so the log is always finite
+        final double random = 1.0 - this.earlyExpirationRandom.get().nextDouble();
+        final double loadTimeMillis = loadTime / 1000000.0;
+        return System.currentTimeMillis() - loadTimeMillis * beta * Math.log(random) >= expirationTime;
+    }
+    
+    /**
+     * Submits a background invocation of the method to replace a stale cached value, unless a refresh of the
+     * key is already running. Exceptions from the refresh are logged and are not cached so the stale value
+     * continues to be used until it expires.
+     * 
+     * @param methodInvocation The advised invocation
+     * @param cacheableAttribute Configuration for the method invocation
+     * @param refreshExecutor Executor to run the refresh on
+     * @param cache The cache the stale value was found in
+     * @param cacheKey The cache key for the invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     */
+    private void refreshStaleValue(final ProxyMethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute, 
+            final TaskExecutor refreshExecutor, final Ehcache cache, final Serializable cacheKey, final InvocationRecorder recorder) {
+        
+        final InFlightKey refreshKey = new InFlightKey(cache, cacheKey);
+        if (this.refreshesInProgress.putIfAbsent(refreshKey, Boolean.TRUE) != null) {
+            return;
+        }
+        
+        //The invocation is going to be proceeded on another thread after this one has returned
+        final MethodInvocation refreshInvocation = methodInvocation.invocableClone();
+        
+        try {
+            refreshExecutor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        final long start = System.nanoTime();
+                        final Object value = refreshInvocation.proceed();
+                        final long loadTime = System.nanoTime() - start;
+                        if (recorder != null) {
+                            recorder.recordBackgroundLoad(loadTime);
+                        }
+                        
+                        final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
+                        final boolean shouldCache = cacheInterceptor.postInvokeCacheable(cache, refreshInvocation, cacheKey, value);
+                        if ((value != null || cacheableAttribute.isCacheNull()) && shouldCache) {
+                            cache.put(createElement(cacheableAttribute, cache, cacheKey, value, loadTime));
+                            indexTags(cacheableAttribute, refreshInvocation, cache, cacheKey);
+                        }
+                    }
+                    catch (Throwable t) {
+                        logger.warn("Failed to refresh stale value for key '" + cacheKey + "' in cache '" + cache.getName() + "', the stale value will continue to be used", t);
+                    }
+                    finally {
+                        refreshesInProgress.remove(refreshKey);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            this.refreshesInProgress.remove(refreshKey);
+            this.logger.warn("Failed to submit refresh of stale value for key '" + cacheKey + "' in cache '" + cache.getName() + "'", e);
+        }
+    }
+    
+    /**
+     * Handles a cache miss for a method with {@link Cacheable#coalesceMisses()} set. The first thread to miss
+     * for a key invokes the method, any other threads that miss for the same key while that invocation is
+     * running wait for it and return its result or throw its exception.
+     * 
+     * @param methodInvocation The advised invocation
+     * @param cacheableAttribute Configuration for the method invocation
+     * @param cache The cache to store the result in
+     * @param cacheKey The cache key for the invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     * @return The result of the invocation
+     * @throws Throwable Exception from the invocation
+     */
+    private Object invokeCoalescedCacheable(final MethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute,
+            final Ehcache cache, final Serializable cacheKey, final InvocationRecorder recorder) throws Throwable {
+        
+        final InFlightKey inFlightKey = new InFlightKey(cache, cacheKey);
+        final InFlightInvocation inFlightInvocation = new InFlightInvocation();
+        
+        final InFlightInvocation existingInvocation = this.inFlightInvocations.putIfAbsent(inFlightKey, inFlightInvocation);
+        if (existingInvocation != null) {
+            return existingInvocation.getResult();
+        }
+        
+        try {
+            //A previous leader may have cached the value and finished between this thread's miss and becoming the leader
+            final Element element = cache.get(cacheKey);
+            if (element != null) {
+                final Object cachedValue = this.getCachedValue(element);
+                
+                final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
+                if (!cacheInterceptor.preInvokeCachable(cache, methodInvocation, cacheKey, cachedValue)) {
+                    inFlightInvocation.setValue(cachedValue);
+                    return cachedValue;
+                }
+            }
+            
+            //The result is cached before the in-flight entry is removed so later misses find it in the cache
+            final Object value = this.invokeAndCache(methodInvocation, cacheableAttribute, cache, cacheKey, recorder);
+            inFlightInvocation.setValue(value);
+            return value;
+        }
+        catch (Throwable t) {
+            inFlightInvocation.setThrowable(t);
+            throw t;
+        }
+        finally {
+            this.inFlightInvocations.remove(inFlightKey, inFlightInvocation);
+        }
+    }
+
+    /**
+     * Called if the {@link MethodInvocation} is annotated with {@link CacheableBatch}. Each element of the collection
+     * parameter is looked up in the cache, the method is invoked once with a collection of the elements that were
+     * not found and the values it returns are cached.
+     * 
+     * @param methodInvocation Original method invocation
+     * @param cacheableBatchAttribute Information about the {@link CacheableBatch} annotation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     * @return Map of the cached and loaded values
+     * @throws Throwable exception thrown by the invocation
+     */
+    private Object invokeCacheableBatch(final MethodInvocation methodInvocation, final CacheableBatchAttribute cacheableBatchAttribute,
+            final InvocationRecorder recorder) throws Throwable {
+        final int collectionParameterIndex = cacheableBatchAttribute.getCollectionParameterIndex();
+        final Object[] arguments = methodInvocation.getArguments();
+        final Collection<?> elements = (Collection<?>)arguments[collectionParameterIndex];
+        if (elements == null || elements.isEmpty()) {
+            return methodInvocation.proceed();
+        }
+        
+        //Look up each element, tracking the key and cache of the ones that are missing
+        final CacheableCacheResolver cacheResolver = cacheableBatchAttribute.getCacheResolver();
+        final Map<Object, Object> cachedValues = new LinkedHashMap<Object, Object>();
+        final Map<Object, BatchMiss> misses = new LinkedHashMap<Object, BatchMiss>();
+        for (final Object element : elements) {
+            final MethodInvocation elementInvocation = new CollectionElementMethodInvocation(methodInvocation, collectionParameterIndex, element);
+            final Serializable cacheKey = this.generateCacheKey(elementInvocation, cacheableBatchAttribute, recorder);
+            final Ehcache cache = cacheResolver.resolveCache(cacheKey, elementInvocation);
+            
+            final Element cachedElement = cache.get(cacheKey);
+            if (cachedElement != null) {
+                cachedValues.put(element, this.getCachedValue(cachedElement));
+                if (recorder != null) {
+                    recorder.recordHit();
+                }
+            }
+            else {
+                misses.put(element, new BatchMiss(cache, cacheKey));
+                if (recorder != null) {
+                    recorder.recordMiss();
+                }
+            }
+        }
+        
+        //Invoke the method once with just the missing elements
+        Map<?, ?> loadedValues = null;
+        if (!misses.isEmpty()) {
+            final Collection<Object> missingElements;
+            if (cacheableBatchAttribute.isSetParameter()) {
+                missingElements = new LinkedHashSet<Object>(misses.keySet());
+            }
+            else {
+                missingElements = new ArrayList<Object>(misses.keySet());
+            }
+            
+            arguments[collectionParameterIndex] = missingElements;
+            final long start = System.nanoTime();
+            try {
+                loadedValues = (Map<?, ?>)methodInvocation.proceed();
+            }
+            finally {
+                arguments[collectionParameterIndex] = elements;
+                if (recorder != null) {
+                    recorder.recordLoad(System.nanoTime() - start);
+                }
+            }
+            
+            final boolean cacheNull = cacheableBatchAttribute.isCacheNull();
+            for (final Map.Entry<Object, BatchMiss> missEntry : misses.entrySet()) {
+                final Object value = loadedValues != null ? loadedValues.get(missEntry.getKey()) : null;
+                if (value != null || cacheNull) {
+                    final BatchMiss miss = missEntry.getValue();
+                    miss.cache.put(new Element(miss.cacheKey, value));
+                }
+            }
+        }
+        
+        //Build the result in the order of the requested elements
+        final Map<Object, Object> result = new LinkedHashMap<Object, Object>();
+        for (final Object element : elements) {
+            Object value = cachedValues.get(element);
+            if (value == null && loadedValues != null) {
+                value = loadedValues.get(element);
+            }
+            if (value != null) {
+                result.put(element, value);
+            }
+        }
+        return result;
+    }
 
     /**
      * Handles invoking the advised method via a {@link SelfPopulatingCache}. The {@link MethodInvocation} is set into
@@ -162,13 +646,26 @@ public class EhCacheInterceptor implements MethodInterceptor {
      * @param methodInvocation The advised invocation
      * @param cacheableAttribute Configuration for the method invocation
      * @param key The cache key for the invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
      * @return The result of the invocation or the cached result.
      * @throws Throwable Exception from the invocation
      */
     private Object invokeSelfPopulatingCacheable(final MethodInvocation methodInvocation, final CacheableAttribute cacheableAttribute,
-            final Ehcache cache, final ThreadLocal<MethodInvocation> entryFactory, final Serializable key) throws Throwable {
+            final Ehcache cache, final ThreadLocal<MethodInvocation> entryFactory, final Serializable key, 
+            final InvocationRecorder recorder) throws Throwable {
+        
+        //The cache decides if the method is invoked, wrap the invocation to find out if it was
+        final boolean tagged = !cacheableAttribute.getTagGenerators().isEmpty();
+        final LoadTimingMethodInvocation loadTimingInvocation;
+        if (recorder != null || tagged) {
+            loadTimingInvocation = new LoadTimingMethodInvocation(methodInvocation, recorder);
+            entryFactory.set(loadTimingInvocation);
+        }
+        else {
+            loadTimingInvocation = null;
+            entryFactory.set(methodInvocation);
+        }
         
-        entryFactory.set(methodInvocation);
         final Element element;
         try {
             element = cache.get(key);
@@ -180,6 +677,15 @@ public class EhCacheInterceptor implements MethodInterceptor {
         }
         finally {
             entryFactory.remove();
+            
+            if (recorder != null) {
+                if (loadTimingInvocation.isProceeded()) {
+                    recorder.recordMiss();
+                }
+                else {
+                    recorder.recordHit();
+                }
+            }
         }
         
         //This should not occur, it would have to be from a coding error in this library or EhCache's APIs have changed
@@ -187,11 +693,25 @@ public class EhCacheInterceptor implements MethodInterceptor {
            throw new IllegalStateException("the supposed SelfPopulatingCache returned null, which violates the contract it should always return an Element; perhaps the cache is not truly a SelfPopulatingCache?");
         }
         
+        if (tagged && loadTimingInvocation.isProceeded()) {
+            this.indexTags(cacheableAttribute, methodInvocation, cache, key);
+        }
+        
+        return this.getCachedValue(element);
+    }
+    
+    /**
+     * @return The value of a cached element, unwrapped if it is held in a {@link LoadTimedCacheEntry} or a {@link RefreshableCacheEntry}
+     */
+    private Object getCachedValue(final Element element) {
         final Object value = element.getObjectValue();
-
+        if (value instanceof LoadTimedCacheEntry) {
+            return ((LoadTimedCacheEntry) value).getValue();
+        }
+        
         //If the value is from a refreshable cache return the wrapped value
         if (value instanceof RefreshableCacheEntry) {
-        	return ((RefreshableCacheEntry) value).getValue();
+            return ((RefreshableCacheEntry) value).getValue();
         }
         
         return value;
@@ -202,17 +722,19 @@ public class EhCacheInterceptor implements MethodInterceptor {
      * 
      * @param methodInvocation Original method invocation
      * @param triggersRemoveAttribute Information about the {@link TriggersRemove} annotation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
      * @return The result of the invocation
      * @throws Throwable exception thrown by the invocation
      */
-    private Object invokeTriggersRemove(final MethodInvocation methodInvocation, final TriggersRemoveAttribute triggersRemoveAttribute) throws Throwable {
+    private Object invokeTriggersRemove(final MethodInvocation methodInvocation, final TriggersRemoveAttribute triggersRemoveAttribute,
+            final InvocationRecorder recorder) throws Throwable {
         if(When.BEFORE_METHOD_INVOCATION.equals(triggersRemoveAttribute.getWhen())) {
-            invokeCacheRemove(methodInvocation, triggersRemoveAttribute);
+            invokeCacheRemove(methodInvocation, triggersRemoveAttribute, recorder);
             return methodInvocation.proceed();
         }
         
         final Object methodInvocationResult =  methodInvocation.proceed();
-        invokeCacheRemove(methodInvocation, triggersRemoveAttribute);
+        invokeCacheRemove(methodInvocation, triggersRemoveAttribute, recorder);
         return methodInvocationResult;
     }
 
@@ -221,10 +743,10 @@ public class EhCacheInterceptor implements MethodInterceptor {
      * 
      * @param methodInvocation
      * @param triggersRemoveAttribute
-     * @param cache
+     * @param recorder
      */
     private void invokeCacheRemove(final MethodInvocation methodInvocation,
-            final TriggersRemoveAttribute triggersRemoveAttribute) {
+            final TriggersRemoveAttribute triggersRemoveAttribute, final InvocationRecorder recorder) {
         
         final TriggersRemoveCacheResolver cacheResolver = triggersRemoveAttribute.getCacheResolver();
         final TriggersRemoveInterceptor triggersRemoveInterceptor = triggersRemoveAttribute.getTriggersRemoveInterceptor();
@@ -234,22 +756,161 @@ public class EhCacheInterceptor implements MethodInterceptor {
             for (final Ehcache ehcache : caches) {
                 final boolean shouldRemove = triggersRemoveInterceptor.preInvokeTriggersRemoveAll(ehcache, methodInvocation);
                 if (shouldRemove) {
-                    ehcache.removeAll();
+                    this.removeAll(triggersRemoveAttribute, ehcache, recorder);
                 }
             }
         }
+        else if (!triggersRemoveAttribute.getTagGenerators().isEmpty()) {
+            this.invokeTaggedCacheRemove(methodInvocation, triggersRemoveAttribute, recorder);
+        }
+        else if (triggersRemoveAttribute.getCollectionParameterIndex() >= 0) {
+            this.invokeCollectionCacheRemove(methodInvocation, triggersRemoveAttribute, recorder);
+        }
         else {
-            final Serializable cacheKey = generateCacheKey(methodInvocation, triggersRemoveAttribute);
+            final Serializable cacheKey = generateCacheKey(methodInvocation, triggersRemoveAttribute, recorder);
             final Iterable<Ehcache> caches = cacheResolver.resolveRemoveCaches(cacheKey, methodInvocation);
             for (final Ehcache ehcache : caches) {
                 final boolean shouldRemove = triggersRemoveInterceptor.preInvokeTriggersRemove(ehcache, methodInvocation, cacheKey);
                 if (shouldRemove) {
-                    ehcache.remove(cacheKey);
+                    this.remove(triggersRemoveAttribute, ehcache, cacheKey, recorder);
                 }
             }
         }
     }
 
+    /**
+     * Removes every key that was tagged with one of the tags generated for the invocation, used for {@link TriggersRemove#tags()}.
+     * 
+     * @param methodInvocation The advised invocation
+     * @param triggersRemoveAttribute Configuration for the method invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     */
+    private void invokeTaggedCacheRemove(final MethodInvocation methodInvocation,
+            final TriggersRemoveAttribute triggersRemoveAttribute, final InvocationRecorder recorder) {
+        
+        final Set<Object> tags = this.generateTags(methodInvocation, triggersRemoveAttribute.getTagGenerators());
+        if (tags.isEmpty()) {
+            return;
+        }
+        
+        //Tagged keys can be in any of the caches the resolver would remove all elements from
+        final TriggersRemoveCacheResolver cacheResolver = triggersRemoveAttribute.getCacheResolver();
+        final TriggersRemoveInterceptor triggersRemoveInterceptor = triggersRemoveAttribute.getTriggersRemoveInterceptor();
+        final Iterable<Ehcache> caches = cacheResolver.resolveRemoveAllCaches(methodInvocation);
+        for (final Ehcache ehcache : caches) {
+            final CacheTagIndex tagIndex = this.tagIndexes.get(ehcache.getName());
+            if (tagIndex == null) {
+                //Nothing has been tagged in the cache
+                continue;
+            }
+            
+            for (final Object tag : tags) {
+                for (final Object key : tagIndex.getKeys(tag)) {
+                    final Serializable cacheKey = (Serializable)key;
+                    final boolean shouldRemove = triggersRemoveInterceptor.preInvokeTriggersRemove(ehcache, methodInvocation, cacheKey);
+                    if (shouldRemove) {
+                        //The index drops the key when the cache notifies it of the removal
+                        this.remove(triggersRemoveAttribute, ehcache, cacheKey, recorder);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the key of each element of the collection parameter, used for {@link TriggersRemove#expandCollection()}.
+     * 
+     * @param methodInvocation The advised invocation
+     * @param triggersRemoveAttribute Configuration for the method invocation
+     * @param recorder Records statistics and operations for the invocation, null if neither are enabled
+     */
+    private void invokeCollectionCacheRemove(final MethodInvocation methodInvocation,
+            final TriggersRemoveAttribute triggersRemoveAttribute, final InvocationRecorder recorder) {
+        
+        final int collectionParameterIndex = triggersRemoveAttribute.getCollectionParameterIndex();
+        final Collection<?> elements = (Collection<?>)methodInvocation.getArguments()[collectionParameterIndex];
+        if (elements == null) {
+            return;
+        }
+        
+        final TriggersRemoveCacheResolver cacheResolver = triggersRemoveAttribute.getCacheResolver();
+        final TriggersRemoveInterceptor triggersRemoveInterceptor = triggersRemoveAttribute.getTriggersRemoveInterceptor();
+        for (final Object element : elements) {
+            final MethodInvocation elementInvocation = new CollectionElementMethodInvocation(methodInvocation, collectionParameterIndex, element);
+            final Serializable cacheKey = generateCacheKey(elementInvocation, triggersRemoveAttribute, recorder);
+            final Iterable<Ehcache> caches = cacheResolver.resolveRemoveCaches(cacheKey, elementInvocation);
+            for (final Ehcache ehcache : caches) {
+                final boolean shouldRemove = triggersRemoveInterceptor.preInvokeTriggersRemove(ehcache, elementInvocation, cacheKey);
+                if (shouldRemove) {
+                    this.remove(triggersRemoveAttribute, ehcache, cacheKey, recorder);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the key from the cache, queuing the removal if the method uses {@link When#AFTER_METHOD_INVOCATION_ASYNC}
+     */
+    private void remove(final TriggersRemoveAttribute triggersRemoveAttribute, final Ehcache ehcache, final Serializable cacheKey,
+            final InvocationRecorder recorder) {
+        final CacheOperation operation = recorder != null ? recorder.recordRemoval(CacheOperationType.REMOVE, ehcache) : null;
+        try {
+            final DebouncedCacheRemover debouncedCacheRemover = triggersRemoveAttribute.getDebouncedCacheRemover();
+            if (debouncedCacheRemover != null) {
+                debouncedCacheRemover.remove(ehcache, cacheKey);
+            }
+            else {
+                ehcache.remove(cacheKey);
+            }
+        }
+        finally {
+            if (operation != null) {
+                operation.complete();
+            }
+        }
+    }
+    
+    /**
+     * Removes all elements from the cache, queuing the removal if the method uses {@link When#AFTER_METHOD_INVOCATION_ASYNC}
+     */
+    private void removeAll(final TriggersRemoveAttribute triggersRemoveAttribute, final Ehcache ehcache, final InvocationRecorder recorder) {
+        final CacheOperation operation = recorder != null ? recorder.recordRemoval(CacheOperationType.REMOVE_ALL, ehcache) : null;
+        try {
+            final DebouncedCacheRemover debouncedCacheRemover = triggersRemoveAttribute.getDebouncedCacheRemover();
+            if (debouncedCacheRemover != null) {
+                debouncedCacheRemover.removeAll(ehcache);
+            }
+            else {
+                ehcache.removeAll();
+            }
+        }
+        finally {
+            if (operation != null) {
+                operation.complete();
+            }
+        }
+    }
+
+    /**
+     * Calls {@link #checkForCachedException(CacheableAttribute, MethodInvocation, Serializable)}, counting
+     * the thrown exception as a cached exception hit.
+     */
+    private void checkForCachedException(final CacheableAttribute cacheableAttribute, final MethodInvocation methodInvocation, 
+            final Serializable key, final InvocationRecorder recorder) throws Throwable {
+        if (recorder == null) {
+            this.checkForCachedException(cacheableAttribute, methodInvocation, key);
+            return;
+        }
+        
+        try {
+            this.checkForCachedException(cacheableAttribute, methodInvocation, key);
+        }
+        catch (Throwable t) {
+            recorder.recordCachedExceptionHit();
+            throw t;
+        }
+    }
+
     /**
      * Check if there is a cached exception for the key. If there is throw it.
      * 
@@ -259,9 +920,15 @@ public class EhCacheInterceptor implements MethodInterceptor {
      */
     protected void checkForCachedException(final CacheableAttribute cacheableAttribute, final MethodInvocation methodInvocation, final Serializable key) throws Throwable {
         //Determine if exception caching is enabled
-        final CacheableCacheResolver cacheResolver = cacheableAttribute.getCacheResolver();
-        final Ehcache exceptionCache = cacheResolver.resolveExceptionCache(key, methodInvocation, null);
+        final CacheInvocationPlan invocationPlan = this.getInvocationPlan(cacheableAttribute);
+        final Ehcache exceptionCache = invocationPlan.resolveExceptionCache(key, methodInvocation, null);
         if (exceptionCache != null) {
+            //If the key was never added to the filter there can't be a cached exception
+            final ExceptionKeyFilter exceptionKeyFilter = invocationPlan.getExceptionKeyFilter();
+            if (exceptionKeyFilter != null && !exceptionKeyFilter.mightContain(key)) {
+                return;
+            }
+            
             //See if there is a cached exception
             final Element execptionElement = exceptionCache.get(key);
             if (execptionElement != null) {
@@ -286,18 +953,109 @@ public class EhCacheInterceptor implements MethodInterceptor {
      * @param t The exception to cache
      */
     protected void cacheException(final CacheableAttribute cacheableAttribute, final MethodInvocation methodInvocation, final Serializable key, final Throwable t) {
-        final CacheableCacheResolver cacheResolver = cacheableAttribute.getCacheResolver();
-        final Ehcache exceptionCache = cacheResolver.resolveExceptionCache(key, methodInvocation, t);
+        final CacheInvocationPlan invocationPlan = this.getInvocationPlan(cacheableAttribute);
+        final Ehcache exceptionCache = invocationPlan.resolveExceptionCache(key, methodInvocation, t);
         if (exceptionCache != null) {
             final CacheableInterceptor cacheInterceptor = cacheableAttribute.getCacheInterceptor();
             
             final boolean cacheException = cacheInterceptor.postInvokeCacheableException(exceptionCache, methodInvocation, key, t);
             if (cacheException) {
+                //Add to the filter first so the exception is never in the cache without being in the filter
+                final ExceptionKeyFilter exceptionKeyFilter = invocationPlan.getExceptionKeyFilter();
+                if (exceptionKeyFilter != null) {
+                    exceptionKeyFilter.put(key);
+                }
+                
                 exceptionCache.put(new Element(key, t));
             }
         }
     }
 
+    /**
+     * Evaluates the tag generators for the invocation, tags that are a {@link Collection} or array are expanded
+     * into their elements and null tags are ignored.
+     */
+    private Set<Object> generateTags(final MethodInvocation methodInvocation, final List<CacheKeyGenerator<Serializable>> tagGenerators) {
+        final Set<Object> tags = new LinkedHashSet<Object>();
+        for (final CacheKeyGenerator<Serializable> tagGenerator : tagGenerators) {
+            final Object tag = tagGenerator.generateKey(methodInvocation);
+            if (tag instanceof Collection<?>) {
+                for (final Object element : (Collection<?>)tag) {
+                    if (element != null) {
+                        tags.add(element);
+                    }
+                }
+            }
+            else if (tag instanceof Object[]) {
+                for (final Object element : (Object[])tag) {
+                    if (element != null) {
+                        tags.add(element);
+                    }
+                }
+            }
+            else if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+    
+    /**
+     * Adds the key to the tag index of the cache under the tags of the invocation, does nothing if the method has no tags.
+     * Must be called after the value is put in the cache.
+     */
+    private void indexTags(final CacheableAttribute cacheableAttribute, final MethodInvocation methodInvocation, 
+            final Ehcache cache, final Serializable cacheKey) {
+        final List<CacheKeyGenerator<Serializable>> tagGenerators = cacheableAttribute.getTagGenerators();
+        if (tagGenerators.isEmpty()) {
+            return;
+        }
+        
+        final Set<Object> tags = this.generateTags(methodInvocation, tagGenerators);
+        if (!tags.isEmpty()) {
+            final CacheTagIndex tagIndex = this.getTagIndex(cache);
+            tagIndex.add(cacheKey, tags);
+            
+            //Removed or evicted before it was indexed, the removal event found nothing to drop from the index
+            if (!cache.isKeyInCache(cacheKey)) {
+                tagIndex.remove(cacheKey, tags);
+            }
+        }
+    }
+    
+    /**
+     * Gets the tag index for the cache, creating it and registering it as a listener of the cache if needed. Indexes
+     * are looked up by cache name so a decorated cache and the cache it decorates share an index.
+     */
+    private CacheTagIndex getTagIndex(final Ehcache cache) {
+        final String cacheName = cache.getName();
+        CacheTagIndex tagIndex = this.tagIndexes.get(cacheName);
+        if (tagIndex == null) {
+            final CacheTagIndex newTagIndex = new CacheTagIndex();
+            tagIndex = this.tagIndexes.putIfAbsent(cacheName, newTagIndex);
+            if (tagIndex == null) {
+                tagIndex = newTagIndex;
+                cache.getCacheEventNotificationService().registerListener(tagIndex);
+            }
+        }
+        return tagIndex;
+    }
+
+    /**
+     * Calls {@link #generateCacheKey(MethodInvocation, MethodAttribute)}, recording how long generating the key took.
+     */
+    private Serializable generateCacheKey(final MethodInvocation methodInvocation, final MethodAttribute methodAttribute, 
+            final InvocationRecorder recorder) {
+        if (recorder == null) {
+            return this.generateCacheKey(methodInvocation, methodAttribute);
+        }
+        
+        final long start = System.nanoTime();
+        final Serializable cacheKey = this.generateCacheKey(methodInvocation, methodAttribute);
+        recorder.recordKeyGeneration(System.nanoTime() - start);
+        return cacheKey;
+    }
+
     /**
      * Creates a {@link Serializable} cache key from the {@link MethodInvocation} and configuration attributes.
      * 
@@ -314,10 +1072,318 @@ public class EhCacheInterceptor implements MethodInterceptor {
         }
         
         final Serializable cacheKey = cacheKeyGenerator.generateKey(methodInvocation);
-        this.logger.debug("Generated key '{}' for invocation: {}", cacheKey, methodInvocation);
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Generated key '{}' for invocation: {}", cacheKey, methodInvocation);
+        }
         return cacheKey;
     }
     
+    /**
+     * Identifies an in-flight invocation or refresh by the cache and the key in that cache
+     */
+    private static final class InFlightKey {
+        private final Ehcache cache;
+        private final Serializable key;
+        private final int hash;
+        
+        public InFlightKey(Ehcache cache, Serializable key) {
+            this.cache = cache;
+            this.key = key;
+            this.hash = 31 * System.identityHashCode(cache) + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof InFlightKey)) {
+                return false;
+            }
+            final InFlightKey other = (InFlightKey) obj;
+            return this.cache == other.cache && this.key.equals(other.key);
+        }
+    }
+    
+    /**
+     * Cache and key of an element of a {@link CacheableBatch} invocation that was not found in the cache 
+     */
+    private static final class BatchMiss {
+        private final Ehcache cache;
+        private final Serializable cacheKey;
+        
+        public BatchMiss(Ehcache cache, Serializable cacheKey) {
+            this.cache = cache;
+            this.cacheKey = cacheKey;
+        }
+    }
+    
+    /**
+     * The result of an invocation that other threads may be waiting on
+     */
+    private static final class InFlightInvocation {
+        private final CountDownLatch complete = new CountDownLatch(1);
+        private volatile Object value;
+        private volatile Throwable throwable;
+        
+        public void setValue(Object value) {
+            this.value = value;
+            this.complete.countDown();
+        }
+        
+        public void setThrowable(Throwable throwable) {
+            this.throwable = throwable;
+            this.complete.countDown();
+        }
+        
+        public Object getResult() throws Throwable {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        this.complete.await();
+                        break;
+                    }
+                    catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            
+            if (this.throwable != null) {
+                throw this.throwable;
+            }
+            return this.value;
+        }
+    }
+    
+    /**
+     * Records the statistics and {@link CacheOperation}s of a single invocation of an advised method. Only
+     * created when statistics or a {@link CacheOperationListener} are configured.
+     */
+    private static final class InvocationRecorder {
+        private final Method method;
+        private final MethodStatistics methodStatistics;
+        private final CacheOperationListener cacheOperationListener;
+        private CacheOperation operation;
+        
+        public InvocationRecorder(Method method, MethodStatistics methodStatistics, CacheOperationListener cacheOperationListener) {
+            this.method = method;
+            this.methodStatistics = methodStatistics;
+            this.cacheOperationListener = cacheOperationListener;
+        }
+        
+        /**
+         * Starts the operation covering the whole invocation
+         */
+        public void begin(CacheOperationType type) {
+            if (this.cacheOperationListener != null) {
+                this.operation = this.cacheOperationListener.begin(type, this.method);
+            }
+        }
+        
+        /**
+         * Ends the operation covering the whole invocation. Anything recorded afterwards, such as a later
+         * refresh through a {@link LoadTimingMethodInvocation} kept by the cache, only updates the statistics.
+         */
+        public void end() {
+            if (this.operation != null) {
+                this.operation.complete();
+                this.operation = null;
+            }
+        }
+        
+        public void setCache(Ehcache cache) {
+            if (this.operation != null) {
+                this.operation.setCacheName(cache.getName());
+            }
+        }
+        
+        public void setSelfPopulating() {
+            if (this.operation != null) {
+                this.operation.setSelfPopulating(true);
+            }
+        }
+        
+        public void recordHit() {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordHit();
+            }
+            if (this.operation != null) {
+                this.operation.setResult(CacheOperationResult.HIT);
+            }
+        }
+        
+        public void recordMiss() {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordMiss();
+            }
+            if (this.operation != null) {
+                this.operation.setResult(CacheOperationResult.MISS);
+            }
+        }
+        
+        public void recordCachedExceptionHit() {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordCachedExceptionHit();
+            }
+            if (this.operation != null) {
+                this.operation.setResult(CacheOperationResult.CACHED_EXCEPTION);
+            }
+        }
+        
+        public void recordKeyGeneration(long nanos) {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordKeyGeneration(nanos);
+            }
+            if (this.operation != null) {
+                this.operation.setKeyGenerationTime(nanos);
+            }
+        }
+        
+        public void recordLoad(long nanos) {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordLoad(nanos);
+            }
+            if (this.operation != null) {
+                this.operation.setLoadTime(nanos);
+            }
+        }
+        
+        /**
+         * Records a load done after the invocation returned, only the statistics are updated
+         */
+        public void recordBackgroundLoad(long nanos) {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordLoad(nanos);
+            }
+        }
+        
+        /**
+         * Records a removal from a cache, the removal is a separate operation from the invocation
+         * 
+         * @return The operation for the removal, null if it is not being recorded
+         */
+        public CacheOperation recordRemoval(CacheOperationType type, Ehcache cache) {
+            if (this.methodStatistics != null) {
+                this.methodStatistics.recordRemoval();
+            }
+            if (this.cacheOperationListener == null) {
+                return null;
+            }
+            
+            final CacheOperation removeOperation = this.cacheOperationListener.begin(type, this.method);
+            if (removeOperation != null) {
+                removeOperation.setCacheName(cache.getName());
+            }
+            return removeOperation;
+        }
+    }
+    
+    /**
+     * Passed to self-populating caches when the invocation is recorded or tagged, tracks if the cache invoked the
+     * method and records the time taken by the invocation as a load.
+     */
+    private static class LoadTimingMethodInvocation implements MethodInvocation {
+        private final MethodInvocation methodInvocation;
+        private final InvocationRecorder recorder;
+        private volatile boolean proceeded = false;
+        
+        public LoadTimingMethodInvocation(MethodInvocation methodInvocation, InvocationRecorder recorder) {
+            this.methodInvocation = methodInvocation;
+            this.recorder = recorder;
+        }
+        
+        public boolean isProceeded() {
+            return this.proceeded;
+        }
+
+        public Object[] getArguments() {
+            return this.methodInvocation.getArguments();
+        }
+
+        public Method getMethod() {
+            return this.methodInvocation.getMethod();
+        }
+
+        public AccessibleObject getStaticPart() {
+            return this.methodInvocation.getStaticPart();
+        }
+
+        public Object getThis() {
+            return this.methodInvocation.getThis();
+        }
+
+        public Object proceed() throws Throwable {
+            this.proceeded = true;
+            final long start = System.nanoTime();
+            try {
+                return this.methodInvocation.proceed();
+            }
+            finally {
+                if (this.recorder != null) {
+                    this.recorder.recordLoad(System.nanoTime() - start);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "LoadTimingMethodInvocation [methodInvocation=" + this.methodInvocation + "]";
+        }
+    }
+    
+    /**
+     * View of an invocation with its collection parameter replaced by a single element, used to generate the
+     * cache key of the element. Cannot be proceeded.
+     */
+    private static class CollectionElementMethodInvocation implements MethodInvocation {
+        private final MethodInvocation methodInvocation;
+        private final Object[] arguments;
+        
+        public CollectionElementMethodInvocation(MethodInvocation methodInvocation, int collectionParameterIndex, Object element) {
+            this.methodInvocation = methodInvocation;
+            this.arguments = methodInvocation.getArguments().clone();
+            this.arguments[collectionParameterIndex] = element;
+        }
+
+        public Object[] getArguments() {
+            return this.arguments;
+        }
+
+        public Method getMethod() {
+            return this.methodInvocation.getMethod();
+        }
+
+        public AccessibleObject getStaticPart() {
+            return this.methodInvocation.getStaticPart();
+        }
+
+        public Object getThis() {
+            return this.methodInvocation.getThis();
+        }
+
+        public Object proceed() throws Throwable {
+            throw new UnsupportedOperationException("A single element of a collection invocation cannot be proceeded");
+        }
+
+        @Override
+        public String toString() {
+            return "CollectionElementMethodInvocation [arguments=" + Arrays.toString(this.arguments)
+                    + ", methodInvocation=" + this.methodInvocation + "]";
+        }
+    }
+    
     private static class ParameterFilteringMethodInvocation implements MethodInvocation {
         private final MethodInvocation methodInvocation;
         private final ParameterMask parameterMask;
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-method statistics collected by {@link EhCacheInterceptor}. Statistics for a method are created the
+ * first time it is invoked, all updates go to lock free striped counters so collecting them does not add
+ * contention to the advised methods.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class EhCacheInterceptorStatistics implements EhCacheInterceptorStatisticsMBean {
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    private static final Comparator<MethodStatistics> METHOD_NAME_ORDER = new Comparator<MethodStatistics>() {
+        public int compare(MethodStatistics o1, MethodStatistics o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+    
+    private final ConcurrentMap<Method, MethodStatistics> methodStatistics = new ConcurrentHashMap<Method, MethodStatistics>();
+    private final ConcurrentMap<String, MethodStatistics> namedStatistics = new ConcurrentHashMap<String, MethodStatistics>();
+    
+    /**
+     * @return The statistics for the method, never null
+     */
+    public MethodStatistics getMethodStatistics(Method method) {
+        MethodStatistics statistics = this.methodStatistics.get(method);
+        if (statistics == null) {
+            //Methods with the same name, such as bridge methods, share their statistics
+            final String name = MethodStatistics.getName(method);
+            statistics = this.namedStatistics.get(name);
+            if (statistics == null) {
+                statistics = new MethodStatistics(method);
+                final MethodStatistics existing = this.namedStatistics.putIfAbsent(name, statistics);
+                if (existing != null) {
+                    statistics = existing;
+                }
+            }
+            
+            final MethodStatistics existing = this.methodStatistics.putIfAbsent(method, statistics);
+            if (existing != null) {
+                statistics = existing;
+            }
+        }
+        return statistics;
+    }
+    
+    /**
+     * @return The statistics for the method name
+     * @throws IllegalArgumentException If no advised method with the name has been invoked
+     * @see MethodStatistics#getName(Method)
+     */
+    public MethodStatistics getMethodStatistics(String methodName) {
+        final MethodStatistics statistics = this.namedStatistics.get(methodName);
+        if (statistics == null) {
+            throw new IllegalArgumentException("No statistics exist for method '" + methodName + "'");
+        }
+        return statistics;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getMethodNames()
+     */
+    public String[] getMethodNames() {
+        final List<String> names = new ArrayList<String>(this.namedStatistics.keySet());
+        Collections.sort(names);
+        return names.toArray(new String[names.size()]);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getSummary()
+     */
+    public String[] getSummary() {
+        final List<MethodStatistics> methods = new ArrayList<MethodStatistics>(this.namedStatistics.values());
+        Collections.sort(methods, METHOD_NAME_ORDER);
+        final String[] summary = new String[methods.size()];
+        for (int i = 0; i < summary.length; i++) {
+            final MethodStatistics statistics = methods.get(i);
+            summary[i] = statistics.getName() + ": hits=" + statistics.getHits() + ", misses=" + statistics.getMisses()
+                    + ", hitRatio=" + statistics.getHitRatio() + ", cachedExceptionHits=" + statistics.getCachedExceptionHits()
+                    + ", removals=" + statistics.getRemovals() + ", loads=" + statistics.getLoadTime().getCount()
+                    + ", averageLoadTime=" + statistics.getLoadTime().getMean() / NANOS_PER_MILLI
+                    + "ms, averageKeyGenerationTime=" + statistics.getKeyGenerationTime().getMean() / NANOS_PER_MILLI + "ms";
+        }
+        return summary;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getHits(java.lang.String)
+     */
+    public long getHits(String methodName) {
+        return this.getMethodStatistics(methodName).getHits();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getMisses(java.lang.String)
+     */
+    public long getMisses(String methodName) {
+        return this.getMethodStatistics(methodName).getMisses();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getHitRatio(java.lang.String)
+     */
+    public double getHitRatio(String methodName) {
+        return this.getMethodStatistics(methodName).getHitRatio();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getCachedExceptionHits(java.lang.String)
+     */
+    public long getCachedExceptionHits(String methodName) {
+        return this.getMethodStatistics(methodName).getCachedExceptionHits();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getRemovals(java.lang.String)
+     */
+    public long getRemovals(String methodName) {
+        return this.getMethodStatistics(methodName).getRemovals();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getLoads(java.lang.String)
+     */
+    public long getLoads(String methodName) {
+        return this.getMethodStatistics(methodName).getLoadTime().getCount();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getAverageLoadTime(java.lang.String)
+     */
+    public double getAverageLoadTime(String methodName) {
+        return this.getMethodStatistics(methodName).getLoadTime().getMean() / NANOS_PER_MILLI;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getLoadTimePercentile(java.lang.String, double)
+     */
+    public double getLoadTimePercentile(String methodName, double percentile) {
+        return this.getMethodStatistics(methodName).getLoadTime().getPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getLoadTimeHistogram(java.lang.String)
+     */
+    public long[] getLoadTimeHistogram(String methodName) {
+        return this.getMethodStatistics(methodName).getLoadTime().getBuckets();
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#getAverageKeyGenerationTime(java.lang.String)
+     */
+    public double getAverageKeyGenerationTime(String methodName) {
+        return this.getMethodStatistics(methodName).getKeyGenerationTime().getMean() / NANOS_PER_MILLI;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatisticsMBean#reset()
+     */
+    public void reset() {
+        for (final MethodStatistics statistics : this.namedStatistics.values()) {
+            statistics.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EhCacheInterceptorStatistics [methods=" + this.namedStatistics.size() + "]";
+    }
+}
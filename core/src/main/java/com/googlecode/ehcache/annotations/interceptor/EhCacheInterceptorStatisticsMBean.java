@@ -0,0 +1,67 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.interceptor;
+
+/**
+ * JMX view of {@link EhCacheInterceptorStatistics}. Methods are identified by the names returned from
+ * {@link #getMethodNames()}, times are reported in milliseconds.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface EhCacheInterceptorStatisticsMBean {
+    /**
+     * @return Names of the advised methods that have been invoked
+     */
+    String[] getMethodNames();
+    
+    /**
+     * @return One line summary of each of the advised methods that have been invoked
+     */
+    String[] getSummary();
+    
+    long getHits(String methodName);
+    
+    long getMisses(String methodName);
+    
+    double getHitRatio(String methodName);
+    
+    long getCachedExceptionHits(String methodName);
+    
+    long getRemovals(String methodName);
+    
+    long getLoads(String methodName);
+    
+    double getAverageLoadTime(String methodName);
+    
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return Upper bound of the percentile, accurate to within a factor of two
+     */
+    double getLoadTimePercentile(String methodName, double percentile);
+    
+    /**
+     * @return Number of loads that took up to 2^i - 1 nanoseconds for each index i
+     */
+    long[] getLoadTimeHistogram(String methodName);
+    
+    double getAverageKeyGenerationTime(String methodName);
+    
+    /**
+     * Sets the statistics for all methods back to zero
+     */
+    void reset();
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.interceptor;
+
+import java.lang.reflect.Method;
+
+import org.springframework.util.ClassUtils;
+
+import com.googlecode.ehcache.annotations.support.LatencyHistogram;
+import com.googlecode.ehcache.annotations.support.StripedCounter;
+
+/**
+ * Counters and timings for a single advised method, updated by {@link EhCacheInterceptor} when
+ * {@link EhCacheInterceptorStatistics} are configured.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class MethodStatistics {
+    private final String name;
+    private final StripedCounter hits = new StripedCounter();
+    private final StripedCounter misses = new StripedCounter();
+    private final StripedCounter cachedExceptionHits = new StripedCounter();
+    private final StripedCounter removals = new StripedCounter();
+    private final LatencyHistogram loadTime = new LatencyHistogram();
+    private final LatencyHistogram keyGenerationTime = new LatencyHistogram();
+    
+    public MethodStatistics(Method method) {
+        this.name = getName(method);
+    }
+    
+    /**
+     * @return The name statistics for the method are published under, the class name, method name and fully qualified
+     * parameter types so overloaded methods get distinct names
+     */
+    public static String getName(Method method) {
+        final StringBuilder name = new StringBuilder();
+        name.append(method.getDeclaringClass().getName()).append('.').append(method.getName()).append('(');
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(ClassUtils.getQualifiedName(parameterTypes[i]));
+        }
+        return name.append(')').toString();
+    }
+    
+    public String getName() {
+        return this.name;
+    }
+    
+    /**
+     * A cached value was returned
+     */
+    public void recordHit() {
+        this.hits.increment();
+    }
+    
+    /**
+     * No cached value was found, for self-populating caches the method invocation is a miss
+     */
+    public void recordMiss() {
+        this.misses.increment();
+    }
+    
+    /**
+     * A cached exception was thrown
+     */
+    public void recordCachedExceptionHit() {
+        this.cachedExceptionHits.increment();
+    }
+    
+    /**
+     * A key or all keys were removed from a cache
+     */
+    public void recordRemoval() {
+        this.removals.increment();
+    }
+    
+    /**
+     * The method was invoked to load a value
+     * 
+     * @param nanos Time the invocation took in nanoseconds
+     */
+    public void recordLoad(long nanos) {
+        this.loadTime.record(nanos);
+    }
+    
+    /**
+     * A cache key was generated
+     * 
+     * @param nanos Time generating the key took in nanoseconds
+     */
+    public void recordKeyGeneration(long nanos) {
+        this.keyGenerationTime.record(nanos);
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getCachedExceptionHits() {
+        return this.cachedExceptionHits.get();
+    }
+
+    public long getRemovals() {
+        return this.removals.get();
+    }
+    
+    /**
+     * @return Hits divided by hits and misses, 0 if there have been no lookups
+     */
+    public double getHitRatio() {
+        final long hits = this.getHits();
+        final long lookups = hits + this.getMisses();
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double)hits / lookups;
+    }
+
+    /**
+     * @return Histogram of the time taken by invocations of the method that loaded values, including background refreshes
+     */
+    public LatencyHistogram getLoadTime() {
+        return this.loadTime;
+    }
+
+    /**
+     * @return Histogram of the time taken to generate cache keys
+     */
+    public LatencyHistogram getKeyGenerationTime() {
+        return this.keyGenerationTime;
+    }
+    
+    /**
+     * Sets all counters and histograms back to zero
+     */
+    public void reset() {
+        this.hits.reset();
+        this.misses.reset();
+        this.cachedExceptionHits.reset();
+        this.removals.reset();
+        this.loadTime.reset();
+        this.keyGenerationTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "MethodStatistics [name=" + this.name + ", hits=" + this.hits + ", misses=" + this.misses 
+                + ", cachedExceptionHits=" + this.cachedExceptionHits + ", removals=" + this.removals 
+                + ", loads=" + this.loadTime.getCount() + ", meanLoadTime=" + this.loadTime.getMean() 
+                + "ns, meanKeyGenerationTime=" + this.keyGenerationTime.getMean() + "ns]";
+    }
+}
@@ -122,17 +122,7 @@ public abstract class AbstractCacheKeyGenerator<T extends Serializable> implemen
         
         if (this.includeMethod) {
             final Method method = methodInvocation.getMethod();
-            
-            final Class<?> declaringClass = method.getDeclaringClass();
-            final String name = method.getName();
-            final Class<?> returnType = method.getReturnType();
-
-            if (this.includeParameterTypes) {
-                final Class<?>[] parameterTypes = method.getParameterTypes();
-                return this.generateKey(declaringClass, name, returnType, parameterTypes, arguments);
-            }
-            
-            return this.generateKey(declaringClass, name, returnType, arguments);
+            return this.generateMethodKey(method, arguments);
         }
         
         try {
@@ -145,6 +135,26 @@ public abstract class AbstractCacheKeyGenerator<T extends Serializable> implemen
             }
         }
     }
+    
+    /**
+     * Called to generate the key when {@link #setIncludeMethod(boolean)} is true. The default implementation
+     * calls {@link #generateKey(Object...)} with the parts of the {@link Method} signature followed by the
+     * arguments.
+     * 
+     * @return The {@link Serializable} cache key for the method invocation.
+     */
+    protected T generateMethodKey(Method method, Object[] arguments) {
+        final Class<?> declaringClass = method.getDeclaringClass();
+        final String name = method.getName();
+        final Class<?> returnType = method.getReturnType();
+
+        if (this.includeParameterTypes) {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            return this.generateKey(declaringClass, name, returnType, parameterTypes, arguments);
+        }
+        
+        return this.generateKey(declaringClass, name, returnType, arguments);
+    }
 
     
     /**
@@ -18,14 +18,19 @@ package com.googlecode.ehcache.annotations.key;
 import java.io.Serializable;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 
+import com.google.common.collect.MapMaker;
+
 
 /**
  * Base class for key generators that do deep inspection of the key data for generation. Arrays, 
@@ -35,10 +40,17 @@ import org.springframework.util.ReflectionUtils;
  * 
  * Reflective recursion add significant overhead to the deep inspection process.
  * 
+ * If {@link #isIncludeMethod()} is true and the sub-class implements {@link #copyGenerator(Object)} the generator
+ * state after hashing the method signature is computed once per {@link Method} and copied for each key instead
+ * of hashing the signature on every call.
+ * 
  * @author Eric Dalquist
  * @version $Revision$
  */
 public abstract class AbstractDeepCacheKeyGenerator<G, T extends Serializable> extends AbstractCacheKeyGenerator<T> implements ReflectionHelperAware {
+    private final ConcurrentMap<Method, MethodSeed<G>> methodSeeds = new MapMaker().weakKeys().makeMap();
+    //Soft values as the fields reference their declaring class which would otherwise pin the weak key
+    private final ConcurrentMap<Class<?>, Field[]> reflectedFields = new MapMaker().weakKeys().softValues().makeMap();
     private ReflectionHelper reflectionHelper = new SimpleReflectionHelper();
     private boolean useReflection = false;
     
@@ -74,16 +86,162 @@ public abstract class AbstractDeepCacheKeyGenerator<G, T extends Serializable> e
         this.useReflection = useReflection;
     }
 
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.key.AbstractCacheKeyGenerator#generateMethodKey(java.lang.reflect.Method, java.lang.Object[])
+     */
+    @Override
+    protected T generateMethodKey(Method method, Object[] arguments) {
+        final G seed = this.getMethodSeed(method);
+        final G generator = seed != null ? this.getSeededGenerator(seed) : null;
+        if (generator == null) {
+            return super.generateMethodKey(method, arguments);
+        }
+        
+        try {
+            //Same as deepHashCode(G, Object[]) on the full data array, the signature is already in the seed
+            this.deepHashCode(generator, (Object)arguments);
+            this.endRecursion(generator, arguments);
+            return this.generateKey(generator);
+        }
+        finally {
+            this.releaseGenerator(generator);
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.googlecode.ehcache.annotations.key.AbstractCacheKeyGenerator#generateKey(java.lang.Object[])
      */
     @Override
     public final T generateKey(Object... data) {
         final G generator = this.getGenerator(data);
-        this.deepHashCode(generator, data);
-        return this.generateKey(generator);
+        try {
+            this.deepHashCode(generator, data);
+            return this.generateKey(generator);
+        }
+        finally {
+            this.releaseGenerator(generator);
+        }
+    }
+    
+    /**
+     * Generates the same key as {@link #generateKey(MethodInvocation)} for invocations where every argument is null
+     * or an instance of a {@link ScalarCacheKeyGenerator#isScalarType(Class) scalar type}. The arguments are appended
+     * directly, skipping the type checks and cycle tracking {@link #deepHashCode(Object, Object)} does for every element.
+     * Falls back to {@link #generateKey(MethodInvocation)} if {@link #isUseReflection()} is true.
+     */
+    final T generateScalarKey(MethodInvocation methodInvocation) {
+        if (this.useReflection) {
+            return this.generateKey(methodInvocation);
+        }
+        
+        final Object[] arguments = methodInvocation.getArguments();
+        if (!this.isIncludeMethod()) {
+            final G generator = this.getGenerator(arguments);
+            try {
+                this.appendScalars(generator, arguments);
+                return this.generateKey(generator);
+            }
+            finally {
+                this.releaseGenerator(generator);
+            }
+        }
+        
+        final Method method = methodInvocation.getMethod();
+        final G seed = this.getMethodSeed(method);
+        final G seededGenerator = seed != null ? this.getSeededGenerator(seed) : null;
+        if (seededGenerator != null) {
+            try {
+                this.appendScalars(seededGenerator, arguments);
+                this.endRecursion(seededGenerator, arguments);
+                return this.generateKey(seededGenerator);
+            }
+            finally {
+                this.releaseGenerator(seededGenerator);
+            }
+        }
+        
+        //No memoized signature, hash it the same way generateMethodKey would
+        final Object[] data;
+        if (this.isIncludeParameterTypes()) {
+            data = new Object[] { method.getDeclaringClass(), method.getName(), method.getReturnType(), method.getParameterTypes(), arguments };
+        }
+        else {
+            data = new Object[] { method.getDeclaringClass(), method.getName(), method.getReturnType(), arguments };
+        }
+        
+        final G generator = this.getGenerator(data);
+        try {
+            this.beginRecursion(generator, data);
+            for (int i = 0; i < data.length - 1; i++) {
+                this.deepHashCode(generator, data[i]);
+            }
+            this.appendScalars(generator, arguments);
+            this.endRecursion(generator, data);
+            return this.generateKey(generator);
+        }
+        finally {
+            this.releaseGenerator(generator);
+        }
+    }
+    
+    /**
+     * Same as {@link #deepHashCode(Object, Object[])} for an array that only contains nulls and scalar values
+     */
+    private void appendScalars(G generator, Object[] arguments) {
+        this.beginRecursion(generator, arguments);
+        for (final Object argument : arguments) {
+            if (argument == null) {
+                this.appendNull(generator);
+            }
+            else {
+                this.append(generator, argument);
+            }
+        }
+        this.endRecursion(generator, arguments);
+    }
+    
+    /**
+     * @return The generator state after the method signature has been hashed, null if the generator state can't be copied
+     */
+    private G getMethodSeed(Method method) {
+        final boolean includeParameterTypes = this.isIncludeParameterTypes();
+        
+        MethodSeed<G> methodSeed = this.methodSeeds.get(method);
+        if (methodSeed == null || methodSeed.includeParameterTypes != includeParameterTypes) {
+            methodSeed = new MethodSeed<G>(includeParameterTypes, this.createMethodSeed(method, includeParameterTypes));
+            this.methodSeeds.put(method, methodSeed);
+        }
+        
+        return methodSeed.generator;
     }
     
+    /**
+     * Hashes the method signature the same way {@link #generateKey(Object...)} does for the leading elements of
+     * the data array.
+     */
+    private G createMethodSeed(Method method, boolean includeParameterTypes) {
+        final Object[] data;
+        if (includeParameterTypes) {
+            data = new Object[] { method.getDeclaringClass(), method.getName(), method.getReturnType(), method.getParameterTypes(), null };
+        }
+        else {
+            data = new Object[] { method.getDeclaringClass(), method.getName(), method.getReturnType(), null };
+        }
+        
+        final G generator = this.getSeedGenerator(data);
+        try {
+            this.beginRecursion(generator, data);
+            for (int i = 0; i < data.length - 1; i++) {
+                this.deepHashCode(generator, data[i]);
+            }
+            
+            return this.copyGenerator(generator);
+        }
+        finally {
+            this.releaseGenerator(generator);
+        }
+    }
+
     /**
      * Calls {@link #deepHashCode(Object, Object)} on each element in the array.
      * @param a will never be null
@@ -191,34 +349,54 @@ public abstract class AbstractDeepCacheKeyGenerator<G, T extends Serializable> e
             return;
         }
         
-        //Accumulate the data that makes up the object being reflected on so it can be recursed on as a single grouping of data
-        final List<Object> reflectiveObject = new LinkedList<Object>();
+        final Class<?> elementClass = element.getClass();
+        final Field[] fields = this.getReflectedFields(elementClass);
+        
+        //The object is hashed as a single grouping of data, the same as a list of the target class followed by the field values
+        this.beginRecursion(generator, element);
 
         //Write out the target class so that two classes with the same fields can't collide
-        reflectiveObject.add(element.getClass());
+        this.deepHashCode(generator, elementClass);
 
         try {
-            for (Class<?> targetClass = element.getClass(); targetClass != null; targetClass = targetClass.getSuperclass()) {
-                final Field[] fields = targetClass.getDeclaredFields();
-                AccessibleObject.setAccessible(fields, true);
-
-                for (int i = 0; i < fields.length; i++) {
-                    final Field field = fields[i];
-                    final int modifiers = field.getModifiers();
-
-                    //Ignore static and transient fields
-                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
-                        final Object fieldValue = field.get(element);
-                        reflectiveObject.add(fieldValue);
-                    }
-                }
+            for (final Field field : fields) {
+                this.deepHashCode(generator, field.get(element));
             }
         }
         catch (IllegalAccessException exception) {
             ReflectionUtils.handleReflectionException(exception);
         }
         
-        this.deepHashCode(generator, reflectiveObject);
+        this.endRecursion(generator, element);
+    }
+    
+    /**
+     * @return The accessible non-static, non-transient fields of the class and all of its super classes, cached per class.
+     */
+    private Field[] getReflectedFields(Class<?> elementClass) {
+        Field[] fields = this.reflectedFields.get(elementClass);
+        if (fields != null) {
+            return fields;
+        }
+        
+        final List<Field> fieldList = new ArrayList<Field>();
+        for (Class<?> targetClass = elementClass; targetClass != null; targetClass = targetClass.getSuperclass()) {
+            final Field[] declaredFields = targetClass.getDeclaredFields();
+            AccessibleObject.setAccessible(declaredFields, true);
+
+            for (final Field field : declaredFields) {
+                final int modifiers = field.getModifiers();
+
+                //Ignore static and transient fields
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                    fieldList.add(field);
+                }
+            }
+        }
+        
+        fields = fieldList.toArray(new Field[fieldList.size()]);
+        this.reflectedFields.put(elementClass, fields);
+        return fields;
     }
     
     /**
@@ -237,6 +415,41 @@ public abstract class AbstractDeepCacheKeyGenerator<G, T extends Serializable> e
      */
     protected abstract G getGenerator(Object... data);
     
+    /**
+     * Create the generator a method signature is hashed with before it is memoized via {@link #copyGenerator(Object)}.
+     * The default implementation calls {@link #getGenerator(Object...)}.
+     */
+    protected G getSeedGenerator(Object... data) {
+        return this.getGenerator(data);
+    }
+    
+    /**
+     * Create an independent copy of the generator, used to memoize the state of a method signature. The generator
+     * passed in must not be modified. The default implementation returns null which disables the memoization.
+     * 
+     * @return A copy of the generator, null if the generator can't be copied
+     */
+    protected G copyGenerator(G generator) {
+        return null;
+    }
+    
+    /**
+     * Create the generator used to continue key generation from the memoized state of a method signature. The
+     * seed passed in must not be modified. The default implementation calls {@link #copyGenerator(Object)}.
+     * 
+     * @return The generator to use, null if the seed can't be copied
+     */
+    protected G getSeededGenerator(G seed) {
+        return this.copyGenerator(seed);
+    }
+    
+    /**
+     * Called once a generator returned by {@link #getGenerator(Object...)}, {@link #getSeedGenerator(Object...)} or
+     * {@link #getSeededGenerator(Object)} is no longer used, including when key generation failed. Useful for sub-classes that reuse generators.
+     */
+    protected void releaseGenerator(G generator) {
+    }
+    
     /**
      * Generate the cache key from the generator
      */
@@ -376,6 +589,16 @@ public abstract class AbstractDeepCacheKeyGenerator<G, T extends Serializable> e
     protected void endRecursion(G generator, Object e) {
     }
 
+    private static final class MethodSeed<G> {
+        private final boolean includeParameterTypes;
+        private final G generator;
+        
+        public MethodSeed(boolean includeParameterTypes, G generator) {
+            this.includeParameterTypes = includeParameterTypes;
+            this.generator = generator;
+        }
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + " [" +
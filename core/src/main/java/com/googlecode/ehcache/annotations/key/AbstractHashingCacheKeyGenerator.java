@@ -42,16 +42,15 @@ public abstract class AbstractHashingCacheKeyGenerator<G, T extends Serializable
     }
 
     /**
-     * Uses an object array of {@link Enum#getClass()} and {@link Enum#name()} for the hash code
+     * Uses the {@link Enum#getDeclaringClass()} and {@link Enum#name()} for the hash code, hashed the same
+     * as an object array of the two.
      */
     protected void appendEnum(G generator, Enum<?> e) {
-        //Handling for JDK5, enums are anonymous inner classes in JDK5 and we only want the base enum class name
-        if (e.getClass().isAnonymousClass()) {
-            this.deepHashCode(generator, new Object[] { e.getClass().getEnclosingClass(), e.name() });
-        }
-        else {
-            this.deepHashCode(generator, new Object[] { e.getClass(), e.name() });
-        }
+        //Constants with a body are anonymous inner classes, getDeclaringClass returns the base enum class
+        this.beginRecursion(generator, e);
+        this.deepHashCode(generator, e.getDeclaringClass());
+        this.deepHashCode(generator, e.name());
+        this.endRecursion(generator, e);
     }
     
     @Override
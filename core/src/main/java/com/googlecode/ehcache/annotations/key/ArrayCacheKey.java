@@ -0,0 +1,201 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Immutable, array backed cache key. Nested data is flattened into the single array using begin and end
+ * markers, primitive arrays are stored as copies and compared by value. The hash code is computed once
+ * when the key is created and a key with a single element does not need the backing array at all.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ * @see ArrayCacheKeyGenerator
+ */
+public final class ArrayCacheKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Markers for the start and end of nested data. Enum hash codes are identity based and differ between
+     * JVMs so each marker carries a fixed hash code that is used instead, keeping the hash code of a
+     * deserialized key consistent with keys generated locally.
+     */
+    enum Marker {
+        BEGIN('['),
+        END(']');
+        
+        final int hash;
+        
+        private Marker(int hash) {
+            this.hash = hash;
+        }
+    }
+    
+    private final Object element;
+    private final Object[] elements;
+    private final int hashCode;
+    
+    /**
+     * Creates a key from a copy of the elements
+     */
+    public ArrayCacheKey(Object... elements) {
+        this(elements, elements.length);
+    }
+    
+    /**
+     * Creates a key from a copy of the first length elements
+     */
+    ArrayCacheKey(Object[] elements, int length) {
+        if (length == 1) {
+            this.element = elements[0];
+            this.elements = null;
+            this.hashCode = 31 + elementHashCode(this.element);
+        }
+        else {
+            this.element = null;
+            this.elements = new Object[length];
+            System.arraycopy(elements, 0, this.elements, 0, length);
+            
+            int hashCode = 1;
+            for (final Object e : this.elements) {
+                hashCode = 31 * hashCode + elementHashCode(e);
+            }
+            this.hashCode = hashCode;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ArrayCacheKey other = (ArrayCacheKey) obj;
+        if (hashCode != other.hashCode)
+            return false;
+        if (elements == null) {
+            return other.elements == null && elementEquals(element, other.element);
+        }
+        return Arrays.deepEquals(elements, other.elements);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        if (this.elements == null) {
+            appendElement(builder, this.element);
+        }
+        else {
+            boolean first = true;
+            for (final Object e : this.elements) {
+                if (e == Marker.END) {
+                    builder.append("]");
+                    first = false;
+                    continue;
+                }
+                
+                if (!first) {
+                    builder.append(", ");
+                }
+                
+                if (e == Marker.BEGIN) {
+                    builder.append("[");
+                    first = true;
+                }
+                else {
+                    appendElement(builder, e);
+                    first = false;
+                }
+            }
+        }
+        return builder.append("]").toString();
+    }
+    
+    private static void appendElement(StringBuilder builder, Object e) {
+        if (e instanceof Object[]) {
+            builder.append(Arrays.deepToString((Object[]) e));
+        }
+        else if (e != null && e.getClass().isArray()) {
+            //deepToString handles all of the primitive array types, strip the brackets of the wrapping array
+            final String string = Arrays.deepToString(new Object[] { e });
+            builder.append(string, 1, string.length() - 1);
+        }
+        else {
+            builder.append(e);
+        }
+    }
+    
+    private static int elementHashCode(Object e) {
+        if (e == null)
+            return 0;
+        if (e instanceof Marker)
+            return ((Marker) e).hash;
+        if (e instanceof byte[])
+            return Arrays.hashCode((byte[]) e);
+        if (e instanceof short[])
+            return Arrays.hashCode((short[]) e);
+        if (e instanceof int[])
+            return Arrays.hashCode((int[]) e);
+        if (e instanceof long[])
+            return Arrays.hashCode((long[]) e);
+        if (e instanceof char[])
+            return Arrays.hashCode((char[]) e);
+        if (e instanceof float[])
+            return Arrays.hashCode((float[]) e);
+        if (e instanceof double[])
+            return Arrays.hashCode((double[]) e);
+        if (e instanceof boolean[])
+            return Arrays.hashCode((boolean[]) e);
+        if (e instanceof Object[])
+            return Arrays.deepHashCode((Object[]) e);
+        return e.hashCode();
+    }
+    
+    private static boolean elementEquals(Object e1, Object e2) {
+        if (e1 == e2)
+            return true;
+        if (e1 == null || e2 == null)
+            return false;
+        if (e1 instanceof byte[] && e2 instanceof byte[])
+            return Arrays.equals((byte[]) e1, (byte[]) e2);
+        if (e1 instanceof short[] && e2 instanceof short[])
+            return Arrays.equals((short[]) e1, (short[]) e2);
+        if (e1 instanceof int[] && e2 instanceof int[])
+            return Arrays.equals((int[]) e1, (int[]) e2);
+        if (e1 instanceof long[] && e2 instanceof long[])
+            return Arrays.equals((long[]) e1, (long[]) e2);
+        if (e1 instanceof char[] && e2 instanceof char[])
+            return Arrays.equals((char[]) e1, (char[]) e2);
+        if (e1 instanceof float[] && e2 instanceof float[])
+            return Arrays.equals((float[]) e1, (float[]) e2);
+        if (e1 instanceof double[] && e2 instanceof double[])
+            return Arrays.equals((double[]) e1, (double[]) e2);
+        if (e1 instanceof boolean[] && e2 instanceof boolean[])
+            return Arrays.equals((boolean[]) e1, (boolean[]) e2);
+        if (e1 instanceof Object[] && e2 instanceof Object[])
+            return Arrays.deepEquals((Object[]) e1, (Object[]) e2);
+        return e1.equals(e2);
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+
+/**
+ * Generates {@link ArrayCacheKey}s, a more compact alternative to the keys generated by
+ * {@link ListCacheKeyGenerator}. The key data is stored in a single flat array instead of a list per nesting
+ * level and the key for a single argument method with {@link #setIncludeMethod(boolean)} false holds just the
+ * argument.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class ArrayCacheKeyGenerator extends AbstractDeepCacheKeyGenerator<ArrayCacheKeyGenerator.ArrayKeyGenerator, ArrayCacheKey> {
+    /**
+     * Name of the bean this generator is registered under using the default constructor.
+     */
+    public static final String DEFAULT_BEAN_NAME = "com.googlecode.ehcache.annotations.key.ArrayCacheKeyGenerator.DEFAULT_BEAN_NAME";
+    
+    public static class ArrayKeyGenerator {
+        private Object[] elements;
+        private int size = 0;
+        private int depth = 0;
+        
+        private ArrayKeyGenerator(int capacity) {
+            this.elements = new Object[capacity];
+        }
+        
+        private void add(Object e) {
+            if (this.size == this.elements.length) {
+                final Object[] newElements = new Object[this.elements.length * 2];
+                System.arraycopy(this.elements, 0, newElements, 0, this.size);
+                this.elements = newElements;
+            }
+            this.elements[this.size++] = e;
+        }
+    }
+    
+    /**
+     * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator() 
+     */
+    public ArrayCacheKeyGenerator() {
+    }
+
+    /**
+     * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator(boolean, boolean) 
+     */
+    public ArrayCacheKeyGenerator(boolean includeMethod, boolean includeParameterTypes) {
+        super(includeMethod, includeParameterTypes);
+    }
+
+    @Override
+    protected ArrayKeyGenerator getGenerator(Object... data) {
+        return new ArrayKeyGenerator(Math.max(data.length, 4));
+    }
+
+    @Override
+    protected ArrayKeyGenerator copyGenerator(ArrayKeyGenerator generator) {
+        final ArrayKeyGenerator copy = new ArrayKeyGenerator(Math.max(generator.size * 2, 4));
+        System.arraycopy(generator.elements, 0, copy.elements, 0, generator.size);
+        copy.size = generator.size;
+        copy.depth = generator.depth;
+        return copy;
+    }
+
+    @Override
+    protected ArrayCacheKey generateKey(ArrayKeyGenerator generator) {
+        return new ArrayCacheKey(generator.elements, generator.size);
+    }
+    
+    /**
+     * The top level data is stored without markers
+     */
+    @Override
+    protected void beginRecursion(ArrayKeyGenerator generator, Object e) {
+        if (generator.depth > 0) {
+            generator.add(ArrayCacheKey.Marker.BEGIN);
+        }
+        generator.depth++;
+    }
+
+    @Override
+    protected void endRecursion(ArrayKeyGenerator generator, Object e) {
+        generator.depth--;
+        if (generator.depth > 0) {
+            generator.add(ArrayCacheKey.Marker.END);
+        }
+    }
+
+    @Override
+    protected void appendGraphCycle(ArrayKeyGenerator generator, Object o) {
+        generator.add(null);
+    }
+
+    @Override
+    protected void appendNull(ArrayKeyGenerator generator) {
+        generator.add(null);
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, Object e) {
+        generator.add(e);
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, boolean[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, byte[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, char[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, double[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, float[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, int[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, long[] a) {
+        generator.add(a.clone());
+    }
+
+    @Override
+    protected void append(ArrayKeyGenerator generator, short[] a) {
+        generator.add(a.clone());
+    }
+}
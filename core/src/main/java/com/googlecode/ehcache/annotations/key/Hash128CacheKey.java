@@ -0,0 +1,84 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import java.io.Serializable;
+
+/**
+ * Compact 128 bit cache key.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ * @see Murmur3CacheKeyGenerator
+ */
+public final class Hash128CacheKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final long high;
+    private final long low;
+    
+    public Hash128CacheKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public long getHigh() {
+        return this.high;
+    }
+
+    public long getLow() {
+        return this.low;
+    }
+
+    @Override
+    public int hashCode() {
+        //The bits are already well mixed, no need to combine both halves
+        return (int)this.low;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Hash128CacheKey other = (Hash128CacheKey) obj;
+        if (high != other.high)
+            return false;
+        if (low != other.low)
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final String highHex = Long.toHexString(this.high);
+        final String lowHex = Long.toHexString(this.low);
+        
+        final StringBuilder builder = new StringBuilder(32);
+        for (int i = highHex.length(); i < 16; i++) {
+            builder.append('0');
+        }
+        builder.append(highHex);
+        for (int i = lowHex.length(); i < 16; i++) {
+            builder.append('0');
+        }
+        builder.append(lowHex);
+        return builder.toString();
+    }
+}
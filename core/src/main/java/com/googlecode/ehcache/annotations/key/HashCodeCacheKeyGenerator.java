@@ -28,17 +28,36 @@ public class HashCodeCacheKeyGenerator extends AbstractHashingCacheKeyGenerator<
     
     protected static final long INITIAL_HASH = 1;
     protected static final long MULTIPLIER = 31;
+    private static final int KEY_CACHE_SIZE = 128;
+    
+    //Per-thread generator used if allocationFree is true
+    private static final ThreadLocal<LongGenerator> THREAD_GENERATOR = new ThreadLocal<LongGenerator>() {
+        @Override
+        protected LongGenerator initialValue() {
+            return new LongGenerator(new Long[KEY_CACHE_SIZE]);
+        }
+    };
     
     /**
      * Little utility class to fake a mutable long
      */
     public static class LongGenerator {
         private long hash = INITIAL_HASH;
+        //Recently returned keys, only set for the per-thread generator
+        private final Long[] keyCache;
+        private boolean inUse = false;
         
         private LongGenerator() {
+            this.keyCache = null;
+        }
+        
+        private LongGenerator(Long[] keyCache) {
+            this.keyCache = keyCache;
         }
     }
     
+    private boolean allocationFree = false;
+    
     /**
      * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator() 
      */
@@ -52,14 +71,79 @@ public class HashCodeCacheKeyGenerator extends AbstractHashingCacheKeyGenerator<
         super(includeMethod, includeParameterTypes);
     }
 
+    public final boolean isAllocationFree() {
+        return this.allocationFree;
+    }
+
+    /**
+     * If true key generation reuses a per-thread generator and a per-thread cache of recently returned keys
+     * instead of creating new objects for every call. Once warmed up generating keys for arguments that do
+     * not need to be iterated or reflected on does not allocate, with the exception of keys that are not in
+     * the key cache. {@link #setCheckforCycles(boolean)} should be false as cycle tracking allocates.
+     * 
+     * @param allocationFree Defaults to false.
+     */
+    public final void setAllocationFree(boolean allocationFree) {
+        this.allocationFree = allocationFree;
+    }
+
     @Override
     public LongGenerator getGenerator(Object... data) {
+        if (this.allocationFree) {
+            return this.getThreadGenerator(INITIAL_HASH);
+        }
         return new LongGenerator();
     }
 
+    @Override
+    protected LongGenerator copyGenerator(LongGenerator generator) {
+        final LongGenerator copy = new LongGenerator();
+        copy.hash = generator.hash;
+        return copy;
+    }
+    
+    @Override
+    protected LongGenerator getSeededGenerator(LongGenerator seed) {
+        if (this.allocationFree) {
+            return this.getThreadGenerator(seed.hash);
+        }
+        return this.copyGenerator(seed);
+    }
+    
+    @Override
+    protected void releaseGenerator(LongGenerator generator) {
+        generator.inUse = false;
+    }
+    
+    /**
+     * @return The per-thread generator, a new generator if it is already in use by a reentrant call
+     */
+    private LongGenerator getThreadGenerator(long hash) {
+        LongGenerator generator = THREAD_GENERATOR.get();
+        if (generator.inUse) {
+            generator = new LongGenerator();
+        }
+        
+        generator.inUse = true;
+        generator.hash = hash;
+        return generator;
+    }
+
     @Override
     public Long generateKey(LongGenerator generator) {
-        return generator.hash;
+        final long hash = generator.hash;
+        final Long[] keyCache = generator.keyCache;
+        if (keyCache == null) {
+            return hash;
+        }
+        
+        final int index = (int)(hash ^ (hash >>> 32)) & (KEY_CACHE_SIZE - 1);
+        Long key = keyCache[index];
+        if (key == null || key.longValue() != hash) {
+            key = hash;
+            keyCache[index] = key;
+        }
+        return key;
     }
     
 
@@ -40,6 +40,23 @@ public class MessageDigestCacheKeyGenerator extends AbstractHashingCacheKeyGener
     private final MessageDigest baseMessageDigest;
     private boolean cloneNotSupported;
     
+    //Per-thread stream that is reset and reused for every key
+    private final ThreadLocal<ThreadGenerator> threadGenerator = new ThreadLocal<ThreadGenerator>() {
+        @Override
+        protected ThreadGenerator initialValue() {
+            return new ThreadGenerator(new MessageDigestOutputStream(getMessageDigest()));
+        }
+    };
+    
+    private static final class ThreadGenerator {
+        private final MessageDigestOutputStream generator;
+        private boolean inUse = false;
+        
+        public ThreadGenerator(MessageDigestOutputStream generator) {
+            this.generator = generator;
+        }
+    }
+    
     /**
      * Uses {@link #DEFAULT_ALGORITHM} for the algorithm
      * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator() 
@@ -73,10 +90,57 @@ public class MessageDigestCacheKeyGenerator extends AbstractHashingCacheKeyGener
     
 
 
+    /**
+     * Uses a per-thread generator, a new generator is created for reentrant calls.
+     */
     @Override
     public MessageDigestOutputStream getGenerator(Object... data) {
-        final MessageDigest messageDigest = this.getMessageDigest();
-        return new MessageDigestOutputStream(messageDigest);
+        return this.getThreadGenerator();
+    }
+    
+    /**
+     * The method signature is recorded as bytes which are written to the per-thread digest for each key
+     */
+    @Override
+    protected MessageDigestOutputStream getSeedGenerator(Object... data) {
+        return new MessageDigestOutputStream();
+    }
+
+    @Override
+    protected MessageDigestOutputStream copyGenerator(MessageDigestOutputStream generator) {
+        try {
+            return generator.copy();
+        }
+        catch (CloneNotSupportedException e) {
+            return null;
+        }
+    }
+    
+    @Override
+    protected MessageDigestOutputStream getSeededGenerator(MessageDigestOutputStream seed) {
+        final MessageDigestOutputStream generator = this.getThreadGenerator();
+        seed.writeTo(generator);
+        return generator;
+    }
+    
+    private MessageDigestOutputStream getThreadGenerator() {
+        final ThreadGenerator threadGenerator = this.threadGenerator.get();
+        if (threadGenerator.inUse) {
+            final MessageDigest messageDigest = this.getMessageDigest();
+            return new MessageDigestOutputStream(messageDigest);
+        }
+        
+        threadGenerator.inUse = true;
+        return threadGenerator.generator;
+    }
+    
+    @Override
+    protected void releaseGenerator(MessageDigestOutputStream generator) {
+        final ThreadGenerator threadGenerator = this.threadGenerator.get();
+        if (threadGenerator.generator == generator) {
+            generator.reset();
+            threadGenerator.inUse = false;
+        }
     }
 
     @Override
@@ -98,7 +162,7 @@ public class MessageDigestCacheKeyGenerator extends AbstractHashingCacheKeyGener
      * that is remembered and from that point on new {@link MessageDigest} instances will be created on
      * every call.
      * 
-     * @return Generates a {@link MessageDigest} to use during a call to {@link #generateKey(Object...)}
+     * @return Generates a {@link MessageDigest} for a thread or a reentrant call to {@link #generateKey(Object...)}
      */
     protected MessageDigest getMessageDigest() {
         if (this.cloneNotSupported) {
@@ -15,124 +15,234 @@
  */
 package com.googlecode.ehcache.annotations.key;
 
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.io.OutputStream;
 import java.security.MessageDigest;
 
 /**
- * Simple OutputStream that writes all data directly to the configured
- * {@link MessageDigest} using the update methods.
+ * Simple OutputStream that writes all data to the configured {@link MessageDigest}. Primitives and Strings
+ * are encoded the same way {@link java.io.DataOutputStream} encodes them into an internal buffer which is
+ * passed to the digest in large chunks.
  * 
  * @author Eric Dalquist
  * @version $Revision$
  */
 public class MessageDigestOutputStream extends OutputStream {
-    private final DataOutputStream dataOutputStream;
+    private static final int BUFFER_SIZE = 512;
+    private static final int MAX_UTF_LENGTH = 65535;
+    
     private final MessageDigest messageDigest;
+    private byte[] buffer;
+    private int count = 0;
     
     public MessageDigestOutputStream(MessageDigest messageDigest) {
         this.messageDigest = messageDigest;
-        this.dataOutputStream = new DataOutputStream(this);
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+    
+    /**
+     * Creates a stream without a {@link MessageDigest} that only records the written data, used to memoize
+     * data that is written to many digests.
+     */
+    MessageDigestOutputStream() {
+        this.messageDigest = null;
+        this.buffer = new byte[64];
     }
     
+    /**
+     * @return The digest, updated with all data written to the stream
+     */
     public MessageDigest getMessageDigest() {
+        this.flush();
         return this.messageDigest;
     }
     
-    public final void writeBoolean(boolean v) {
-        try {
-            this.dataOutputStream.writeBoolean(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
+    /**
+     * Discards any buffered data and resets the {@link MessageDigest}
+     */
+    public void reset() {
+        this.count = 0;
+        if (this.messageDigest != null) {
+            this.messageDigest.reset();
         }
     }
+    
+    /**
+     * @return An independent copy of the stream, for a digest stream the {@link MessageDigest} is cloned
+     */
+    MessageDigestOutputStream copy() throws CloneNotSupportedException {
+        if (this.messageDigest == null) {
+            final MessageDigestOutputStream copy = new MessageDigestOutputStream();
+            copy.write(this.buffer, 0, this.count);
+            return copy;
+        }
+        
+        return new MessageDigestOutputStream((MessageDigest)this.getMessageDigest().clone());
+    }
+    
+    /**
+     * Writes the recorded data of a stream created by {@link #MessageDigestOutputStream()} to another stream
+     */
+    void writeTo(MessageDigestOutputStream out) {
+        out.write(this.buffer, 0, this.count);
+    }
+    
+    public final void writeBoolean(boolean v) {
+        this.require(1);
+        this.buffer[this.count++] = (byte)(v ? 1 : 0);
+    }
 
     public final void writeByte(int v) {
-        try {
-            this.dataOutputStream.writeByte(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.require(1);
+        this.buffer[this.count++] = (byte)v;
     }
 
     public final void writeChar(int v) {
-        try {
-            this.dataOutputStream.writeChar(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.writeShort(v);
     }
 
     public final void writeDouble(double v) {
-        try {
-            this.dataOutputStream.writeDouble(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.writeLong(Double.doubleToLongBits(v));
     }
 
     public final void writeFloat(float v) {
-        try {
-            this.dataOutputStream.writeFloat(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.writeInt(Float.floatToIntBits(v));
     }
 
     public final void writeInt(int v) {
-        try {
-            this.dataOutputStream.writeInt(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.require(4);
+        final byte[] buffer = this.buffer;
+        int count = this.count;
+        buffer[count++] = (byte)(v >>> 24);
+        buffer[count++] = (byte)(v >>> 16);
+        buffer[count++] = (byte)(v >>> 8);
+        buffer[count++] = (byte)v;
+        this.count = count;
     }
 
     public final void writeLong(long v) {
-        try {
-            this.dataOutputStream.writeLong(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.require(8);
+        final byte[] buffer = this.buffer;
+        int count = this.count;
+        buffer[count++] = (byte)(v >>> 56);
+        buffer[count++] = (byte)(v >>> 48);
+        buffer[count++] = (byte)(v >>> 40);
+        buffer[count++] = (byte)(v >>> 32);
+        buffer[count++] = (byte)(v >>> 24);
+        buffer[count++] = (byte)(v >>> 16);
+        buffer[count++] = (byte)(v >>> 8);
+        buffer[count++] = (byte)v;
+        this.count = count;
     }
 
     public final void writeShort(int v) {
-        try {
-            this.dataOutputStream.writeShort(v);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
-        }
+        this.require(2);
+        this.buffer[this.count++] = (byte)(v >>> 8);
+        this.buffer[this.count++] = (byte)v;
     }
 
+    /**
+     * Writes the String in the modified UTF-8 format used by {@link java.io.DataOutputStream#writeUTF(String)}.
+     * Strings that encode to more than 65535 bytes, which DataOutputStream rejects, are written with a length
+     * of 65535 followed by the full length as an int.
+     */
     public final void writeUTF(String str) {
-        try {
-            this.dataOutputStream.writeUTF(str);
-        }
-        catch (IOException e) {
-            //Ignore, not possible with this class
+        final int length = str.length();
+        
+        int utfLength = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = str.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                utfLength++;
+            }
+            else if (c > 0x07FF) {
+                utfLength += 3;
+            }
+            else {
+                utfLength += 2;
+            }
+        }
+        
+        if (utfLength > MAX_UTF_LENGTH) {
+            this.writeShort(MAX_UTF_LENGTH);
+            this.writeInt(utfLength);
+        }
+        else {
+            this.writeShort(utfLength);
+        }
+        
+        for (int i = 0; i < length; i++) {
+            final char c = str.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                this.require(1);
+                this.buffer[this.count++] = (byte)c;
+            }
+            else if (c > 0x07FF) {
+                this.require(3);
+                this.buffer[this.count++] = (byte)(0xE0 | ((c >> 12) & 0x0F));
+                this.buffer[this.count++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                this.buffer[this.count++] = (byte)(0x80 | (c & 0x3F));
+            }
+            else {
+                this.require(2);
+                this.buffer[this.count++] = (byte)(0xC0 | ((c >> 6) & 0x1F));
+                this.buffer[this.count++] = (byte)(0x80 | (c & 0x3F));
+            }
         }
     }
 
     @Override
     public void write(byte[] b, int off, int len) {
-        this.messageDigest.update(b, off, len);
+        if (len > this.buffer.length && this.messageDigest != null) {
+            this.flush();
+            this.messageDigest.update(b, off, len);
+            return;
+        }
+        
+        this.require(len);
+        System.arraycopy(b, off, this.buffer, this.count, len);
+        this.count += len;
     }
 
     @Override
     public void write(byte[] b) {
-        this.messageDigest.update(b);
+        this.write(b, 0, b.length);
     }
 
     @Override
     public void write(int b) {
-        this.messageDigest.update((byte)b);
+        this.require(1);
+        this.buffer[this.count++] = (byte)b;
+    }
+
+    /**
+     * Passes any buffered data to the {@link MessageDigest}
+     */
+    @Override
+    public void flush() {
+        if (this.count > 0 && this.messageDigest != null) {
+            this.messageDigest.update(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+    
+    /**
+     * Makes sure there is room for the specified number of bytes in the buffer, flushing the buffer to the
+     * digest or growing it if there is no digest.
+     */
+    private void require(int length) {
+        if (this.count + length <= this.buffer.length) {
+            return;
+        }
+        
+        if (this.messageDigest != null) {
+            this.flush();
+            if (length <= this.buffer.length) {
+                return;
+            }
+        }
+        
+        final byte[] newBuffer = new byte[Math.max(this.buffer.length * 2, this.count + length)];
+        System.arraycopy(this.buffer, 0, newBuffer, 0, this.count);
+        this.buffer = newBuffer;
     }
 }
@@ -0,0 +1,332 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+
+/**
+ * Generates 128 bit keys using the x64 variant of MurmurHash3 over the key data. The collision probability
+ * is comparable to a digest based key generator while primitives and Strings are streamed directly into the
+ * hash state without any encoding or per-value allocation. Objects that are not primitive wrappers, Strings,
+ * {@link Class}es or {@link Enum}s contribute their {@link Object#hashCode()} so they should implement it well
+ * or be reflected on via {@link #setUseReflection(boolean)}.
+ * 
+ * The data is hashed as a stream of 64 bit words, smaller primitives are widened or packed into words.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class Murmur3CacheKeyGenerator extends AbstractHashingCacheKeyGenerator<Murmur3CacheKeyGenerator.Murmur3Generator, Hash128CacheKey> {
+    /**
+     * Name of the bean this generator is registered under using the default constructor.
+     */
+    public static final String DEFAULT_BEAN_NAME = "com.googlecode.ehcache.annotations.key.Murmur3CacheKeyGenerator.DEFAULT_BEAN_NAME";
+    
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    
+    //Structural markers so that differently nested data does not produce the same stream of words
+    private static final long NULL_MARKER = 0x6e756c6c6e756c6cL;
+    private static final long CYCLE_MARKER = 0x6379636c65637963L;
+    private static final long BEGIN_MARKER = 0x626567696e626567L;
+    private static final long END_MARKER = 0x656e64656e64656eL;
+    
+    /**
+     * Streaming MurmurHash3 x64 128 bit state
+     */
+    public static class Murmur3Generator {
+        private long h1 = 0;
+        private long h2 = 0;
+        private long k1;
+        private boolean pending = false;
+        private long length = 0;
+        
+        private Murmur3Generator() {
+        }
+        
+        /**
+         * Adds the next 64 bit word to the hash, two words make up a MurmurHash3 block
+         */
+        final void update(long k) {
+            if (!this.pending) {
+                this.k1 = k;
+                this.pending = true;
+                return;
+            }
+            
+            this.pending = false;
+            this.length += 16;
+            
+            long k1 = this.k1;
+            long k2 = k;
+            
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            this.h1 ^= k1;
+
+            this.h1 = Long.rotateLeft(this.h1, 27);
+            this.h1 += this.h2;
+            this.h1 = this.h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            this.h2 ^= k2;
+
+            this.h2 = Long.rotateLeft(this.h2, 31);
+            this.h2 += this.h1;
+            this.h2 = this.h2 * 5 + 0x38495ab5;
+        }
+        
+        final void update(String s) {
+            final int length = s.length();
+            this.update(length);
+            
+            int i = 0;
+            for (; i + 4 <= length; i += 4) {
+                this.update(s.charAt(i) 
+                        | ((long)s.charAt(i + 1) << 16) 
+                        | ((long)s.charAt(i + 2) << 32) 
+                        | ((long)s.charAt(i + 3) << 48));
+            }
+            if (i < length) {
+                long k = 0;
+                for (int shift = 0; i < length; i++, shift += 16) {
+                    k |= (long)s.charAt(i) << shift;
+                }
+                this.update(k);
+            }
+        }
+        
+        final Hash128CacheKey finish() {
+            long h1 = this.h1;
+            long h2 = this.h2;
+            long length = this.length;
+            
+            if (this.pending) {
+                long k1 = this.k1;
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+                length += 8;
+            }
+            
+            h1 ^= length;
+            h2 ^= length;
+
+            h1 += h2;
+            h2 += h1;
+
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+
+            h1 += h2;
+            h2 += h1;
+            
+            return new Hash128CacheKey(h1, h2);
+        }
+        
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+    
+    /**
+     * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator() 
+     */
+    public Murmur3CacheKeyGenerator() {
+    }
+
+    /**
+     * @see AbstractCacheKeyGenerator#AbstractCacheKeyGenerator(boolean, boolean) 
+     */
+    public Murmur3CacheKeyGenerator(boolean includeMethod, boolean includeParameterTypes) {
+        super(includeMethod, includeParameterTypes);
+    }
+
+    @Override
+    protected Murmur3Generator getGenerator(Object... data) {
+        return new Murmur3Generator();
+    }
+
+    @Override
+    protected Murmur3Generator copyGenerator(Murmur3Generator generator) {
+        final Murmur3Generator copy = new Murmur3Generator();
+        copy.h1 = generator.h1;
+        copy.h2 = generator.h2;
+        copy.k1 = generator.k1;
+        copy.pending = generator.pending;
+        copy.length = generator.length;
+        return copy;
+    }
+
+    @Override
+    protected Hash128CacheKey generateKey(Murmur3Generator generator) {
+        return generator.finish();
+    }
+    
+    @Override
+    protected void beginRecursion(Murmur3Generator generator, Object e) {
+        generator.update(BEGIN_MARKER);
+    }
+
+    @Override
+    protected void endRecursion(Murmur3Generator generator, Object e) {
+        generator.update(END_MARKER);
+    }
+
+    @Override
+    protected void appendGraphCycle(Murmur3Generator generator, Object o) {
+        generator.update(CYCLE_MARKER);
+    }
+
+    @Override
+    protected void appendNull(Murmur3Generator generator) {
+        generator.update(NULL_MARKER);
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, boolean[] a) {
+        generator.update(a.length);
+        for (final boolean element : a) {
+            generator.update(element ? 1231 : 1237);
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, byte[] a) {
+        generator.update(a.length);
+        
+        int i = 0;
+        for (; i + 8 <= a.length; i += 8) {
+            generator.update((a[i] & 0xffL)
+                    | ((a[i + 1] & 0xffL) << 8)
+                    | ((a[i + 2] & 0xffL) << 16)
+                    | ((a[i + 3] & 0xffL) << 24)
+                    | ((a[i + 4] & 0xffL) << 32)
+                    | ((a[i + 5] & 0xffL) << 40)
+                    | ((a[i + 6] & 0xffL) << 48)
+                    | ((a[i + 7] & 0xffL) << 56));
+        }
+        if (i < a.length) {
+            long k = 0;
+            for (int shift = 0; i < a.length; i++, shift += 8) {
+                k |= (a[i] & 0xffL) << shift;
+            }
+            generator.update(k);
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, char[] a) {
+        generator.update(a.length);
+        
+        int i = 0;
+        for (; i + 4 <= a.length; i += 4) {
+            generator.update(a[i] 
+                    | ((long)a[i + 1] << 16) 
+                    | ((long)a[i + 2] << 32) 
+                    | ((long)a[i + 3] << 48));
+        }
+        if (i < a.length) {
+            long k = 0;
+            for (int shift = 0; i < a.length; i++, shift += 16) {
+                k |= (long)a[i] << shift;
+            }
+            generator.update(k);
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, double[] a) {
+        generator.update(a.length);
+        for (final double element : a) {
+            generator.update(Double.doubleToLongBits(element));
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, float[] a) {
+        generator.update(a.length);
+        for (final float element : a) {
+            generator.update(Float.floatToIntBits(element));
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, int[] a) {
+        generator.update(a.length);
+        for (final int element : a) {
+            generator.update(element);
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, long[] a) {
+        generator.update(a.length);
+        for (final long element : a) {
+            generator.update(element);
+        }
+    }
+
+    @Override
+    protected void append(Murmur3Generator generator, short[] a) {
+        generator.update(a.length);
+        for (final short element : a) {
+            generator.update(element);
+        }
+    }
+
+    @Override
+    protected void appendHash(Murmur3Generator generator, Object e) {
+        if (e instanceof String) {
+            generator.update((String)e);
+        }
+        else if (e instanceof Long) {
+            generator.update(((Long)e).longValue());
+        }
+        else if (e instanceof Integer) {
+            generator.update(((Integer)e).intValue());
+        }
+        else if (e instanceof Double) {
+            generator.update(Double.doubleToLongBits(((Double)e).doubleValue()));
+        }
+        else if (e instanceof Float) {
+            generator.update(Float.floatToIntBits(((Float)e).floatValue()));
+        }
+        else if (e instanceof Boolean) {
+            generator.update(((Boolean)e).booleanValue() ? 1231 : 1237);
+        }
+        else if (e instanceof Character) {
+            generator.update(((Character)e).charValue());
+        }
+        else if (e instanceof Short) {
+            generator.update(((Short)e).shortValue());
+        }
+        else if (e instanceof Byte) {
+            generator.update(((Byte)e).byteValue());
+        }
+        else {
+            generator.update(e.hashCode());
+        }
+    }
+}
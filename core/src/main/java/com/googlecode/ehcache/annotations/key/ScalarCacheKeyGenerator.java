@@ -0,0 +1,124 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Wraps a {@link AbstractDeepCacheKeyGenerator} for a method whose key parameters are all {@link #isScalarType(Class) scalar}.
+ * The generated keys are identical to the ones the wrapped generator creates, only the generic deep inspection is
+ * skipped since none of the arguments can contain nested data.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class ScalarCacheKeyGenerator<T extends Serializable> implements CacheKeyGenerator<T> {
+    private static final Set<Class<?>> SPECIALIZABLE_GENERATORS = Collections.unmodifiableSet(new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            ArrayCacheKeyGenerator.class, HashCodeCacheKeyGenerator.class, ListCacheKeyGenerator.class, 
+            MessageDigestCacheKeyGenerator.class, Murmur3CacheKeyGenerator.class, StringCacheKeyGenerator.class)));
+    
+    /**
+     * Returns true if the generator can be wrapped for scalar methods. Only the built-in generators are, subclasses
+     * may override {@link AbstractCacheKeyGenerator#generateKey(MethodInvocation)} or the methods it calls, which
+     * the scalar path does not go through.
+     */
+    public static boolean isSpecializable(CacheKeyGenerator<?> cacheKeyGenerator) {
+        return cacheKeyGenerator != null && SPECIALIZABLE_GENERATORS.contains(cacheKeyGenerator.getClass());
+    }
+    
+    /**
+     * Returns true if every value assignable to the type is appended to a key as-is by {@link AbstractDeepCacheKeyGenerator},
+     * which is the case for primitives, their wrappers, {@link String}, {@link Class} and enums.
+     */
+    public static boolean isScalarType(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        
+        if (type == String.class || type == Class.class || type == Boolean.class || type == Character.class || type == Byte.class
+                || type == Short.class || type == Integer.class || type == Long.class || type == Float.class || type == Double.class) {
+            return true;
+        }
+        
+        //An enum could be iterable which would be walked by the deep generator
+        return type.isEnum() && !Iterable.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type) && !Map.Entry.class.isAssignableFrom(type);
+    }
+    
+    private final AbstractDeepCacheKeyGenerator<?, T> cacheKeyGenerator;
+
+    public ScalarCacheKeyGenerator(AbstractDeepCacheKeyGenerator<?, T> cacheKeyGenerator) {
+        this.cacheKeyGenerator = cacheKeyGenerator;
+    }
+
+    /**
+     * @return The wrapped generator
+     */
+    public AbstractDeepCacheKeyGenerator<?, T> getCacheKeyGenerator() {
+        return this.cacheKeyGenerator;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.key.CacheKeyGenerator#generateKey(org.aopalliance.intercept.MethodInvocation)
+     */
+    public T generateKey(MethodInvocation methodInvocation) {
+        return this.cacheKeyGenerator.generateScalarKey(methodInvocation);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.key.CacheKeyGenerator#generateKey(java.lang.Object[])
+     */
+    public T generateKey(Object... data) {
+        return this.cacheKeyGenerator.generateKey(data);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((cacheKeyGenerator == null) ? 0 : cacheKeyGenerator.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ScalarCacheKeyGenerator<?> other = (ScalarCacheKeyGenerator<?>) obj;
+        if (cacheKeyGenerator == null) {
+            if (other.cacheKeyGenerator != null)
+                return false;
+        }
+        else if (!cacheKeyGenerator.equals(other.cacheKeyGenerator))
+            return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ScalarCacheKeyGenerator [cacheKeyGenerator=" + cacheKeyGenerator + "]";
+    }
+}
@@ -16,13 +16,17 @@
 package com.googlecode.ehcache.annotations.key;
 
 import java.io.Serializable;
+import java.lang.reflect.Constructor;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.factory.BeanFactory;
@@ -34,12 +38,20 @@ import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.MethodExecutor;
 import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
@@ -54,7 +66,8 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
  * 	public String get(MyModel model) {
  * </pre>
  * 
- * The SpEL {@link EvaluationContext} has three variables registered on it:
+ * The root object of the SpEL {@link EvaluationContext} is an {@link EvaluationRoot} which has three properties, each
+ * is also registered as a variable:
  * <ul>
  *  <li><b>#invocation</b> - The {@link MethodInvocation} that is being cached</li>
  *  <li><b>#args</b> - Shortcut to the Object[] returned by {@link MethodInvocation#getArguments()}</li>
@@ -72,9 +85,36 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
  *      </ul>
  * </ul> 
  * 
+ * The bean resolver, method resolvers and other parts of the {@link EvaluationContext} that do not change between
+ * invocations are created once and shared, only the small per invocation root object is created for each key. On
+ * Spring 4.1 and later the expression is compiled by the SpEL compiler, see {@link #setCompilerMode(String)}.
+ * 
  * @author Timothy Freyne
  */
 public class SpELCacheKeyGenerator implements CacheKeyGenerator<Serializable>, BeanFactoryAware, InitializingBean, ReflectionHelperAware {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpELCacheKeyGenerator.class);
+    
+    private static final Class<?> SPEL_COMPILER_MODE_CLASS;
+    private static final Constructor<SpelParserConfiguration> SPEL_COMPILER_CONFIGURATION_CONSTRUCTOR;
+    static {
+        //Use local variables so that the static class variables can be final
+        Class<?> spelCompilerModeClass = null;
+        Constructor<SpelParserConfiguration> spelCompilerConfigurationConstructor = null;
+        try {
+            spelCompilerModeClass = Class.forName("org.springframework.expression.spel.SpelCompilerMode");
+            spelCompilerConfigurationConstructor = SpelParserConfiguration.class.getConstructor(spelCompilerModeClass, ClassLoader.class);
+            
+            LOGGER.debug("Found Spring 4.1 SpelCompilerMode, SpEL key expressions will be compiled");
+        }
+        catch (Exception e) {
+            //Ignore, assume we're running on a Spring version without the SpEL compiler
+            spelCompilerModeClass = null;
+            LOGGER.debug("Could not find Spring 4.1 SpelCompilerMode, SpEL key expressions will be interpreted");
+        }
+        
+        SPEL_COMPILER_MODE_CLASS = spelCompilerModeClass;
+        SPEL_COMPILER_CONFIGURATION_CONSTRUCTOR = spelCompilerConfigurationConstructor;
+    }
     
     private static final Map<String, Class<?>> DEFAULT_KEY_GENERATORS;
     static {
@@ -88,25 +128,53 @@ public class SpELCacheKeyGenerator implements CacheKeyGenerator<Serializable>, B
         DEFAULT_KEY_GENERATORS = Collections.unmodifiableMap(keyGenerators);
     }
     
-    private final ExpressionParser expressionParser = new SpelExpressionParser();
-
     private final KeyGeneratorMethodResolver methodResolver = new KeyGeneratorMethodResolver();
     private final Object keyCallbackObject = new Object();
+    //Invocation independent part of the evaluation context, only read after configuration
+    private final StandardEvaluationContext sharedEvaluationContext = new StandardEvaluationContext();
+    
+    private ExpressionParser expressionParser = createExpressionParser("MIXED");
     
     //Used to create auto-registered key generators for function calls
     private DefaultListableBeanFactory cacheKeyBeanFactory;
     private Map<String, CacheKeyGenerator<Serializable>> registeredKeyGenerators;
     private Map<String, MethodExecutor> keyGeneratorMethodExecutors;
+	private String expressionString;
 	private Expression expression;
 	private BeanFactory beanFactory;
 	private ReflectionHelper reflectionHelper;
+	
+	public SpELCacheKeyGenerator() {
+	    this.sharedEvaluationContext.addMethodResolver(this.methodResolver);
+	    
+	    //Initialize the lazily created parts of the context now so that concurrent evaluations only ever read it
+	    this.sharedEvaluationContext.getConstructorResolvers();
+	    this.sharedEvaluationContext.getPropertyAccessors();
+	    this.sharedEvaluationContext.getTypeLocator();
+	    this.sharedEvaluationContext.getTypeConverter();
+	}
 
 	/**
 	 * The SpEL Expression evaluated to generate the cache key. The expression must return a {@link Serializable} object
 	 */
 	public void setExpression(String expression) {
+	    this.expressionString = expression;
 	    this.expression = parseExpression(expression);
 	}
+	
+	/**
+	 * The SpEL compiler mode, one of the names of the Spring 4.1 SpelCompilerMode enum: OFF, IMMEDIATE or MIXED. With MIXED
+	 * the expression is compiled after it has been interpreted a few times and falls back to interpretation if the
+	 * compiled form fails. Ignored on Spring versions without the SpEL compiler.
+	 * 
+	 * @param compilerMode Defaults to MIXED
+	 */
+	public void setCompilerMode(String compilerMode) {
+	    this.expressionParser = createExpressionParser(compilerMode);
+	    if (this.expressionString != null) {
+	        this.expression = parseExpression(this.expressionString);
+	    }
+	}
     
     /**
      * A Map of {@link CacheKeyGenerator}s to register as functions on the #key object in the SpEL {@link EvaluationContext}.
@@ -123,6 +191,7 @@ public class SpELCacheKeyGenerator implements CacheKeyGenerator<Serializable>, B
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
         this.beanFactory = beanFactory;
         this.cacheKeyBeanFactory = new DefaultListableBeanFactory(this.beanFactory);
+        this.sharedEvaluationContext.setBeanResolver(new BeanFactoryResolver(this.beanFactory));
     }
 
     public void afterPropertiesSet() throws Exception {
@@ -208,7 +277,36 @@ public class SpELCacheKeyGenerator implements CacheKeyGenerator<Serializable>, B
 	    final EvaluationContext evaluationContext = getEvaluationContext(null, data);
 	    return this.expression.getValue(evaluationContext, Serializable.class);
 	}
+    
+    /**
+     * Create a {@link CacheKeyGenerator} for another expression. The expression is parsed once and evaluated with
+     * the same shared context and registered key generators as this generator's expression, no bean is created
+     * for it.
+     * 
+     * @param expression The SpEL Expression evaluated to generate the cache key, must return a {@link Serializable} object
+     */
+    public CacheKeyGenerator<Serializable> createCacheKeyGenerator(String expression) {
+        return new ExpressionCacheKeyGenerator(parseExpression(expression));
+    }
 
+    /**
+     * Create the parser used by {@link #parseExpression(String)}, configuring the SpEL compiler if it is available
+     */
+    private static ExpressionParser createExpressionParser(String compilerMode) {
+        if (SPEL_COMPILER_CONFIGURATION_CONSTRUCTOR == null) {
+            return new SpelExpressionParser();
+        }
+        
+        try {
+            final Object spelCompilerMode = SPEL_COMPILER_MODE_CLASS.getMethod("valueOf", String.class).invoke(null, compilerMode);
+            final SpelParserConfiguration configuration = SPEL_COMPILER_CONFIGURATION_CONSTRUCTOR.newInstance(spelCompilerMode, SpELCacheKeyGenerator.class.getClassLoader());
+            return new SpelExpressionParser(configuration);
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException("Failed to configure SpEL compiler mode '" + compilerMode + "'", e);
+        }
+    }
+    
     /**
      * Parse the specified String into a SpEL Expression
      */
@@ -220,13 +318,147 @@ public class SpELCacheKeyGenerator implements CacheKeyGenerator<Serializable>, B
      * Get the {@link EvaluationContext} to use to evaluate the configured {@link Expression}
      */
     protected EvaluationContext getEvaluationContext(MethodInvocation methodInvocation, Object... args) {
-        final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
-	    evaluationContext.setBeanResolver(new BeanFactoryResolver(this.beanFactory));
-	    evaluationContext.setVariable("invocation", methodInvocation);
-	    evaluationContext.setVariable("args", args);
-	    evaluationContext.setVariable("key", keyCallbackObject);
-	    evaluationContext.addMethodResolver(this.methodResolver);
-        return evaluationContext;
+        return new InvocationEvaluationContext(this.sharedEvaluationContext, new EvaluationRoot(methodInvocation, args, this.keyCallbackObject));
+    }
+    
+    /**
+     * Root object of the expression evaluation, holds the state of a single invocation.
+     */
+    public static final class EvaluationRoot {
+        private final MethodInvocation invocation;
+        private final Object[] args;
+        private final Object key;
+        
+        private EvaluationRoot(MethodInvocation invocation, Object[] args, Object key) {
+            this.invocation = invocation;
+            this.args = args;
+            this.key = key;
+        }
+
+        /**
+         * @return The {@link MethodInvocation} that is being cached, null if the key is generated from an Object[]
+         */
+        public MethodInvocation getInvocation() {
+            return this.invocation;
+        }
+
+        /**
+         * @return The arguments of the invocation
+         */
+        public Object[] getArgs() {
+            return this.args;
+        }
+
+        /**
+         * @return The object the registered key generators are available as functions on
+         */
+        public Object getKey() {
+            return this.key;
+        }
+    }
+    
+    /**
+     * Per invocation {@link EvaluationContext}, resolves the invocation variables from the {@link EvaluationRoot} and
+     * delegates everything else to the shared context. Variables set during evaluation are only visible to this invocation.
+     */
+    private static final class InvocationEvaluationContext implements EvaluationContext {
+        private final EvaluationContext sharedContext;
+        private final EvaluationRoot root;
+        private final TypedValue rootObject;
+        private Map<String, Object> variables;
+        
+        private InvocationEvaluationContext(EvaluationContext sharedContext, EvaluationRoot root) {
+            this.sharedContext = sharedContext;
+            this.root = root;
+            this.rootObject = new TypedValue(root);
+        }
+
+        public TypedValue getRootObject() {
+            return this.rootObject;
+        }
+
+        public Object lookupVariable(String name) {
+            if (this.variables != null && this.variables.containsKey(name)) {
+                return this.variables.get(name);
+            }
+            if ("invocation".equals(name)) {
+                return this.root.invocation;
+            }
+            if ("args".equals(name)) {
+                return this.root.args;
+            }
+            if ("key".equals(name)) {
+                return this.root.key;
+            }
+            return this.sharedContext.lookupVariable(name);
+        }
+
+        public void setVariable(String name, Object value) {
+            if (this.variables == null) {
+                this.variables = new HashMap<String, Object>();
+            }
+            this.variables.put(name, value);
+        }
+
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return this.sharedContext.getConstructorResolvers();
+        }
+
+        public List<MethodResolver> getMethodResolvers() {
+            return this.sharedContext.getMethodResolvers();
+        }
+
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return this.sharedContext.getPropertyAccessors();
+        }
+
+        public TypeLocator getTypeLocator() {
+            return this.sharedContext.getTypeLocator();
+        }
+
+        public TypeConverter getTypeConverter() {
+            return this.sharedContext.getTypeConverter();
+        }
+
+        public TypeComparator getTypeComparator() {
+            return this.sharedContext.getTypeComparator();
+        }
+
+        public OperatorOverloader getOperatorOverloader() {
+            return this.sharedContext.getOperatorOverloader();
+        }
+
+        public BeanResolver getBeanResolver() {
+            return this.sharedContext.getBeanResolver();
+        }
+    }
+    
+    /**
+     * Generator for an expression created by {@link SpELCacheKeyGenerator#createCacheKeyGenerator(String)}
+     */
+    private final class ExpressionCacheKeyGenerator implements CacheKeyGenerator<Serializable> {
+        private final Expression expression;
+
+        private ExpressionCacheKeyGenerator(Expression expression) {
+            this.expression = expression;
+        }
+
+        public Serializable generateKey(MethodInvocation methodInvocation) {
+            final Object[] arguments = methodInvocation.getArguments();
+            
+            final EvaluationContext evaluationContext = getEvaluationContext(methodInvocation, arguments);
+            return this.expression.getValue(evaluationContext, Serializable.class);
+        }
+
+        public Serializable generateKey(Object... data) {
+            final EvaluationContext evaluationContext = getEvaluationContext(null, data);
+            return this.expression.getValue(evaluationContext, Serializable.class);
+        }
+
+        @Override
+        public String toString() {
+            return "ExpressionCacheKeyGenerator [expression=" + this.expression.getExpressionString() + "]";
+        }
     }
     
     /**
@@ -52,6 +52,14 @@ public class StringCacheKeyGenerator extends AbstractDeepCacheKeyGenerator<Strin
         return new StringGenerator();
     }
 
+    @Override
+    protected StringGenerator copyGenerator(StringGenerator generator) {
+        final StringGenerator copy = new StringGenerator();
+        copy.builder.append(generator.builder);
+        copy.depth = generator.depth;
+        return copy;
+    }
+
     @Override
     protected String generateKey(StringCacheKeyGenerator.StringGenerator generator) {
         return generator.builder.toString();
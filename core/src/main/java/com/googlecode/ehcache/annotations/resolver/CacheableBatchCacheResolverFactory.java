@@ -0,0 +1,35 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.resolver;
+
+import java.lang.reflect.Method;
+
+import com.googlecode.ehcache.annotations.CacheableBatch;
+
+/**
+ * Optional extension of {@link CacheResolverFactory} for factories that resolve the caches of {@link CacheableBatch}
+ * methods. Factories that do not implement it have {@link CacheableBatch#cacheName()} looked up directly in the
+ * CacheManager.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface CacheableBatchCacheResolverFactory extends CacheResolverFactory {
+    /**
+     * Get a resolver for the specified annotation and annotated method
+     */
+    public CacheableCacheResolver getCacheResolver(CacheableBatch cacheableBatch, Method method);
+}
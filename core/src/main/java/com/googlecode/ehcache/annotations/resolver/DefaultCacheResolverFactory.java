@@ -36,8 +36,10 @@ import org.springframework.util.StringUtils;
 
 import com.googlecode.ehcache.annotations.CacheNotFoundException;
 import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.CacheableBatch;
 import com.googlecode.ehcache.annotations.DecoratedCacheType;
 import com.googlecode.ehcache.annotations.RefreshingCacheEntryFactory;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
 import com.googlecode.ehcache.annotations.RefreshingSelfPopulatingCache;
 import com.googlecode.ehcache.annotations.SelfPopulatingCacheScope;
 import com.googlecode.ehcache.annotations.TriggersRemove;
@@ -50,7 +52,7 @@ import com.googlecode.ehcache.annotations.support.TaskSchedulerAdapter;
  * @author Eric Dalquist
  * @version $Revision$
  */
-public class DefaultCacheResolverFactory implements CacheResolverFactory {
+public class DefaultCacheResolverFactory implements CacheableBatchCacheResolverFactory {
     /**
      * Logger available to subclasses.
      */
@@ -63,6 +65,7 @@ public class DefaultCacheResolverFactory implements CacheResolverFactory {
     private SelfPopulatingCacheScope selfPopulatingCacheScope = SelfPopulatingCacheScope.SHARED;
     private TaskSchedulerAdapter scheduler;
     private SchedulingTaskExecutor executor;
+    private CacheOperationListener cacheOperationListener;
     
     public DefaultCacheResolverFactory(CacheManager cacheManager) {
         this.cacheManager = cacheManager;
@@ -79,6 +82,13 @@ public class DefaultCacheResolverFactory implements CacheResolverFactory {
     public void setExecutor(SchedulingTaskExecutor executor) {
         this.executor = executor;
     }
+    
+    /**
+     * @param cacheOperationListener Listener notified of element refreshes by {@link RefreshingSelfPopulatingCache}s
+     */
+    public void setCacheOperationListener(CacheOperationListener cacheOperationListener) {
+        this.cacheOperationListener = cacheOperationListener;
+    }
 
     public boolean isCreateCaches() {
         return this.createCaches;
@@ -142,6 +152,14 @@ public class DefaultCacheResolverFactory implements CacheResolverFactory {
         return new SingletonTriggersRemoveCacheResolver(caches);
     }
 
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.CacheableBatchCacheResolverFactory#getCacheResolver(com.googlecode.ehcache.annotations.CacheableBatch, java.lang.reflect.Method)
+     */
+    public CacheableCacheResolver getCacheResolver(CacheableBatch cacheableBatch, Method method) {
+        final Ehcache cache = this.getCache(cacheableBatch.cacheName());
+        return new SingletonCacheableCacheResolver(cache, null);
+    }
+
     protected Ehcache getCache(String cacheName) {
         final CacheManager cacheManager = this.getCacheManager();
         
@@ -219,7 +237,9 @@ public class DefaultCacheResolverFactory implements CacheResolverFactory {
         switch (type) {
             case REFRESHING_SELF_POPULATING_CACHE: {
                 final RefreshingCacheEntryFactory cacheEntryFactory = new RefreshingCacheEntryFactory();
-                selfPopulatingCache = new RefreshingSelfPopulatingCache(cache, cacheEntryFactory, scheduler, executor, refreshinterval);
+                final RefreshingSelfPopulatingCache refreshingCache = new RefreshingSelfPopulatingCache(cache, cacheEntryFactory, scheduler, executor, refreshinterval);
+                refreshingCache.setCacheOperationListener(this.cacheOperationListener);
+                selfPopulatingCache = refreshingCache;
                 invocationLocal = cacheEntryFactory.entryFactory;
                 break;
             }
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.resolver;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+
+import org.springframework.core.task.TaskExecutor;
+
+import com.googlecode.ehcache.annotations.GenerationalCache;
+
+/**
+ * Wraps caches in a {@link GenerationalCache} so that {@link com.googlecode.ehcache.annotations.TriggersRemove#removeAll()}
+ * only increments a per-cache generation counter instead of clearing every entry of the cache. Useful for
+ * large caches where a full removeAll blocks callers for too long, at the cost of the old entries occupying
+ * the cache until they are evicted or swept.
+ * <p>
+ * Every annotation referencing the same cache name shares a single {@link GenerationalCache}. By default every
+ * cache is generational, {@link #setCacheNames(Set)} limits it to the listed caches. Use it by referencing it
+ * from the <code>default-cache-resolver-factory</code> attribute of <code>annotation-driven</code>.
+ * <p>
+ * Replicated and clustered caches are never made generational, the generation is local to a single JVM so a
+ * removeAll would leave the old entries reachable on the other nodes. A warning is logged and the cache is used
+ * as-is.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class GenerationalCacheResolverFactory extends DefaultCacheResolverFactory {
+    private final ConcurrentMap<String, GenerationalCache> generationalCaches = new ConcurrentHashMap<String, GenerationalCache>();
+    private Set<String> cacheNames = Collections.emptySet();
+    private TaskExecutor sweepExecutor;
+
+    public GenerationalCacheResolverFactory(CacheManager cacheManager) {
+        super(cacheManager);
+    }
+    
+    /**
+     * @param cacheNames The names of the caches to make generational, an empty set makes every cache generational
+     */
+    public void setCacheNames(Set<String> cacheNames) {
+        this.cacheNames = cacheNames == null ? Collections.<String>emptySet() : new HashSet<String>(cacheNames);
+    }
+    
+    /**
+     * @param sweepExecutor Executor used to remove the entries of old generations after a generation change, if
+     * not set the old entries are left to the eviction and expiry policies of the cache
+     */
+    public void setSweepExecutor(TaskExecutor sweepExecutor) {
+        this.sweepExecutor = sweepExecutor;
+    }
+    
+    /**
+     * @return The generational decorator for the named cache, null if it hasn't been resolved or isn't generational
+     */
+    public GenerationalCache getGenerationalCache(String cacheName) {
+        return this.generationalCaches.get(cacheName);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.DefaultCacheResolverFactory#getCache(java.lang.String)
+     */
+    @Override
+    protected Ehcache getCache(String cacheName) {
+        if (!this.cacheNames.isEmpty() && !this.cacheNames.contains(cacheName)) {
+            return super.getCache(cacheName);
+        }
+        
+        GenerationalCache generationalCache = this.generationalCaches.get(cacheName);
+        if (generationalCache == null) {
+            final Ehcache cache = super.getCache(cacheName);
+            if (GenerationalCache.isDistributed(cache)) {
+                this.logger.warn("Cache '{}' is replicated or clustered and will not be made generational, removeAll will clear it instead", cacheName);
+                return cache;
+            }
+            
+            generationalCache = this.createGenerationalCache(cache);
+            
+            //Handle concurrent creation, the first decorator put in the map wins
+            final GenerationalCache existing = this.generationalCaches.putIfAbsent(cacheName, generationalCache);
+            if (existing != null) {
+                generationalCache = existing;
+            }
+        }
+        
+        return generationalCache;
+    }
+    
+    /**
+     * Create the generational decorator for a cache
+     */
+    protected GenerationalCache createGenerationalCache(Ehcache cache) {
+        return new GenerationalCache(cache, this.sweepExecutor);
+    }
+}
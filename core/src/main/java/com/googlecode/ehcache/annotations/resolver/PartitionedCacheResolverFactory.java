@@ -0,0 +1,226 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.resolver;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.StringUtils;
+
+import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.CacheableBatch;
+import com.googlecode.ehcache.annotations.DecoratedCacheType;
+import com.googlecode.ehcache.annotations.TriggersRemove;
+
+/**
+ * Backs each logical cache name with several physical caches, routing every key to one of them by its
+ * hash code. Spreading a hot cache over partitions reduces contention on the cache's internal locks and,
+ * for self-populating caches, on the lock stripes of the {@link net.sf.ehcache.constructs.blocking.BlockingCache}.
+ * <p>
+ * The partitions of cache <code>foo</code> are named <code>foo-0</code> to <code>foo-(n-1)</code>. Partitions
+ * that already exist in the {@link CacheManager} are used as-is, missing partitions are created from a copy of
+ * the configuration of <code>foo</code> with the in-memory and on-disk capacities divided between the
+ * partitions. <code>foo</code> itself is only used as the configuration template.
+ * <p>
+ * Remove operations go to the partition of the key and remove all operations go to every partition. Use it
+ * by referencing it from the <code>default-cache-resolver-factory</code> attribute of <code>annotation-driven</code>.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class PartitionedCacheResolverFactory extends DefaultCacheResolverFactory {
+    private final ConcurrentMap<String, Ehcache[]> partitionedCaches = new ConcurrentHashMap<String, Ehcache[]>();
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    
+    public PartitionedCacheResolverFactory(CacheManager cacheManager) {
+        super(cacheManager);
+    }
+    
+    /**
+     * @param partitions The number of physical caches to back each logical cache with, defaults to the number of processors
+     */
+    public void setPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1: " + partitions);
+        }
+        this.partitions = partitions;
+    }
+
+    public int getPartitions() {
+        return this.partitions;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.DefaultCacheResolverFactory#getCacheResolver(com.googlecode.ehcache.annotations.Cacheable, java.lang.reflect.Method)
+     */
+    @Override
+    public CacheableCacheResolver getCacheResolver(Cacheable cacheable, Method method) {
+        if (this.partitions == 1) {
+            return super.getCacheResolver(cacheable, method);
+        }
+        
+        final Ehcache[] caches = this.getPartitionedCaches(cacheable.cacheName()).clone();
+        
+        ThreadLocal<MethodInvocation>[] entryFactories = null;
+        
+        final DecoratedCacheType decoratedCacheType = DecoratedCacheType.getDecoratedCacheType(cacheable, method);
+        if (decoratedCacheType == DecoratedCacheType.SELF_POPULATING_CACHE || decoratedCacheType == DecoratedCacheType.REFRESHING_SELF_POPULATING_CACHE) {
+            final int selfPopulatingTimeout = cacheable.selfPopulatingTimeout();
+            final long refreshInterval = cacheable.refreshInterval();
+            
+            //Generic arrays can't be created directly, the cast is safe as only ThreadLocal<MethodInvocation> instances are stored
+            @SuppressWarnings("unchecked")
+            final ThreadLocal<MethodInvocation>[] partitionEntryFactories = (ThreadLocal<MethodInvocation>[])new ThreadLocal<?>[caches.length];
+            for (int partition = 0; partition < caches.length; partition++) {
+                final SelfPopulatingCacheTracker selfPopulatingCacheTracker = 
+                    this.createSelfPopulatingCacheInternal(caches[partition], selfPopulatingTimeout, decoratedCacheType, refreshInterval);
+                
+                caches[partition] = selfPopulatingCacheTracker.selfPopulatingCache;
+                partitionEntryFactories[partition] = selfPopulatingCacheTracker.cacheEntryFactory;
+            }
+            entryFactories = partitionEntryFactories;
+        }
+        
+        final String exceptionCacheName = cacheable.exceptionCacheName();
+        if (StringUtils.hasLength(exceptionCacheName)) {
+            final Ehcache[] exceptionCaches = this.getPartitionedCaches(exceptionCacheName);
+            return new PartitionedCacheableCacheResolver(caches, entryFactories, exceptionCaches);
+        }
+        
+        return new PartitionedCacheableCacheResolver(caches, entryFactories, null);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.DefaultCacheResolverFactory#getCacheResolver(com.googlecode.ehcache.annotations.TriggersRemove, java.lang.reflect.Method)
+     */
+    @Override
+    public TriggersRemoveCacheResolver getCacheResolver(TriggersRemove triggersRemove, Method method) {
+        if (this.partitions == 1) {
+            return super.getCacheResolver(triggersRemove, method);
+        }
+        
+        final String[] cacheNames = triggersRemove.cacheName();
+        final List<Ehcache[]> caches = new ArrayList<Ehcache[]>(cacheNames.length);
+        for (final String cacheName : cacheNames) {
+            caches.add(this.getPartitionedCaches(cacheName));
+        }
+        
+        return new PartitionedTriggersRemoveCacheResolver(caches);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.DefaultCacheResolverFactory#getCacheResolver(com.googlecode.ehcache.annotations.CacheableBatch, java.lang.reflect.Method)
+     */
+    @Override
+    public CacheableCacheResolver getCacheResolver(CacheableBatch cacheableBatch, Method method) {
+        if (this.partitions == 1) {
+            return super.getCacheResolver(cacheableBatch, method);
+        }
+        
+        final Ehcache[] caches = this.getPartitionedCaches(cacheableBatch.cacheName());
+        return new PartitionedCacheableCacheResolver(caches, null, null);
+    }
+    
+    /**
+     * Name of a partition of the logical cache
+     */
+    protected String getPartitionName(String cacheName, int partition) {
+        return cacheName + "-" + partition;
+    }
+    
+    /**
+     * Gets the partitions for the logical cache, creating them if needed. The same partitions are returned
+     * for every annotation that uses the cache name so all of them route a key to the same physical cache.
+     */
+    protected final Ehcache[] getPartitionedCaches(String cacheName) {
+        Ehcache[] caches = this.partitionedCaches.get(cacheName);
+        if (caches != null) {
+            return caches;
+        }
+        
+        synchronized (this.partitionedCaches) {
+            caches = this.partitionedCaches.get(cacheName);
+            if (caches == null) {
+                caches = this.createPartitionedCaches(cacheName);
+                this.partitionedCaches.put(cacheName, caches);
+            }
+            return caches;
+        }
+    }
+
+    /**
+     * Creates or looks up the partitions for the logical cache
+     */
+    protected Ehcache[] createPartitionedCaches(String cacheName) {
+        final CacheManager cacheManager = this.getCacheManager();
+        final CacheConfiguration templateConfiguration = this.getCache(cacheName).getCacheConfiguration();
+        
+        final Ehcache[] caches = new Ehcache[this.partitions];
+        for (int partition = 0; partition < caches.length; partition++) {
+            final String partitionName = this.getPartitionName(cacheName, partition);
+            
+            Ehcache cache = cacheManager.getEhcache(partitionName);
+            if (cache == null) {
+                final CacheConfiguration partitionConfiguration = templateConfiguration.clone();
+                partitionConfiguration.setName(partitionName);
+                partitionConfiguration.setMaxElementsInMemory(this.divideCapacity(templateConfiguration.getMaxElementsInMemory()));
+                partitionConfiguration.setMaxElementsOnDisk(this.divideCapacity(templateConfiguration.getMaxElementsOnDisk()));
+                
+                this.logger.debug("Creating partition '{}' of cache '{}'", partitionName, cacheName);
+                cacheManager.addCache(new Cache(partitionConfiguration));
+                cache = cacheManager.getEhcache(partitionName);
+            }
+            
+            caches[partition] = cache;
+        }
+        
+        return caches;
+    }
+    
+    /**
+     * Splits a capacity between the partitions, 0 means unbounded and is left as-is
+     */
+    private int divideCapacity(int capacity) {
+        if (capacity <= 0) {
+            return capacity;
+        }
+        return Math.max(1, (capacity + this.partitions - 1) / this.partitions);
+    }
+    
+    /**
+     * @return The partition the key belongs to
+     */
+    static int getPartition(Object cacheKey, int partitions) {
+        if (cacheKey == null) {
+            return 0;
+        }
+        
+        //Spread the high bits down, keys like Integers only vary in the low bits
+        int h = cacheKey.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return (h & Integer.MAX_VALUE) % partitions;
+    }
+}
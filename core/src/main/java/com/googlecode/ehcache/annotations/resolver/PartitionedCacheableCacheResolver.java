@@ -0,0 +1,76 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.resolver;
+
+import java.io.Serializable;
+
+import net.sf.ehcache.Ehcache;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Resolver that routes each key to one of several partitions of a cache by the key's hash code.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ * @see PartitionedCacheResolverFactory
+ */
+public class PartitionedCacheableCacheResolver implements CacheableCacheResolver {
+    private final Ehcache[] caches;
+    private final ThreadLocal<MethodInvocation>[] selfPopulatingEntryFactories;
+    private final Ehcache[] exceptionCaches;
+    
+    /**
+     * @param caches The partitions of the cache
+     * @param selfPopulatingEntryFactories The self-populating entry factory for each partition, null if the caches are not self-populating
+     * @param exceptionCaches The partitions of the exception cache, null if exceptions are not cached
+     */
+    public PartitionedCacheableCacheResolver(Ehcache[] caches, ThreadLocal<MethodInvocation>[] selfPopulatingEntryFactories, Ehcache[] exceptionCaches) {
+        if (selfPopulatingEntryFactories != null && selfPopulatingEntryFactories.length != caches.length) {
+            throw new IllegalArgumentException("There must be one self-populating entry factory per cache partition");
+        }
+        this.caches = caches;
+        this.selfPopulatingEntryFactories = selfPopulatingEntryFactories;
+        this.exceptionCaches = exceptionCaches;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver#resolveCache(java.io.Serializable, org.aopalliance.intercept.MethodInvocation)
+     */
+    public Ehcache resolveCache(Serializable cacheKey, MethodInvocation invocation) {
+        return this.caches[PartitionedCacheResolverFactory.getPartition(cacheKey, this.caches.length)];
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver#resolveSelfPopulatingCacheEntryFactory(net.sf.ehcache.Ehcache, java.io.Serializable, org.aopalliance.intercept.MethodInvocation)
+     */
+    public ThreadLocal<MethodInvocation> resolveSelfPopulatingCacheEntryFactory(Ehcache cache, Serializable cacheKey, MethodInvocation invocation) {
+        if (this.selfPopulatingEntryFactories == null) {
+            return null;
+        }
+        return this.selfPopulatingEntryFactories[PartitionedCacheResolverFactory.getPartition(cacheKey, this.caches.length)];
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver#resolveExceptionCache(java.io.Serializable, org.aopalliance.intercept.MethodInvocation, java.lang.Throwable)
+     */
+    public Ehcache resolveExceptionCache(Serializable cacheKey, MethodInvocation invocation, Throwable t) {
+        if (this.exceptionCaches == null) {
+            return null;
+        }
+        return this.exceptionCaches[PartitionedCacheResolverFactory.getPartition(cacheKey, this.exceptionCaches.length)];
+    }
+}
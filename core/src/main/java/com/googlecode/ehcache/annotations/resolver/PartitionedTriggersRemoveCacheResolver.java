@@ -0,0 +1,75 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.resolver;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.ehcache.Ehcache;
+
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Resolver that removes a key from the partition it belongs to in each cache, remove all operations
+ * go to every partition.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ * @see PartitionedCacheResolverFactory
+ */
+public class PartitionedTriggersRemoveCacheResolver implements TriggersRemoveCacheResolver {
+    private final Ehcache[][] caches;
+    private final Iterable<Ehcache> allCaches;
+    
+    /**
+     * @param caches The partitions of each cache to remove from
+     */
+    public PartitionedTriggersRemoveCacheResolver(Collection<Ehcache[]> caches) {
+        this.caches = caches.toArray(new Ehcache[caches.size()][]);
+        
+        final List<Ehcache> allCaches = new ArrayList<Ehcache>();
+        for (final Ehcache[] partitions : this.caches) {
+            Collections.addAll(allCaches, partitions);
+        }
+        this.allCaches = Collections.unmodifiableList(allCaches);
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver#resolveRemoveCaches(java.io.Serializable, org.aopalliance.intercept.MethodInvocation)
+     */
+    public Iterable<Ehcache> resolveRemoveCaches(Serializable cacheKey, MethodInvocation invocation) {
+        if (this.caches.length == 1) {
+            final Ehcache[] partitions = this.caches[0];
+            return Collections.singletonList(partitions[PartitionedCacheResolverFactory.getPartition(cacheKey, partitions.length)]);
+        }
+        
+        final List<Ehcache> removeCaches = new ArrayList<Ehcache>(this.caches.length);
+        for (final Ehcache[] partitions : this.caches) {
+            removeCaches.add(partitions[PartitionedCacheResolverFactory.getPartition(cacheKey, partitions.length)]);
+        }
+        return removeCaches;
+    }
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.resolver.TriggersRemoveCacheResolver#resolveRemoveAllCaches(org.aopalliance.intercept.MethodInvocation)
+     */
+    public Iterable<Ehcache> resolveRemoveAllCaches(MethodInvocation invocation) {
+        return this.allCaches;
+    }
+}
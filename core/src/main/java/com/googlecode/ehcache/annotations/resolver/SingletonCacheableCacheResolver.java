@@ -43,6 +43,27 @@ public class SingletonCacheableCacheResolver implements CacheableCacheResolver {
         this.selfPopulatingEntryFactory = selfPopulatingEntryFactory;
         this.exceptionCache = exceptionCache;
     }
+    
+    /**
+     * @return The cache returned for every invocation
+     */
+    public Ehcache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * @return The self-populating entry factory returned for every invocation, null if the cache is not self-populating
+     */
+    public ThreadLocal<MethodInvocation> getSelfPopulatingEntryFactory() {
+        return this.selfPopulatingEntryFactory;
+    }
+
+    /**
+     * @return The exception cache returned for every invocation, null if exceptions are not cached
+     */
+    public Ehcache getExceptionCache() {
+        return this.exceptionCache;
+    }
 
     /* (non-Javadoc)
      * @see com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver#resolveCache(java.io.Serializable, org.aopalliance.intercept.MethodInvocation)
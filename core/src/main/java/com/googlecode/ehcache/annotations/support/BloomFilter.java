@@ -0,0 +1,102 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe, lock free bloom filter over the {@link Object#hashCode()} of the added objects. Objects
+ * can only be added, never removed, so once an object has been added {@link #mightContain(Object)} will
+ * always return true for it.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class BloomFilter {
+    private static final int HASH_FUNCTIONS = 7;
+    private static final int BITS_PER_ELEMENT = 10;
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+
+    /**
+     * Creates a filter sized for roughly a 1% false positive rate at the expected number of elements
+     *
+     * @param expectedElements The number of elements the filter is expected to contain, must be greater than 0
+     */
+    public BloomFilter(int expectedElements) {
+        if (expectedElements <= 0) {
+            throw new IllegalArgumentException("expectedElements must be greater than 0");
+        }
+
+        final long bitCount = Math.min((long)expectedElements * BITS_PER_ELEMENT, Integer.MAX_VALUE - 63);
+        this.bits = new AtomicLongArray((int)((bitCount + 63) / 64));
+        this.bitCount = this.bits.length() * 64;
+    }
+
+    /**
+     * Adds the object to the filter
+     */
+    public void put(Object o) {
+        final int hash = o.hashCode();
+        final int h1 = mix(hash);
+        final int h2 = mix(h1 ^ hash) | 1;
+
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            final int index = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+            final int word = index >>> 6;
+            final long mask = 1L << index;
+
+            long current;
+            do {
+                current = this.bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!this.bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return false if the object has definitely never been added to the filter, true if it may have been.
+     */
+    public boolean mightContain(Object o) {
+        final int hash = o.hashCode();
+        final int h1 = mix(hash);
+        final int h2 = mix(h1 ^ hash) | 1;
+
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            final int index = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+            if ((this.bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * MurmurHash3 32bit finalizer, spreads poorly distributed hashCode implementations over all bits
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
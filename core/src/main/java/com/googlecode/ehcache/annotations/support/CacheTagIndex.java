@@ -0,0 +1,272 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListener;
+
+/**
+ * Secondary index of the keys in a cache by tag, used for {@link com.googlecode.ehcache.annotations.TriggersRemove#tags()}.
+ * Keys are added to the index when their value is cached and the index is registered as a listener on the cache
+ * so keys are dropped from it when they are removed, evicted or expired.
+ * <p>
+ * Keys are added after their value is put in the cache and are dropped by the cache's removal events, so a
+ * cached value is always reachable by its tags. Changes to the tags of a key are made while holding a lock for the
+ * key, a removal event only drops the tags the key had before the cache was checked for the key so it cannot drop
+ * the tags of a value that was cached and indexed again after the removal. A key removed or evicted between the
+ * put and the add is dropped with {@link #remove(Object, Set)} once the add finds it is no longer in the cache.
+ * Tags are compared using equals and hashCode.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class CacheTagIndex implements CacheEventListener {
+    private static final int KEY_LOCKS = 32;
+    
+    private final ConcurrentMap<Object, TaggedKeys> tagKeys = new ConcurrentHashMap<Object, TaggedKeys>();
+    private final ConcurrentMap<Object, Set<?>> keyTags = new ConcurrentHashMap<Object, Set<?>>();
+    private final Object[] keyLocks = new Object[KEY_LOCKS];
+    
+    public CacheTagIndex() {
+        for (int index = 0; index < this.keyLocks.length; index++) {
+            this.keyLocks[index] = new Object();
+        }
+    }
+    
+    /**
+     * Index the key under each of the tags, replacing any tags the key was previously indexed under
+     */
+    public void add(Object key, Set<?> tags) {
+        synchronized (this.getKeyLock(key)) {
+            final Set<?> previousTags = this.keyTags.put(key, tags);
+            if (previousTags != null) {
+                for (final Object previousTag : previousTags) {
+                    if (!tags.contains(previousTag)) {
+                        this.unlink(previousTag, key);
+                    }
+                }
+            }
+            
+            for (final Object tag : tags) {
+                this.link(tag, key);
+            }
+        }
+    }
+    
+    /**
+     * Drop the key from the index
+     */
+    public void remove(Object key) {
+        synchronized (this.getKeyLock(key)) {
+            final Set<?> tags = this.keyTags.remove(key);
+            if (tags != null) {
+                this.unlink(tags, key);
+            }
+        }
+    }
+    
+    /**
+     * Drop the key from the index only if it is still indexed by the {@link #add(Object, Set)} call that was
+     * passed the same tags instance, a later add of the key is left in the index even if its tags are equal.
+     */
+    public void remove(Object key, Set<?> tags) {
+        synchronized (this.getKeyLock(key)) {
+            if (this.keyTags.get(key) == tags) {
+                this.keyTags.remove(key);
+                this.unlink(tags, key);
+            }
+        }
+    }
+    
+    /**
+     * @return The keys that are tagged with the tag, empty if there are none.
+     */
+    public Collection<Object> getKeys(Object tag) {
+        final TaggedKeys taggedKeys = this.tagKeys.get(tag);
+        if (taggedKeys == null) {
+            return Collections.emptyList();
+        }
+        
+        synchronized (taggedKeys) {
+            return new ArrayList<Object>(taggedKeys.keys);
+        }
+    }
+    
+    /**
+     * @return The number of tags in the index
+     */
+    public int getTagCount() {
+        return this.tagKeys.size();
+    }
+    
+    /**
+     * @return The number of keys in the index
+     */
+    public int getKeyCount() {
+        return this.keyTags.size();
+    }
+    
+    /**
+     * Drop all tags and keys from the index
+     */
+    public void clear() {
+        this.keyTags.clear();
+        
+        final List<Object> tags = new ArrayList<Object>(this.tagKeys.keySet());
+        for (final Object tag : tags) {
+            final TaggedKeys taggedKeys = this.tagKeys.remove(tag);
+            if (taggedKeys != null) {
+                synchronized (taggedKeys) {
+                    taggedKeys.removed = true;
+                }
+            }
+        }
+    }
+    
+    private void link(Object tag, Object key) {
+        while (true) {
+            TaggedKeys taggedKeys = this.tagKeys.get(tag);
+            if (taggedKeys == null) {
+                final TaggedKeys newTaggedKeys = new TaggedKeys();
+                taggedKeys = this.tagKeys.putIfAbsent(tag, newTaggedKeys);
+                if (taggedKeys == null) {
+                    taggedKeys = newTaggedKeys;
+                }
+            }
+            
+            synchronized (taggedKeys) {
+                //Lost a race with the removal of the tag's last key, try again with a new set
+                if (!taggedKeys.removed) {
+                    taggedKeys.keys.add(key);
+                    return;
+                }
+            }
+        }
+    }
+    
+    private Object getKeyLock(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return this.keyLocks[hash & (KEY_LOCKS - 1)];
+    }
+    
+    /**
+     * Drop the key from the index if it is no longer in the cache, used for the cache's removal events
+     */
+    private void removeIfNotCached(Ehcache cache, Object key) {
+        //Read before checking the cache, tags added by a later put of the key must stay in the index
+        final Set<?> tags = this.keyTags.get(key);
+        if (tags != null && !cache.isKeyInCache(key)) {
+            this.remove(key, tags);
+        }
+    }
+    
+    private void unlink(Set<?> tags, Object key) {
+        for (final Object tag : tags) {
+            this.unlink(tag, key);
+        }
+    }
+    
+    private void unlink(Object tag, Object key) {
+        final TaggedKeys taggedKeys = this.tagKeys.get(tag);
+        if (taggedKeys == null) {
+            return;
+        }
+        
+        synchronized (taggedKeys) {
+            taggedKeys.keys.remove(key);
+            if (taggedKeys.keys.isEmpty() && !taggedKeys.removed) {
+                taggedKeys.removed = true;
+                this.tagKeys.remove(tag, taggedKeys);
+            }
+        }
+    }
+    
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementRemoved(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementRemoved(Ehcache cache, Element element) throws CacheException {
+        this.removeIfNotCached(cache, element.getObjectKey());
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementPut(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementPut(Ehcache cache, Element element) throws CacheException {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementUpdated(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementUpdated(Ehcache cache, Element element) throws CacheException {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementExpired(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementExpired(Ehcache cache, Element element) {
+        this.removeIfNotCached(cache, element.getObjectKey());
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementEvicted(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementEvicted(Ehcache cache, Element element) {
+        this.removeIfNotCached(cache, element.getObjectKey());
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyRemoveAll(net.sf.ehcache.Ehcache)
+     */
+    public void notifyRemoveAll(Ehcache cache) {
+        this.clear();
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#dispose()
+     */
+    public void dispose() {
+        this.clear();
+    }
+
+    /**
+     * The index belongs to a single cache and cannot be cloned
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException(CacheTagIndex.class.getName() + " belongs to a single cache and cannot be cloned");
+    }
+    
+    /**
+     * Keys with a tag, once removed from the index the instance is never used again
+     */
+    private static final class TaggedKeys {
+        private final Set<Object> keys = new HashSet<Object>();
+        private boolean removed = false;
+    }
+}
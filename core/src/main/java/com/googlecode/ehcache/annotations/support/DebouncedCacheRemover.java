@@ -0,0 +1,149 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.ehcache.Ehcache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues cache removals and performs them in the background once per window. Repeated removals of the
+ * same key and repeated removeAll calls on the same cache within a window result in a single removal, a
+ * pending removeAll also replaces any pending key removals for the cache.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class DebouncedCacheRemover {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DebouncedCacheRemover.class);
+    
+    private final ConcurrentMap<Ehcache, Boolean> pendingRemoveAlls = new ConcurrentHashMap<Ehcache, Boolean>();
+    private final ConcurrentMap<PendingRemove, Boolean> pendingRemoves = new ConcurrentHashMap<PendingRemove, Boolean>();
+    private final long window;
+    
+    /**
+     * @param scheduler Scheduler used to flush the queued removals
+     * @param window Time in milliseconds between flushes of the queued removals, must be greater than 0
+     */
+    public DebouncedCacheRemover(TaskSchedulerAdapter scheduler, long window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be greater than 0");
+        }
+        
+        this.window = window;
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                flush();
+            }
+        }, window);
+    }
+    
+    public long getWindow() {
+        return this.window;
+    }
+    
+    /**
+     * Queue the removal of a key from the cache
+     */
+    public void remove(Ehcache cache, Serializable key) {
+        this.pendingRemoves.put(new PendingRemove(cache, key), Boolean.TRUE);
+    }
+    
+    /**
+     * Queue the removal of all elements from the cache
+     */
+    public void removeAll(Ehcache cache) {
+        this.pendingRemoveAlls.put(cache, Boolean.TRUE);
+    }
+    
+    /**
+     * Perform all queued removals. Each queued removal is dequeued before it is performed so a removal
+     * queued while flushing is either performed by this flush or left for the next one.
+     */
+    public void flush() {
+        final Set<Ehcache> removeAllCaches = new HashSet<Ehcache>();
+        for (final Iterator<Ehcache> cacheItr = this.pendingRemoveAlls.keySet().iterator(); cacheItr.hasNext(); ) {
+            removeAllCaches.add(cacheItr.next());
+            cacheItr.remove();
+        }
+        
+        for (final Iterator<PendingRemove> removeItr = this.pendingRemoves.keySet().iterator(); removeItr.hasNext(); ) {
+            final PendingRemove pendingRemove = removeItr.next();
+            removeItr.remove();
+            
+            //Keys queued before the removeAll is performed don't need to be removed individually
+            if (removeAllCaches.contains(pendingRemove.cache)) {
+                continue;
+            }
+            
+            try {
+                pendingRemove.cache.remove(pendingRemove.key);
+            }
+            catch (RuntimeException e) {
+                LOGGER.error("Failed to remove key '" + pendingRemove.key + "' from cache '" + pendingRemove.cache.getName() + "'", e);
+            }
+        }
+        
+        for (final Ehcache cache : removeAllCaches) {
+            try {
+                cache.removeAll();
+            }
+            catch (RuntimeException e) {
+                LOGGER.error("Failed to remove all elements from cache '" + cache.getName() + "'", e);
+            }
+        }
+    }
+    
+    /**
+     * Key removal queued for a cache, caches are compared by identity
+     */
+    private static final class PendingRemove {
+        private final Ehcache cache;
+        private final Serializable key;
+        private final int hash;
+        
+        public PendingRemove(Ehcache cache, Serializable key) {
+            this.cache = cache;
+            this.key = key;
+            this.hash = 31 * System.identityHashCode(cache) + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PendingRemove)) {
+                return false;
+            }
+            final PendingRemove other = (PendingRemove) obj;
+            return this.cache == other.cache && this.key.equals(other.key);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListener;
+
+/**
+ * {@link BloomFilter} of the keys in an exception cache, used for {@link com.googlecode.ehcache.annotations.Cacheable#exceptionCacheKeyFilter()}.
+ * <p>
+ * A bloom filter cannot forget keys, so as exceptions expire and new keys are added its false positive rate
+ * would climb towards 1. To keep it useful the filter is rebuilt from the keys currently in the exception cache
+ * every time the number of keys added since the last rebuild reaches its capacity, and it is cleared when
+ * the exception cache is cleared. The filter is registered as a listener on the exception cache for the latter.
+ * <p>
+ * The capacity is the number of keys the filter is sized for at roughly a 1% false positive rate. It starts at
+ * the expected number of elements and grows to twice the number of keys found in the cache on a rebuild.
+ * A key added concurrently with a rebuild or clear may be dropped from the filter, the only effect of that
+ * is one cached exception being ignored and the method being invoked again.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class ExceptionKeyFilter implements CacheEventListener {
+    private final Ehcache exceptionCache;
+    private final int expectedElements;
+    private final AtomicInteger addedKeys = new AtomicInteger();
+    private volatile BloomFilter filter;
+    private volatile int capacity;
+    
+    /**
+     * @param exceptionCache The exception cache the filter tracks the keys of
+     * @param expectedElements The initial and minimum capacity of the filter, must be greater than 0
+     */
+    public ExceptionKeyFilter(Ehcache exceptionCache, int expectedElements) {
+        if (expectedElements <= 0) {
+            throw new IllegalArgumentException("expectedElements must be greater than 0");
+        }
+        
+        this.exceptionCache = exceptionCache;
+        this.expectedElements = expectedElements;
+        this.capacity = expectedElements;
+        this.filter = new BloomFilter(expectedElements);
+    }
+    
+    /**
+     * Adds the key to the filter, rebuilding it if it has reached its capacity
+     */
+    public void put(Object key) {
+        //Rebuild first, the key is usually not in the exception cache yet and would be dropped by the rebuild
+        if (this.addedKeys.incrementAndGet() >= this.capacity) {
+            this.rebuildIfFull();
+        }
+        
+        this.filter.put(key);
+    }
+    
+    /**
+     * @see BloomFilter#mightContain(Object)
+     */
+    public boolean mightContain(Object key) {
+        return this.filter.mightContain(key);
+    }
+    
+    /**
+     * @return The number of keys the filter is currently sized for
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+    
+    private synchronized void rebuildIfFull() {
+        //Threads that reached the capacity at the same time only rebuild once
+        if (this.addedKeys.get() >= this.capacity) {
+            this.rebuild();
+        }
+    }
+    
+    /**
+     * Replace the filter with one containing only the keys currently in the exception cache
+     */
+    public synchronized void rebuild() {
+        final List<?> keys = this.exceptionCache.getKeys();
+        final int capacity = (int)Math.min(Math.max(this.expectedElements, keys.size() * 2L), Integer.MAX_VALUE);
+        
+        final BloomFilter filter = new BloomFilter(capacity);
+        for (final Object key : keys) {
+            filter.put(key);
+        }
+        
+        this.filter = filter;
+        this.capacity = capacity;
+        this.addedKeys.set(keys.size());
+    }
+    
+    /**
+     * Replace the filter with an empty one
+     */
+    public synchronized void clear() {
+        this.filter = new BloomFilter(this.expectedElements);
+        this.capacity = this.expectedElements;
+        this.addedKeys.set(0);
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementRemoved(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementRemoved(Ehcache cache, Element element) throws CacheException {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementPut(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementPut(Ehcache cache, Element element) throws CacheException {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementUpdated(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementUpdated(Ehcache cache, Element element) throws CacheException {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementExpired(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementExpired(Ehcache cache, Element element) {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyElementEvicted(net.sf.ehcache.Ehcache, net.sf.ehcache.Element)
+     */
+    public void notifyElementEvicted(Ehcache cache, Element element) {
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#notifyRemoveAll(net.sf.ehcache.Ehcache)
+     */
+    public void notifyRemoveAll(Ehcache cache) {
+        this.clear();
+    }
+
+    /* (non-Javadoc)
+     * @see net.sf.ehcache.event.CacheEventListener#dispose()
+     */
+    public void dispose() {
+        this.clear();
+    }
+
+    /**
+     * The filter belongs to a single cache and cannot be cloned
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException(ExceptionKeyFilter.class.getName() + " belongs to a single cache and cannot be cloned");
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe, lock free histogram of durations in nanoseconds. Durations are counted in power of two
+ * buckets, bucket <code>i</code> counting durations from <code>2^(i-1)</code> up to <code>2^i - 1</code>
+ * nanoseconds, so percentiles are accurate to within a factor of two. Like {@link StripedCounter} the
+ * buckets are striped by thread to avoid contention between threads recording durations.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class LatencyHistogram {
+    /**
+     * Number of buckets, enough to cover every non-negative long
+     */
+    public static final int BUCKETS = 64;
+    
+    /**
+     * Buckets for each stripe are contiguous, each stripe spans several cache lines so threads
+     * recording on different stripes do not contend
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(StripedCounter.STRIPES * BUCKETS);
+    private final StripedCounter total = new StripedCounter();
+    
+    /**
+     * Records a duration, negative durations are recorded as 0
+     * 
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        
+        //0 goes in bucket 0, the largest longs have 1 leading zero and go in bucket 63
+        final int bucket = BUCKETS - Long.numberOfLeadingZeros(nanos);
+        this.buckets.incrementAndGet(StripedCounter.stripe() * BUCKETS + bucket);
+        this.total.add(nanos);
+    }
+    
+    /**
+     * @return The number of durations recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+    
+    /**
+     * @return The sum of the recorded durations in nanoseconds
+     */
+    public long getTotal() {
+        return this.total.get();
+    }
+    
+    /**
+     * @return The mean of the recorded durations in nanoseconds, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        final long count = this.getCount();
+        if (count == 0) {
+            return 0;
+        }
+        return (double)this.getTotal() / count;
+    }
+    
+    /**
+     * @return The number of durations recorded in each bucket, see the class documentation for the bucket bounds
+     */
+    public long[] getBuckets() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < this.buckets.length(); i++) {
+            counts[i % BUCKETS] += this.buckets.get(i);
+        }
+        return counts;
+    }
+    
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return Upper bound in nanoseconds of the bucket containing the percentile, 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        
+        final long[] counts = this.getBuckets();
+        long count = 0;
+        for (final long bucketCount : counts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        
+        final long rank = Math.max(1, (long)Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return getUpperBound(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+    
+    /**
+     * @return The largest duration in nanoseconds counted in the bucket
+     */
+    public static long getUpperBound(int bucket) {
+        if (bucket >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+    
+    /**
+     * Clears all recorded durations, durations recorded concurrently with the reset may or may not be kept
+     */
+    public void reset() {
+        for (int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, 0);
+        }
+        this.total.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram [count=" + this.getCount() + ", mean=" + this.getMean() + "]";
+    }
+}
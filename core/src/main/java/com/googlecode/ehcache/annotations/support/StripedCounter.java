@@ -0,0 +1,98 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe, lock free counter that spreads updates over several cells so threads incrementing it
+ * concurrently rarely contend on the same cache line. Reading the value sums the cells, so reads are
+ * more expensive than updates and are not an atomic snapshot while updates are in progress.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public final class StripedCounter {
+    /**
+     * Number of longs in a 64 byte cache line, each cell is padded out to its own line
+     */
+    private static final int PADDING = 8;
+    private static final int MAX_STRIPES = 32;
+    
+    /**
+     * Number of stripes, a power of two at least as large as the number of processors
+     */
+    static final int STRIPES;
+    static {
+        final int processors = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        int stripes = 1;
+        while (stripes < processors) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+    
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+    
+    /**
+     * @return The stripe used by the current thread, between 0 and {@link #STRIPES} - 1
+     */
+    static int stripe() {
+        final long id = Thread.currentThread().getId();
+        int h = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h & (STRIPES - 1);
+    }
+
+    /**
+     * Adds one to the counter
+     */
+    public void increment() {
+        this.cells.incrementAndGet(stripe() * PADDING);
+    }
+
+    /**
+     * Adds the value to the counter
+     */
+    public void add(long value) {
+        this.cells.addAndGet(stripe() * PADDING, value);
+    }
+    
+    /**
+     * @return The current value of the counter
+     */
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += this.cells.get(i * PADDING);
+        }
+        return sum;
+    }
+    
+    /**
+     * Sets the counter to zero, updates that happen concurrently with the reset may or may not be kept
+     */
+    public void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.cells.set(i * PADDING, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(this.get());
+    }
+}
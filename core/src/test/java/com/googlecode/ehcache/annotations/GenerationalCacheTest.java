@@ -0,0 +1,191 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import com.googlecode.ehcache.annotations.resolver.CacheableCacheResolver;
+import com.googlecode.ehcache.annotations.resolver.GenerationalCacheResolverFactory;
+import com.googlecode.ehcache.annotations.support.CacheTagIndex;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class GenerationalCacheTest {
+    @Test
+    public void testListenersSeeCurrentKeys() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("GenerationalCacheTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("generationalCache", 100));
+            cacheManager.addCache(cache);
+            
+            final GenerationalCache generationalCache = new GenerationalCache(cache);
+            final CacheTagIndex tagIndex = new CacheTagIndex();
+            generationalCache.getCacheEventNotificationService().registerListener(tagIndex);
+            final CacheTagIndex underlyingTagIndex = new CacheTagIndex();
+            cache.getCacheEventNotificationService().registerListener(underlyingTagIndex);
+            underlyingTagIndex.add("u1", Collections.singleton("a"));
+            
+            generationalCache.put(new Element("k1", "v1"));
+            tagIndex.add("k1", Collections.singleton("a"));
+            generationalCache.put(new Element("k2", "v2"));
+            tagIndex.add("k2", Collections.singleton("a"));
+            
+            //Keys of the current generation are the keys passed to the decorator
+            Assert.assertEquals(new HashSet<Object>(Arrays.asList("k1", "k2")), new HashSet<Object>(generationalCache.getKeys()));
+            
+            //Removal events carry the key passed to the decorator
+            generationalCache.remove("k1");
+            Assert.assertEquals(Arrays.asList("k2"), tagIndex.getKeys("a"));
+            
+            //A generation change is a removeAll for the listeners of the decorator only
+            generationalCache.removeAll();
+            Assert.assertEquals(0, tagIndex.getKeyCount());
+            Assert.assertEquals(1, underlyingTagIndex.getKeyCount());
+            Assert.assertEquals(0, generationalCache.getKeys().size());
+            Assert.assertEquals(1, cache.getSize());
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+    
+    @Test
+    public void testSweepOnCreate() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("GenerationalCacheTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("generationalCache", 100));
+            cacheManager.addCache(cache);
+            
+            //Entries in the cache before it was decorated can never be reached
+            cache.put(new Element("k1", "v1"));
+            final GenerationalCache generationalCache = new GenerationalCache(cache, new SyncTaskExecutor());
+            Assert.assertEquals(0, cache.getSize());
+            Assert.assertNull(generationalCache.get("k1"));
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+    
+    @Test
+    public void testGenerationsOfAnotherDecorator() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("GenerationalCacheTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("generationalCache", 100));
+            cacheManager.addCache(cache);
+            
+            //Like a restart with a persistent store, a new decorator never reaches the entries of an earlier one
+            final GenerationalCache previousCache = new GenerationalCache(cache);
+            previousCache.put(new Element("k1", "v1"));
+            previousCache.removeAll();
+            previousCache.put(new Element("k1", "v2"));
+            
+            final GenerationalCache generationalCache = new GenerationalCache(cache);
+            Assert.assertTrue(previousCache.getEpoch() != generationalCache.getEpoch());
+            for (int index = 0; index < 3; index++) {
+                Assert.assertNull(generationalCache.get("k1"));
+                Assert.assertEquals(0, generationalCache.getKeys().size());
+                generationalCache.removeAll();
+            }
+            Assert.assertEquals(2, cache.getSize());
+            Assert.assertEquals(2, generationalCache.sweep());
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+    
+    @Test
+    public void testResolverFactory() throws Exception {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("GenerationalCacheTest"));
+        try {
+            final GenerationalCacheResolverFactory cacheResolverFactory = new GenerationalCacheResolverFactory(cacheManager);
+            cacheResolverFactory.setCreateCaches(true);
+            cacheResolverFactory.setCacheNames(Collections.singleton("generationalCache"));
+            
+            final Method cached = ResolvedMethods.class.getMethod("cached", int.class);
+            final CacheableCacheResolver cacheResolver = cacheResolverFactory.getCacheResolver(cached.getAnnotation(Cacheable.class), cached);
+            final Ehcache cache = cacheResolver.resolveCache(null, null);
+            final GenerationalCache generationalCache = cacheResolverFactory.getGenerationalCache("generationalCache");
+            Assert.assertSame(generationalCache, cache);
+            
+            //Caches that are not listed are not decorated
+            final Method plain = ResolvedMethods.class.getMethod("plain", int.class);
+            final Ehcache plainCache = cacheResolverFactory.getCacheResolver(plain.getAnnotation(Cacheable.class), plain).resolveCache(null, null);
+            Assert.assertFalse(plainCache instanceof GenerationalCache);
+            Assert.assertNull(cacheResolverFactory.getGenerationalCache("plainCache"));
+            
+            cache.put(new Element("k1", "v1"));
+            cache.put(new Element("k2", "v2"));
+            cache.remove("k2");
+            Assert.assertEquals("v1", cache.get("k1").getObjectValue());
+            Assert.assertEquals(1, cacheManager.getEhcache("generationalCache").getSize());
+            
+            //Remove all only moves to the next generation, the old entries stay until they are swept
+            final Method removeAll = ResolvedMethods.class.getMethod("removeAll");
+            final long generation = generationalCache.getGeneration();
+            for (final Ehcache removeAllCache : cacheResolverFactory.getCacheResolver(removeAll.getAnnotation(TriggersRemove.class), removeAll).resolveRemoveAllCaches(null)) {
+                removeAllCache.removeAll();
+            }
+            Assert.assertTrue(generationalCache.getGeneration() > generation);
+            Assert.assertNull(cache.get("k1"));
+            Assert.assertEquals(1, cacheManager.getEhcache("generationalCache").getSize());
+            
+            cache.put(new Element("k1", "v3"));
+            Assert.assertEquals(1, generationalCache.sweep());
+            Assert.assertEquals(1, cacheManager.getEhcache("generationalCache").getSize());
+            Assert.assertEquals("v3", cache.get("k1").getObjectValue());
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+    
+    public interface ResolvedMethods {
+        @Cacheable(cacheName="generationalCache")
+        public String cached(int argument);
+        
+        @Cacheable(cacheName="plainCache")
+        public String plain(int argument);
+        
+        @TriggersRemove(cacheName="generationalCache", removeAll=true)
+        public void removeAll();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.impl;
+
+import java.util.Collection;
+import java.util.Map;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import com.googlecode.ehcache.annotations.AdviceType;
+import com.googlecode.ehcache.annotations.CacheableBatch;
+import com.googlecode.ehcache.annotations.PartialCacheKey;
+import com.googlecode.ehcache.annotations.TriggersRemove;
+import com.googlecode.ehcache.annotations.key.HashCodeCacheKeyGenerator;
+
+/**
+ * Tests for the annotation validation done by {@link CacheAttributeSourceImpl}.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class CacheAttributeSourceImplTest {
+    private CacheManager cacheManager;
+    private CacheAttributeSourceImpl cacheAttributeSource;
+    
+    @Before
+    public void setup() throws Exception {
+        this.cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("CacheAttributeSourceImplTest"));
+        
+        this.cacheAttributeSource = new CacheAttributeSourceImpl();
+        this.cacheAttributeSource.setCacheManager(this.cacheManager);
+        this.cacheAttributeSource.setCreateCaches(true);
+        this.cacheAttributeSource.setBeanFactory(new DefaultListableBeanFactory());
+        this.cacheAttributeSource.setDefaultCacheKeyGenerator(new HashCodeCacheKeyGenerator());
+        this.cacheAttributeSource.afterPropertiesSet();
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        this.cacheAttributeSource.destroy();
+        this.cacheManager.shutdown();
+    }
+    
+    @Test
+    public void testBatchCollectionInPartialKey() throws Exception {
+        Assert.assertEquals(AdviceType.CACHE_BATCH, this.cacheAttributeSource.getAdviceType(
+                AnnotatedMethods.class.getMethod("batchPartialKey", String.class, Collection.class), AnnotatedMethods.class));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testBatchCollectionNotInPartialKey() throws Exception {
+        this.cacheAttributeSource.getAdviceType(
+                AnnotatedMethods.class.getMethod("batchMaskedCollection", String.class, Collection.class), AnnotatedMethods.class);
+    }
+    
+    @Test
+    public void testExpandCollectionInPartialKey() throws Exception {
+        Assert.assertEquals(AdviceType.REMOVE, this.cacheAttributeSource.getAdviceType(
+                AnnotatedMethods.class.getMethod("removePartialKey", String.class, Collection.class), AnnotatedMethods.class));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testExpandCollectionNotInPartialKey() throws Exception {
+        this.cacheAttributeSource.getAdviceType(
+                AnnotatedMethods.class.getMethod("removeMaskedCollection", String.class, Collection.class), AnnotatedMethods.class);
+    }
+    
+    public static class AnnotatedMethods {
+        @CacheableBatch(cacheName="batchCache")
+        public Map<String, String> batchPartialKey(@PartialCacheKey String region, @PartialCacheKey Collection<String> ids) {
+            return null;
+        }
+        
+        @CacheableBatch(cacheName="batchCache")
+        public Map<String, String> batchMaskedCollection(@PartialCacheKey String region, Collection<String> ids) {
+            return null;
+        }
+        
+        @TriggersRemove(cacheName="removeCache", expandCollection=true)
+        public void removePartialKey(@PartialCacheKey String region, @PartialCacheKey Collection<String> ids) {
+        }
+        
+        @TriggersRemove(cacheName="removeCache", expandCollection=true)
+        public void removeMaskedCollection(@PartialCacheKey String region, Collection<String> ids) {
+        }
+    }
+}
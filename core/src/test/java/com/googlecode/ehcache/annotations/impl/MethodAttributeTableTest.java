@@ -0,0 +1,87 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.impl;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.googlecode.ehcache.annotations.AdviceType;
+import com.googlecode.ehcache.annotations.MethodAttribute;
+import com.googlecode.ehcache.annotations.ParameterMask;
+import com.googlecode.ehcache.annotations.key.CacheKeyGenerator;
+
+/**
+ * Tests for {@link MethodAttributeTable}.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class MethodAttributeTableTest {
+    @Test
+    public void testIdentityAndEqualLookup() throws Exception {
+        final MethodAttributeTable table = new MethodAttributeTable();
+        final Method method = String.class.getMethod("length");
+        final MethodAttribute attribute = new TestMethodAttribute();
+
+        Assert.assertNull(table.get(method));
+        Assert.assertSame(attribute, table.putIfAbsent(method, attribute));
+        Assert.assertSame(attribute, table.get(method));
+
+        //getMethod returns a new copy of the Method for every call
+        final Method copy = String.class.getMethod("length");
+        Assert.assertNotSame(method, copy);
+        Assert.assertSame(attribute, table.get(copy));
+        Assert.assertSame(attribute, table.putIfAbsent(copy, new TestMethodAttribute()));
+
+        //Many copies of the same method must still resolve to the first attribute
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(attribute, table.get(String.class.getMethod("length")));
+        }
+    }
+
+    @Test
+    public void testManyMethods() throws Exception {
+        final MethodAttributeTable table = new MethodAttributeTable();
+
+        final Method[] methods = String.class.getMethods();
+        final MethodAttribute[] attributes = new MethodAttribute[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            attributes[i] = i % 2 == 0 ? MethodAttributeTable.NOT_ADVISED : new TestMethodAttribute();
+            table.putIfAbsent(methods[i], attributes[i]);
+        }
+
+        for (int i = 0; i < methods.length; i++) {
+            Assert.assertSame(methods[i].toString(), attributes[i], table.get(methods[i]));
+        }
+
+        Assert.assertNull(table.get(Integer.class.getMethod("intValue")));
+    }
+
+    private static final class TestMethodAttribute implements MethodAttribute {
+        public AdviceType getAdviceType() {
+            return AdviceType.CACHE;
+        }
+        public CacheKeyGenerator<? extends Serializable> getCacheKeyGenerator() {
+            return null;
+        }
+        public ParameterMask getCacheKeyParameterMask() {
+            return ParameterMask.NO_MASK;
+        }
+    }
+}
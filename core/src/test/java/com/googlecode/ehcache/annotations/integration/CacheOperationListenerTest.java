@@ -0,0 +1,92 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+import com.googlecode.ehcache.annotations.CacheOperationType;
+import com.googlecode.ehcache.annotations.integration.RecordingCacheOperationListener.RecordedOperation;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "/cacheOperationListenerTestContext.xml")
+public class CacheOperationListenerTest {
+    private CacheableTestInterface cacheableTestInterface;
+    private RecordingCacheOperationListener listener;
+
+    @Autowired
+    public void setCacheableTestInterface(CacheableTestInterface cacheableTestInterface) {
+        this.cacheableTestInterface = cacheableTestInterface;
+    }
+
+    @Autowired
+    public void setListener(RecordingCacheOperationListener listener) {
+        this.listener = listener;
+    }
+    
+    @Before
+    public void clearOperations() {
+        this.listener.clear();
+    }
+    
+    @Test
+    public void testCacheableOperations() throws Exception {
+        Assert.assertEquals("interfaceAnnotatedCached(1)", cacheableTestInterface.interfaceAnnotatedCached(1));
+        Assert.assertEquals("interfaceAnnotatedCached(1)", cacheableTestInterface.interfaceAnnotatedCached(1));
+        
+        final List<RecordedOperation> operations = this.listener.getOperations();
+        Assert.assertEquals(2, operations.size());
+        
+        final RecordedOperation miss = operations.get(0);
+        Assert.assertEquals(CacheOperationType.CACHEABLE, miss.getType());
+        Assert.assertEquals(CacheableTestInterface.class.getMethod("interfaceAnnotatedCached", int.class), miss.getMethod());
+        Assert.assertEquals("interfaceAnnotatedCached", miss.getCacheName());
+        Assert.assertEquals(CacheOperationResult.MISS, miss.getResult());
+        Assert.assertFalse(miss.isSelfPopulating());
+        Assert.assertTrue(miss.getKeyGenerationTime() >= 0);
+        Assert.assertTrue(miss.getLoadTime() >= 0);
+        
+        final RecordedOperation hit = operations.get(1);
+        Assert.assertEquals(CacheOperationType.CACHEABLE, hit.getType());
+        Assert.assertEquals(CacheOperationResult.HIT, hit.getResult());
+        Assert.assertEquals(-1, hit.getLoadTime());
+    }
+    
+    @Test
+    public void testRemoveOperation() throws Exception {
+        cacheableTestInterface.keyExpressionRemove("abc");
+        
+        final List<RecordedOperation> operations = this.listener.getOperations();
+        Assert.assertEquals(1, operations.size());
+        
+        final RecordedOperation remove = operations.get(0);
+        Assert.assertEquals(CacheOperationType.REMOVE, remove.getType());
+        Assert.assertEquals(CacheableTestInterface.class.getMethod("keyExpressionRemove", String.class), remove.getMethod());
+        Assert.assertEquals("keyExpressionCache", remove.getCacheName());
+    }
+}
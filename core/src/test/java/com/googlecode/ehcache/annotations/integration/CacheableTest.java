@@ -15,6 +15,11 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
@@ -24,6 +29,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.googlecode.ehcache.annotations.util.ThreadGroupRunner;
+
 /**
  * @author Eric Dalquist
  * @version $Revision$
@@ -140,6 +147,229 @@ public class CacheableTest {
         Assert.assertEquals(1, cacheableTestInterface.interfaceAnnotatedExceptionCachedThrowsCount());
     }
 
+    @Test
+    public void testFilteredExceptionCaching() {
+        Assert.assertEquals(0, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedCount());
+        Assert.assertEquals(0, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedThrowsCount());
+        
+        Assert.assertEquals("interfaceAnnotatedFilteredExceptionCached(false)", cacheableTestInterface.interfaceAnnotatedFilteredExceptionCached(false));
+        Assert.assertEquals(1, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedCount());
+        Assert.assertEquals(0, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedThrowsCount());
+        
+        Assert.assertEquals("interfaceAnnotatedFilteredExceptionCached(false)", cacheableTestInterface.interfaceAnnotatedFilteredExceptionCached(false));
+        Assert.assertEquals(1, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedCount());
+        Assert.assertEquals(0, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedThrowsCount());
+        
+        for (int i = 0; i < 2; i++) {
+            try {
+                cacheableTestInterface.interfaceAnnotatedFilteredExceptionCached(true);
+                Assert.fail("interfaceAnnotatedFilteredExceptionCached(true) should have thrown an exception");
+            }
+            catch (RuntimeException re) {
+                Assert.assertEquals("throwsException was true", re.getMessage());
+            }
+            Assert.assertEquals(1, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedCount());
+            Assert.assertEquals(1, cacheableTestInterface.interfaceAnnotatedFilteredExceptionCachedThrowsCount());
+        }
+    }
+
+    @Test
+    public void testSoftTimeToLive() throws Exception {
+        Assert.assertEquals(0, cacheableTestInterface.softTimeToLiveCount());
+        
+        Assert.assertEquals("softTimeToLive(foo)=1", cacheableTestInterface.softTimeToLive("foo"));
+        Assert.assertEquals("softTimeToLive(foo)=1", cacheableTestInterface.softTimeToLive("foo"));
+        Assert.assertEquals(1, cacheableTestInterface.softTimeToLiveCount());
+        
+        Thread.sleep(1100);
+        
+        //The stale value is returned and a refresh happens in the background
+        Assert.assertEquals("softTimeToLive(foo)=1", cacheableTestInterface.softTimeToLive("foo"));
+        for (int i = 0; i < 50 && cacheableTestInterface.softTimeToLiveCount() < 2; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(2, cacheableTestInterface.softTimeToLiveCount());
+        
+        //Give the refresh time to store the result after invoking the method
+        Thread.sleep(50);
+        Assert.assertEquals("softTimeToLive(foo)=2", cacheableTestInterface.softTimeToLive("foo"));
+        Assert.assertEquals(2, cacheableTestInterface.softTimeToLiveCount());
+    }
+
+    @Test
+    public void testEarlyExpiration() {
+        Assert.assertEquals(0, cacheableTestInterface.earlyExpirationCount());
+        
+        Assert.assertEquals("earlyExpiration(foo)=1", cacheableTestInterface.earlyExpiration("foo"));
+        Assert.assertEquals(1, cacheableTestInterface.earlyExpirationCount());
+        
+        //The huge beta makes every hit on the 10 minute element recompute it early
+        Assert.assertEquals("earlyExpiration(foo)=2", cacheableTestInterface.earlyExpiration("foo"));
+        Assert.assertEquals(2, cacheableTestInterface.earlyExpirationCount());
+        
+        //Other keys are unaffected
+        Assert.assertEquals("earlyExpiration(bar)=3", cacheableTestInterface.earlyExpiration("bar"));
+        Assert.assertEquals(3, cacheableTestInterface.earlyExpirationCount());
+    }
+
+    @Test
+    public void testElementLifespan() throws Exception {
+        Assert.assertEquals(0, cacheableTestInterface.elementLifespanCount());
+        
+        Assert.assertEquals("elementLifespan(foo)=1", cacheableTestInterface.elementLifespan("foo"));
+        Assert.assertNull(cacheableTestInterface.elementLifespan(null));
+        Assert.assertEquals(2, cacheableTestInterface.elementLifespanCount());
+        
+        Assert.assertEquals("elementLifespan(foo)=1", cacheableTestInterface.elementLifespan("foo"));
+        Assert.assertNull(cacheableTestInterface.elementLifespan(null));
+        Assert.assertEquals(2, cacheableTestInterface.elementLifespanCount());
+        
+        //The value expires after the 1 second timeToLive, the cached null uses the longer nullTimeToLive
+        Thread.sleep(1100);
+        
+        Assert.assertEquals("elementLifespan(foo)=3", cacheableTestInterface.elementLifespan("foo"));
+        Assert.assertNull(cacheableTestInterface.elementLifespan(null));
+        Assert.assertEquals(3, cacheableTestInterface.elementLifespanCount());
+    }
+
+    @Test
+    public void testKeyExpression() {
+        Assert.assertEquals(0, cacheableTestInterface.keyExpressionCount());
+        
+        Assert.assertEquals("keyExpression(foo)=1", cacheableTestInterface.keyExpression("foo"));
+        Assert.assertEquals(1, cacheableTestInterface.keyExpressionCount());
+        
+        //The key is the argument length so any three character argument hits the cached value
+        Assert.assertEquals("keyExpression(foo)=1", cacheableTestInterface.keyExpression("bar"));
+        Assert.assertEquals("keyExpression(quux)=2", cacheableTestInterface.keyExpression("quux"));
+        Assert.assertEquals(2, cacheableTestInterface.keyExpressionCount());
+        
+        //The remove uses the same expression
+        cacheableTestInterface.keyExpressionRemove("abc");
+        Assert.assertEquals("keyExpression(bar)=3", cacheableTestInterface.keyExpression("bar"));
+        Assert.assertEquals("keyExpression(quux)=2", cacheableTestInterface.keyExpression("quux"));
+        Assert.assertEquals(3, cacheableTestInterface.keyExpressionCount());
+    }
+
+    @Test
+    public void testTags() {
+        Assert.assertEquals(0, cacheableTestInterface.taggedOrderCount());
+        
+        Assert.assertEquals("taggedOrder(1, [a, b])=1", cacheableTestInterface.taggedOrder(1, Arrays.asList("a", "b")));
+        Assert.assertEquals("taggedOrder(1, [c])=2", cacheableTestInterface.taggedOrder(1, Arrays.asList("c")));
+        Assert.assertEquals("taggedOrder(2, [a])=3", cacheableTestInterface.taggedOrder(2, Arrays.asList("a")));
+        Assert.assertEquals("taggedOrder(2, [d])=4", cacheableTestInterface.taggedOrder(2, Arrays.asList("d")));
+        Assert.assertEquals("taggedOrder(1, [a, b])=1", cacheableTestInterface.taggedOrder(1, Arrays.asList("a", "b")));
+        Assert.assertEquals(4, cacheableTestInterface.taggedOrderCount());
+        
+        //Only the values tagged with customer 1 are removed
+        cacheableTestInterface.taggedCustomerRemove(1);
+        Assert.assertEquals("taggedOrder(1, [a, b])=5", cacheableTestInterface.taggedOrder(1, Arrays.asList("a", "b")));
+        Assert.assertEquals("taggedOrder(1, [c])=6", cacheableTestInterface.taggedOrder(1, Arrays.asList("c")));
+        Assert.assertEquals("taggedOrder(2, [a])=3", cacheableTestInterface.taggedOrder(2, Arrays.asList("a")));
+        Assert.assertEquals("taggedOrder(2, [d])=4", cacheableTestInterface.taggedOrder(2, Arrays.asList("d")));
+        
+        //Collection tags tag the value with each element
+        cacheableTestInterface.taggedProductRemove("a");
+        Assert.assertEquals("taggedOrder(1, [c])=6", cacheableTestInterface.taggedOrder(1, Arrays.asList("c")));
+        Assert.assertEquals("taggedOrder(2, [d])=4", cacheableTestInterface.taggedOrder(2, Arrays.asList("d")));
+        Assert.assertEquals("taggedOrder(1, [a, b])=7", cacheableTestInterface.taggedOrder(1, Arrays.asList("a", "b")));
+        Assert.assertEquals("taggedOrder(2, [a])=8", cacheableTestInterface.taggedOrder(2, Arrays.asList("a")));
+        
+        //Removing a tag nothing has is a no-op
+        cacheableTestInterface.taggedCustomerRemove(3);
+        cacheableTestInterface.taggedProductRemove("z");
+        Assert.assertEquals(8, cacheableTestInterface.taggedOrderCount());
+    }
+
+    @Test
+    public void testTaggedCachingConcurrentRemove() throws InterruptedException {
+        final int customers = 5;
+        final int accounts = 7;
+        final int iterations = 20000;
+        
+        //Load and remove tagged values for the same customers from several threads
+        final ThreadGroupRunner threadGroup = new ThreadGroupRunner("testTaggedCachingConcurrentRemove-", true);
+        threadGroup.addTask(4, new Runnable() {
+            public void run() {
+                for (int index = 0; index < iterations; index++) {
+                    cacheableTestInterface.taggedAccount(100 + index % customers, index % accounts);
+                }
+            }
+        });
+        threadGroup.addTask(2, new Runnable() {
+            public void run() {
+                for (int index = 0; index < iterations; index++) {
+                    cacheableTestInterface.taggedCustomerRemove(100 + index % customers);
+                }
+            }
+        });
+        threadGroup.start();
+        threadGroup.join();
+        
+        //Every value cached while the removes were running must still be reachable by its tags
+        for (int customer = 0; customer < customers; customer++) {
+            cacheableTestInterface.taggedCustomerRemove(100 + customer);
+        }
+        
+        final int count = cacheableTestInterface.taggedAccountCount();
+        for (int customer = 0; customer < customers; customer++) {
+            for (int account = 0; account < accounts; account++) {
+                cacheableTestInterface.taggedAccount(100 + customer, account);
+            }
+        }
+        Assert.assertEquals(count + customers * accounts, cacheableTestInterface.taggedAccountCount());
+    }
+
+    @Test
+    public void testBatchCaching() {
+        final List<List<String>> requests = cacheableTestInterface.batchLoadRequests();
+        Assert.assertEquals(0, requests.size());
+        
+        final Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("a", "va");
+        expected.put("b", "vb");
+        Assert.assertEquals(expected, cacheableTestInterface.batchLoad("v", Arrays.asList("a", "b")));
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(Arrays.asList("a", "b"), requests.get(0));
+        
+        //Only the missing ids are loaded, the results are in the requested order
+        expected.clear();
+        expected.put("c", "vc");
+        expected.put("a", "va");
+        expected.put("b", "vb");
+        Assert.assertEquals(expected, cacheableTestInterface.batchLoad("v", Arrays.asList("c", "a", "missing1", "b")));
+        Assert.assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(cacheableTestInterface.batchLoad("v", Arrays.asList("c", "a", "missing1", "b")).keySet()));
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals(Arrays.asList("c", "missing1"), requests.get(1));
+        
+        //Ids without a value are cached as null
+        expected.clear();
+        expected.put("b", "vb");
+        Assert.assertEquals(expected, cacheableTestInterface.batchLoad("v", Arrays.asList("missing1", "b")));
+        Assert.assertEquals(2, requests.size());
+        
+        //The other parameters are part of each element's key
+        expected.clear();
+        expected.put("a", "wa");
+        Assert.assertEquals(expected, cacheableTestInterface.batchLoad("w", Arrays.asList("a")));
+        Assert.assertEquals(3, requests.size());
+        Assert.assertEquals(Arrays.asList("a"), requests.get(2));
+    }
+
+    @Test
+    public void testBatchCachingSharedCache() {
+        Assert.assertEquals("sharedLoad(a)", cacheableTestInterface.sharedLoad("a"));
+        
+        //Values cached by the early expiring method are returned unwrapped
+        final Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("a", "sharedLoad(a)");
+        expected.put("b", "sharedBatchLoad(b)");
+        Assert.assertEquals(expected, cacheableTestInterface.sharedBatchLoad(Arrays.asList("a", "b")));
+        Assert.assertEquals(expected, cacheableTestInterface.sharedBatchLoad(Arrays.asList("a", "b")));
+        Assert.assertEquals("sharedBatchLoad(b)", cacheableTestInterface.sharedLoad("b"));
+    }
+
     @Test
     public void testEnumArgCaching() {
         Assert.assertEquals(0, cacheableTestInterface.enumParameterCount());
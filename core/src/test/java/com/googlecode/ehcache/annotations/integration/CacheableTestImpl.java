@@ -15,7 +15,12 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -34,12 +39,21 @@ public class CacheableTestImpl implements CacheableTestInterface {
     private CacheManager cacheManager;
     private int interfaceAnnotatedExceptionCachedCount = 0;
     private int interfaceAnnotatedExceptionCachedThrowsCount = 0;
+    private int interfaceAnnotatedFilteredExceptionCachedCount = 0;
+    private int interfaceAnnotatedFilteredExceptionCachedThrowsCount = 0;
     private int interfaceAnnotatedCachedCount = 0;
     private int interfaceAnnotatedNoArgCachedCount = 0;
     private int interfaceDefinedCount = 0;
     private int enumParameterCount = 0;
     private int arrayReturnCount = 0;
     private int noNullCacheCount = 0;
+    private final AtomicInteger softTimeToLiveCount = new AtomicInteger(0);
+    private final AtomicInteger earlyExpirationCount = new AtomicInteger(0);
+    private final AtomicInteger elementLifespanCount = new AtomicInteger(0);
+    private final AtomicInteger keyExpressionCount = new AtomicInteger(0);
+    private final AtomicInteger taggedOrderCount = new AtomicInteger(0);
+    private final AtomicInteger taggedAccountCount = new AtomicInteger(0);
+    private final List<List<String>> batchLoadRequests = new ArrayList<List<String>>();
     
     public String interfaceAnnotatedExceptionCached(boolean throwsException) {
         if (throwsException) {
@@ -59,6 +73,24 @@ public class CacheableTestImpl implements CacheableTestInterface {
         return this.interfaceAnnotatedExceptionCachedThrowsCount;
     }
 
+    public String interfaceAnnotatedFilteredExceptionCached(boolean throwsException) {
+        if (throwsException) {
+            this.interfaceAnnotatedFilteredExceptionCachedThrowsCount++;
+            throw new RuntimeException("throwsException was true");
+        }
+        
+        this.interfaceAnnotatedFilteredExceptionCachedCount++;
+        return "interfaceAnnotatedFilteredExceptionCached(" + throwsException + ")";
+    }
+
+    public int interfaceAnnotatedFilteredExceptionCachedCount() {
+        return this.interfaceAnnotatedFilteredExceptionCachedCount;
+    }
+
+    public int interfaceAnnotatedFilteredExceptionCachedThrowsCount() {
+        return this.interfaceAnnotatedFilteredExceptionCachedThrowsCount;
+    }
+
     public String interfaceAnnotatedCached(int argument) {
         this.interfaceAnnotatedCachedCount++;
         return "interfaceAnnotatedCached(" + argument + ")";
@@ -105,6 +137,101 @@ public class CacheableTestImpl implements CacheableTestInterface {
         return this.arrayReturnCount;
     }
     
+    public String softTimeToLive(String argument) {
+        return "softTimeToLive(" + argument + ")=" + this.softTimeToLiveCount.incrementAndGet();
+    }
+
+    public int softTimeToLiveCount() {
+        return this.softTimeToLiveCount.get();
+    }
+    
+    public String earlyExpiration(String argument) {
+        try {
+            Thread.sleep(20);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "earlyExpiration(" + argument + ")=" + this.earlyExpirationCount.incrementAndGet();
+    }
+    
+    public int earlyExpirationCount() {
+        return this.earlyExpirationCount.get();
+    }
+    
+    public String elementLifespan(String argument) {
+        final int count = this.elementLifespanCount.incrementAndGet();
+        if (argument == null) {
+            return null;
+        }
+        return "elementLifespan(" + argument + ")=" + count;
+    }
+    
+    public int elementLifespanCount() {
+        return this.elementLifespanCount.get();
+    }
+    
+    public String keyExpression(String argument) {
+        return "keyExpression(" + argument + ")=" + this.keyExpressionCount.incrementAndGet();
+    }
+    
+    public void keyExpressionRemove(String argument) {
+    }
+    
+    public int keyExpressionCount() {
+        return this.keyExpressionCount.get();
+    }
+    
+    public String taggedOrder(int customer, List<String> products) {
+        return "taggedOrder(" + customer + ", " + products + ")=" + this.taggedOrderCount.incrementAndGet();
+    }
+    
+    public void taggedCustomerRemove(int customer) {
+    }
+    
+    public void taggedProductRemove(String product) {
+    }
+    
+    public int taggedOrderCount() {
+        return this.taggedOrderCount.get();
+    }
+    
+    public String taggedAccount(int customer, int account) {
+        return "taggedAccount(" + customer + ", " + account + ")=" + this.taggedAccountCount.incrementAndGet();
+    }
+    
+    public int taggedAccountCount() {
+        return this.taggedAccountCount.get();
+    }
+    
+    public Map<String, String> batchLoad(String prefix, List<String> ids) {
+        this.batchLoadRequests.add(new ArrayList<String>(ids));
+        
+        final Map<String, String> values = new LinkedHashMap<String, String>();
+        for (final String id : ids) {
+            if (!id.startsWith("missing")) {
+                values.put(id, prefix + id);
+            }
+        }
+        return values;
+    }
+    
+    public List<List<String>> batchLoadRequests() {
+        return this.batchLoadRequests;
+    }
+    
+    public String sharedLoad(String id) {
+        return "sharedLoad(" + id + ")";
+    }
+    
+    public Map<String, String> sharedBatchLoad(List<String> ids) {
+        final Map<String, String> values = new LinkedHashMap<String, String>();
+        for (final String id : ids) {
+            values.put(id, "sharedBatchLoad(" + id + ")");
+        }
+        return values;
+    }
+
     public String noNullCache(boolean returnNull) {
         this.noNullCacheCount++;
         if (returnNull) {
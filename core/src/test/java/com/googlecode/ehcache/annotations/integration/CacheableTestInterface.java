@@ -15,11 +15,17 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import net.sf.ehcache.CacheManager;
 
 import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.CacheableBatch;
+import com.googlecode.ehcache.annotations.KeyGenerator;
+import com.googlecode.ehcache.annotations.Property;
+import com.googlecode.ehcache.annotations.TriggersRemove;
 
 /**
  * @author Eric Dalquist
@@ -32,6 +38,11 @@ public interface CacheableTestInterface {
     public int interfaceAnnotatedExceptionCachedCount();
     public int interfaceAnnotatedExceptionCachedThrowsCount();
     
+    @Cacheable(cacheName="interfaceAnnotatedCache", exceptionCacheName="interfaceAnnotatedFilteredExceptionCache", checkValueCacheFirst=true, exceptionCacheKeyFilter=true)
+    public String interfaceAnnotatedFilteredExceptionCached(boolean throwsException);
+    public int interfaceAnnotatedFilteredExceptionCachedCount();
+    public int interfaceAnnotatedFilteredExceptionCachedThrowsCount();
+    
     @Cacheable(cacheName="interfaceAnnotatedCached")
     public String interfaceAnnotatedCached(int argument);
     public int interfaceAnnotatedCachedCount();
@@ -51,6 +62,46 @@ public interface CacheableTestInterface {
     public String[] arrayReturn(String a, String b);
     public int arrayReturnCount();
     
+    @Cacheable(cacheName="softTimeToLiveCache", softTimeToLive=1)
+    public String softTimeToLive(String argument);
+    public int softTimeToLiveCount();
+    
+    @Cacheable(cacheName="earlyExpirationCache", earlyExpirationBeta=1000000000)
+    public String earlyExpiration(String argument);
+    public int earlyExpirationCount();
+    
+    @Cacheable(cacheName="elementLifespanCache", timeToLive=1, nullTimeToLive=600)
+    public String elementLifespan(String argument);
+    public int elementLifespanCount();
+    
+    @Cacheable(cacheName="keyExpressionCache", key="#args[0].length()")
+    public String keyExpression(String argument);
+    @TriggersRemove(cacheName="keyExpressionCache", key="#args[0].length()")
+    public void keyExpressionRemove(String argument);
+    public int keyExpressionCount();
+    
+    @Cacheable(cacheName="taggedCache", tags={"'customer:' + #args[0]", "#args[1]"})
+    public String taggedOrder(int customer, List<String> products);
+    @TriggersRemove(cacheName="taggedCache", tags="'customer:' + #args[0]")
+    public void taggedCustomerRemove(int customer);
+    @TriggersRemove(cacheName="taggedCache", tags="#args[0]")
+    public void taggedProductRemove(String product);
+    public int taggedOrderCount();
+    @Cacheable(cacheName="taggedCache", tags="'customer:' + #args[0]")
+    public String taggedAccount(int customer, int account);
+    public int taggedAccountCount();
+    
+    @CacheableBatch(cacheName="batchCache")
+    public Map<String, String> batchLoad(String prefix, List<String> ids);
+    public List<List<String>> batchLoadRequests();
+    
+    @Cacheable(cacheName="sharedBatchCache", earlyExpirationBeta=1, 
+            keyGenerator=@KeyGenerator(name="HashCodeCacheKeyGenerator", properties=@Property(name="includeMethod", value="false")))
+    public String sharedLoad(String id);
+    @CacheableBatch(cacheName="sharedBatchCache", 
+            keyGenerator=@KeyGenerator(name="HashCodeCacheKeyGenerator", properties=@Property(name="includeMethod", value="false")))
+    public Map<String, String> sharedBatchLoad(List<String> ids);
+    
     @Cacheable(cacheName="noNullCache", cacheNull=false)
     public String noNullCache(boolean returnNull);
     public int noNullCacheCount();
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.googlecode.ehcache.annotations.CacheOperation;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * Keeps every completed {@link CacheOperation} for inspection by tests
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class RecordingCacheOperationListener implements CacheOperationListener {
+    private final List<RecordedOperation> operations = new CopyOnWriteArrayList<RecordedOperation>();
+    
+    public List<RecordedOperation> getOperations() {
+        return this.operations;
+    }
+    
+    public void clear() {
+        this.operations.clear();
+    }
+
+    public CacheOperation begin(CacheOperationType type, Method method) {
+        return new RecordedOperation(type, method);
+    }
+    
+    public class RecordedOperation implements CacheOperation {
+        private final CacheOperationType type;
+        private final Method method;
+        private String cacheName;
+        private boolean selfPopulating;
+        private CacheOperationResult result;
+        private long keyGenerationTime = -1;
+        private long loadTime = -1;
+        
+        private RecordedOperation(CacheOperationType type, Method method) {
+            this.type = type;
+            this.method = method;
+        }
+
+        public void setCacheName(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        public void setSelfPopulating(boolean selfPopulating) {
+            this.selfPopulating = selfPopulating;
+        }
+
+        public void setResult(CacheOperationResult result) {
+            this.result = result;
+        }
+
+        public void setKeyGenerationTime(long nanos) {
+            this.keyGenerationTime = nanos;
+        }
+
+        public void setLoadTime(long nanos) {
+            this.loadTime = nanos;
+        }
+
+        public void complete() {
+            operations.add(this);
+        }
+
+        public CacheOperationType getType() {
+            return this.type;
+        }
+
+        public Method getMethod() {
+            return this.method;
+        }
+
+        public String getCacheName() {
+            return this.cacheName;
+        }
+
+        public boolean isSelfPopulating() {
+            return this.selfPopulating;
+        }
+
+        public CacheOperationResult getResult() {
+            return this.result;
+        }
+
+        public long getKeyGenerationTime() {
+            return this.keyGenerationTime;
+        }
+
+        public long getLoadTime() {
+            return this.loadTime;
+        }
+    }
+}
@@ -152,6 +152,51 @@ public class SelfPopulatingTest {
     }
 
     
+    /**
+     * Verify that setting coalesceMisses=true will guarantee only 1 invocation
+     * of the cached method for concurrent misses.
+     * 
+     * @throws Exception
+     */
+    @Test(timeout=1000)
+    public void testCoalesceMisses() throws Exception {
+        final CountDownLatch threadRunningLatch = new CountDownLatch(1);
+        final CountDownLatch proccedLatch = new CountDownLatch(1);
+        this.selfPopulatingTestInterface.setThreadRunningLatch(threadRunningLatch);
+        this.selfPopulatingTestInterface.setProccedLatch(proccedLatch);
+        
+        Assert.assertEquals(0, this.selfPopulatingTestInterface.getCoalescedInvocationCount());
+        
+        final ThreadGroupRunner threadGroup = new ThreadGroupRunner("testCoalesceMisses-", true);
+        
+        final String[] results = new String[4];
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            threadGroup.addTask(new Runnable() {  
+                public void run() {
+                    results[index] = selfPopulatingTestInterface.coalesced("test3");
+                }
+            });
+        }
+        
+        threadGroup.start();
+        
+        // wait for the first thread to get into the method and give the rest time to wait on it
+        threadRunningLatch.await();
+        Thread.sleep(100);
+        
+        // Let the invocation complete
+        proccedLatch.countDown();
+        
+        threadGroup.join();
+        
+        // verify only 1 call to the method and that every thread got its result
+        Assert.assertEquals(1, this.selfPopulatingTestInterface.getCoalescedInvocationCount());
+        for (final String result : results) {
+            Assert.assertEquals("coalesced says: test3", result);
+        }
+    }
+    
     @Test(timeout=1000)
     public void testExceptionCaching() {
         final CountDownLatch threadRunningLatch = new CountDownLatch(0);
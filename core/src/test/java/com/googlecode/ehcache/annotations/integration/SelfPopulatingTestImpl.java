@@ -35,6 +35,7 @@ public class SelfPopulatingTestImpl implements SelfPopulatingTestInterface {
     private final AtomicInteger blockingAInvocationCount = new AtomicInteger(0);
     private final AtomicInteger blockingBInvocationCount = new AtomicInteger(0);
     private final AtomicInteger nonBlockingInvocationCount = new AtomicInteger(0);
+    private final AtomicInteger coalescedInvocationCount = new AtomicInteger(0);
     private CountDownLatch threadRunningLatch;
     private CountDownLatch proccedLatch;
     
@@ -42,6 +43,7 @@ public class SelfPopulatingTestImpl implements SelfPopulatingTestInterface {
         this.blockingAInvocationCount.set(0);
         this.blockingBInvocationCount.set(0);
         this.nonBlockingInvocationCount.set(0);
+        this.coalescedInvocationCount.set(0);
     }
 
     public void setThreadRunningLatch(CountDownLatch threadRunningLatch) {
@@ -97,6 +99,21 @@ public class SelfPopulatingTestImpl implements SelfPopulatingTestInterface {
         return "nonBlocking says: " + argument;
     }
     
+    public String coalesced(String argument) {
+        logger.trace("Enter coalesced({})", argument);
+        threadRunningLatch.countDown();
+        try {
+            logger.trace("Waiting in coalesced({})", argument);
+            proccedLatch.await();
+        }
+        catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        coalescedInvocationCount.incrementAndGet();
+        logger.trace("Returning from coalesced({})", argument);
+        return "coalesced says: " + argument;
+    }
+    
     public int getBlockingAInvocationCount() {
         return this.blockingAInvocationCount.get();
     }
@@ -106,6 +123,9 @@ public class SelfPopulatingTestImpl implements SelfPopulatingTestInterface {
     public int getNonBlockingInvocationCount() {
         return this.nonBlockingInvocationCount.get();
     }
+    public int getCoalescedInvocationCount() {
+        return this.coalescedInvocationCount.get();
+    }
 
     public String interfaceAnnotatedExceptionCached(boolean throwsException) {
         threadRunningLatch.countDown();
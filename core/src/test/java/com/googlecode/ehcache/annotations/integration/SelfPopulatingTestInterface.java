@@ -45,6 +45,10 @@ public interface SelfPopulatingTestInterface {
     public String nonBlocking(String argument);
     public int getNonBlockingInvocationCount();
     
+    @Cacheable(cacheName="coalescedCache", coalesceMisses=true)
+    public String coalesced(String argument);
+    public int getCoalescedInvocationCount();
+    
     @Cacheable(cacheName="interfaceAnnotatedCache", selfPopulating=true, exceptionCacheName="interfaceAnnotatedExceptionCache")
     public String interfaceAnnotatedExceptionCached(boolean throwsException);
     public int interfaceAnnotatedExceptionCachedCount();
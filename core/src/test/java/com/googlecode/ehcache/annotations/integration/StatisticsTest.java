@@ -0,0 +1,124 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.googlecode.ehcache.annotations.config.AnnotationDrivenEhCacheBeanDefinitionParser;
+import com.googlecode.ehcache.annotations.interceptor.EhCacheInterceptorStatistics;
+import com.googlecode.ehcache.annotations.interceptor.MethodStatistics;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "/statisticsTestContext.xml")
+public class StatisticsTest {
+    private CacheableTestInterface cacheableTestInterface;
+    private EhCacheInterceptorStatistics statistics;
+
+    @Autowired
+    public void setCacheableTestInterface(CacheableTestInterface cacheableTestInterface) {
+        this.cacheableTestInterface = cacheableTestInterface;
+    }
+
+    @Autowired
+    public void setStatistics(EhCacheInterceptorStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    private MethodStatistics getMethodStatistics(String name, Class<?>... parameterTypes) throws Exception {
+        return this.statistics.getMethodStatistics(CacheableTestInterface.class.getMethod(name, parameterTypes));
+    }
+    
+    @Test
+    public void testCacheableStatistics() throws Exception {
+        Assert.assertEquals("interfaceAnnotatedCached(1)", cacheableTestInterface.interfaceAnnotatedCached(1));
+        Assert.assertEquals("interfaceAnnotatedCached(1)", cacheableTestInterface.interfaceAnnotatedCached(1));
+        Assert.assertEquals("interfaceAnnotatedCached(2)", cacheableTestInterface.interfaceAnnotatedCached(2));
+        
+        final MethodStatistics methodStatistics = this.getMethodStatistics("interfaceAnnotatedCached", int.class);
+        Assert.assertEquals(1, methodStatistics.getHits());
+        Assert.assertEquals(2, methodStatistics.getMisses());
+        Assert.assertEquals(2, methodStatistics.getLoadTime().getCount());
+        Assert.assertEquals(3, methodStatistics.getKeyGenerationTime().getCount());
+        Assert.assertEquals(0, methodStatistics.getCachedExceptionHits());
+        Assert.assertEquals(1 / 3.0, methodStatistics.getHitRatio(), 0.0001);
+    }
+    
+    @Test
+    public void testCachedExceptionStatistics() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try {
+                cacheableTestInterface.interfaceAnnotatedExceptionCached(true);
+                Assert.fail("interfaceAnnotatedExceptionCached(true) should throw an exception");
+            }
+            catch (RuntimeException re) {
+                //expected
+            }
+        }
+        
+        final MethodStatistics methodStatistics = this.getMethodStatistics("interfaceAnnotatedExceptionCached", boolean.class);
+        Assert.assertEquals(0, methodStatistics.getHits());
+        Assert.assertEquals(1, methodStatistics.getMisses());
+        Assert.assertEquals(1, methodStatistics.getCachedExceptionHits());
+        Assert.assertEquals(1, methodStatistics.getLoadTime().getCount());
+    }
+    
+    @Test
+    public void testTriggersRemoveStatistics() throws Exception {
+        cacheableTestInterface.keyExpressionRemove("abc");
+        
+        final MethodStatistics methodStatistics = this.getMethodStatistics("keyExpressionRemove", String.class);
+        Assert.assertEquals(1, methodStatistics.getRemovals());
+        Assert.assertEquals(1, methodStatistics.getKeyGenerationTime().getCount());
+    }
+    
+    @Test
+    public void testMBean() throws Exception {
+        Assert.assertEquals("interfaceAnnotatedNoArgCached()", cacheableTestInterface.interfaceAnnotatedNoArgCached());
+        Assert.assertEquals("interfaceAnnotatedNoArgCached()", cacheableTestInterface.interfaceAnnotatedNoArgCached());
+        
+        final String methodName = MethodStatistics.getName(CacheableTestInterface.class.getMethod("interfaceAnnotatedNoArgCached"));
+        Assert.assertEquals(CacheableTestInterface.class.getName() + ".interfaceAnnotatedNoArgCached()", methodName);
+        Assert.assertEquals(CacheableTestInterface.class.getName() + ".keyExpressionRemove(java.lang.String)",
+                MethodStatistics.getName(CacheableTestInterface.class.getMethod("keyExpressionRemove", String.class)));
+        Assert.assertEquals("java.util.Arrays.fill(long[],long)", MethodStatistics.getName(Arrays.class.getMethod("fill", long[].class, long.class)));
+        
+        final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName(AnnotationDrivenEhCacheBeanDefinitionParser.DEFAULT_STATISTICS_OBJECT_NAME);
+        
+        final String[] methodNames = (String[])mbeanServer.getAttribute(objectName, "MethodNames");
+        Assert.assertTrue(Arrays.asList(methodNames).contains(methodName));
+        
+        final Object hits = mbeanServer.invoke(objectName, "getHits", new Object[] { methodName }, new String[] { String.class.getName() });
+        Assert.assertEquals(1L, hits);
+        final Object misses = mbeanServer.invoke(objectName, "getMisses", new Object[] { methodName }, new String[] { String.class.getName() });
+        Assert.assertEquals(1L, misses);
+    }
+}
@@ -18,6 +18,8 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.Arrays;
+
 import junit.framework.Assert;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Ehcache;
@@ -119,6 +121,50 @@ public class TriggersRemoveTest  {
         
     }
     
+    @Test
+    public void testExpandCollection() {
+        final Object a = this.triggersRemoveTestInterface.idCachedMethod("a");
+        final Object b = this.triggersRemoveTestInterface.idCachedMethod("b");
+        final Object c = this.triggersRemoveTestInterface.idCachedMethod("c");
+        Assert.assertSame(a, this.triggersRemoveTestInterface.idCachedMethod("a"));
+        Assert.assertSame(b, this.triggersRemoveTestInterface.idCachedMethod("b"));
+        Assert.assertSame(c, this.triggersRemoveTestInterface.idCachedMethod("c"));
+        
+        final Ehcache ehcache = cacheManager.getEhcache("triggersRemoveExpandCache");
+        final CountingListener listener = new CountingListener();
+        ehcache.registerCacheUsageListener(listener);
+        
+        this.triggersRemoveTestInterface.methodTriggersRemoveCollection(Arrays.asList("a", "c"));
+        Assert.assertEquals(2, listener.getRemoveCount());
+        Assert.assertEquals(0, listener.getRemoveAllCount());
+        
+        Assert.assertNotSame(a, this.triggersRemoveTestInterface.idCachedMethod("a"));
+        Assert.assertSame(b, this.triggersRemoveTestInterface.idCachedMethod("b"));
+        Assert.assertNotSame(c, this.triggersRemoveTestInterface.idCachedMethod("c"));
+    }
+    
+    @Test
+    public void testAsyncRemove() throws Exception {
+        final Object d = this.triggersRemoveTestInterface.idCachedMethod("d");
+        Assert.assertSame(d, this.triggersRemoveTestInterface.idCachedMethod("d"));
+        
+        final Ehcache ehcache = cacheManager.getEhcache("triggersRemoveExpandCache");
+        final CountingListener listener = new CountingListener();
+        ehcache.registerCacheUsageListener(listener);
+        
+        //Many removals of the same key within the window are performed once
+        for (int i = 0; i < 100; i++) {
+            this.triggersRemoveTestInterface.methodTriggersRemoveAsync("d");
+        }
+        for (int i = 0; i < 100 && listener.getRemoveCount() == 0; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(listener.getRemoveCount() >= 1);
+        Assert.assertTrue(listener.getRemoveCount() < 100);
+        
+        Assert.assertNotSame(d, this.triggersRemoveTestInterface.idCachedMethod("d"));
+    }
+    
     static class CountingListener implements CacheUsageListener {
         private int removeAllCount = 0;
         private int removeCount = 0;
@@ -18,6 +18,8 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.Collection;
+
 import com.googlecode.ehcache.annotations.TriggersRemove;
 
 /**
@@ -65,4 +67,14 @@ public class TriggersRemoveTestImpl implements TriggersRemoveTestInterface {
     public Object simpleCachedMethodTwo() {
         return new Object();
     }
+
+    public Object idCachedMethod(String id) {
+        return new Object();
+    }
+
+    public void methodTriggersRemoveCollection(Collection<String> ids) {
+    }
+
+    public void methodTriggersRemoveAsync(String id) {
+    }
 }
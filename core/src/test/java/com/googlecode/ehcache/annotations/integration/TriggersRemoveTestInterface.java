@@ -18,10 +18,13 @@
  */
 package com.googlecode.ehcache.annotations.integration;
 
+import java.util.Collection;
+
 import com.googlecode.ehcache.annotations.Cacheable;
 import com.googlecode.ehcache.annotations.KeyGenerator;
 import com.googlecode.ehcache.annotations.Property;
 import com.googlecode.ehcache.annotations.TriggersRemove;
+import com.googlecode.ehcache.annotations.When;
 
 /**
  * @author Nicholas Blair
@@ -71,4 +74,28 @@ public interface TriggersRemoveTestInterface {
             )
     )
     public Object simpleCachedMethodTwo();
+    
+    @Cacheable(cacheName="triggersRemoveExpandCache", 
+            keyGenerator = @KeyGenerator(
+                    name = "HashCodeCacheKeyGenerator", 
+                    properties = @Property(name ="includeMethod", value="false")
+            )
+    )
+    public Object idCachedMethod(String id);
+    
+    @TriggersRemove(cacheName="triggersRemoveExpandCache", expandCollection=true,
+            keyGenerator = @KeyGenerator(
+                    name = "HashCodeCacheKeyGenerator", 
+                    properties = @Property(name ="includeMethod", value="false")
+            )
+    )
+    public void methodTriggersRemoveCollection(Collection<String> ids);
+    
+    @TriggersRemove(cacheName="triggersRemoveExpandCache", when=When.AFTER_METHOD_INVOCATION_ASYNC,
+            keyGenerator = @KeyGenerator(
+                    name = "HashCodeCacheKeyGenerator", 
+                    properties = @Property(name ="includeMethod", value="false")
+            )
+    )
+    public void methodTriggersRemoveAsync(String id);
 }
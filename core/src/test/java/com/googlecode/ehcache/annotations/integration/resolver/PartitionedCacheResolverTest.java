@@ -0,0 +1,101 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration.resolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "/com/googlecode/ehcache/annotations/integration/resolver/partitionedCacheResolverTestContext.xml")
+public class PartitionedCacheResolverTest {
+    private static final int PARTITIONS = 4;
+    private static final int KEYS = 32;
+    
+    @Autowired
+    private PartitionedCacheResolverTestInterface partitionedCacheResolverTestInterface;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    private int getPartitionSizes(String cacheName) {
+        int size = 0;
+        int usedPartitions = 0;
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            final Ehcache cache = this.cacheManager.getEhcache(cacheName + "-" + partition);
+            assertNotNull(cache);
+            
+            final int partitionSize = cache.getSize();
+            size += partitionSize;
+            if (partitionSize > 0) {
+                usedPartitions++;
+            }
+        }
+        
+        if (size > 1) {
+            assertTrue("Keys were not spread over the partitions", usedPartitions > 1);
+        }
+        return size;
+    }
+    
+    @Test
+    public void testPartitionedCache() {
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("cached[" + i + "]", partitionedCacheResolverTestInterface.cached(i));
+        }
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("cached[" + i + "]", partitionedCacheResolverTestInterface.cached(i));
+        }
+        assertEquals(KEYS, partitionedCacheResolverTestInterface.getCachedCount());
+        assertEquals(KEYS, this.getPartitionSizes("partitionedCache"));
+        assertEquals(0, this.cacheManager.getEhcache("partitionedCache").getSize());
+        
+        //Remove a single key from whichever partition it is in
+        partitionedCacheResolverTestInterface.remove(7);
+        assertEquals(KEYS - 1, this.getPartitionSizes("partitionedCache"));
+        assertEquals("cached[7]", partitionedCacheResolverTestInterface.cached(7));
+        assertEquals(KEYS + 1, partitionedCacheResolverTestInterface.getCachedCount());
+        
+        //Remove all clears every partition
+        partitionedCacheResolverTestInterface.removeAll();
+        assertEquals(0, this.getPartitionSizes("partitionedCache"));
+        assertEquals("cached[7]", partitionedCacheResolverTestInterface.cached(7));
+        assertEquals(KEYS + 2, partitionedCacheResolverTestInterface.getCachedCount());
+    }
+    
+    @Test
+    public void testPartitionedSelfPopulatingCache() {
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("selfPopulating[" + i + "]", partitionedCacheResolverTestInterface.selfPopulating(i));
+            assertEquals("selfPopulating[" + i + "]", partitionedCacheResolverTestInterface.selfPopulating(i));
+        }
+        assertEquals(KEYS, partitionedCacheResolverTestInterface.getSelfPopulatingCount());
+        assertEquals(KEYS, this.getPartitionSizes("partitionedSelfPopulatingCache"));
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration.resolver;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class PartitionedCacheResolverTestImpl implements PartitionedCacheResolverTestInterface {
+    private int cachedCount = 0;
+    private int selfPopulatingCount = 0;
+
+    public String cached(int arg) {
+        cachedCount++;
+        return "cached[" + arg + "]";
+    }
+
+    public int getCachedCount() {
+        return cachedCount;
+    }
+
+    public String selfPopulating(int arg) {
+        selfPopulatingCount++;
+        return "selfPopulating[" + arg + "]";
+    }
+
+    public int getSelfPopulatingCount() {
+        return selfPopulatingCount;
+    }
+
+    public void remove(int arg) {
+    }
+
+    public void removeAll() {
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.integration.resolver;
+
+import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.TriggersRemove;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public interface PartitionedCacheResolverTestInterface {
+    
+    @Cacheable(cacheName="partitionedCache", key="#args[0]")
+    public String cached(int arg);
+    public int getCachedCount();
+    
+    @Cacheable(cacheName="partitionedSelfPopulatingCache", selfPopulating=true)
+    public String selfPopulating(int arg);
+    public int getSelfPopulatingCount();
+    
+    @TriggersRemove(cacheName="partitionedCache", key="#args[0]")
+    public void remove(int arg);
+    
+    @TriggersRemove(cacheName="partitionedCache", removeAll=true)
+    public void removeAll();
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.interceptor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import com.googlecode.ehcache.annotations.CacheAttributeSource;
+import com.googlecode.ehcache.annotations.Cacheable;
+import com.googlecode.ehcache.annotations.CacheableAttribute;
+import com.googlecode.ehcache.annotations.TriggersRemove;
+import com.googlecode.ehcache.annotations.impl.CacheAttributeSourceImpl;
+import com.googlecode.ehcache.annotations.key.HashCodeCacheKeyGenerator;
+
+/**
+ * Tests {@link EhCacheInterceptor} with a {@link CacheAttributeSource} and {@link CacheableAttribute} that only
+ * implement the base interfaces.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class EhCacheInterceptorTest {
+    private CacheManager cacheManager;
+    private CacheAttributeSourceImpl cacheAttributeSource;
+    
+    @Before
+    public void setup() throws Exception {
+        this.cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("EhCacheInterceptorTest"));
+        
+        this.cacheAttributeSource = new CacheAttributeSourceImpl();
+        this.cacheAttributeSource.setCacheManager(this.cacheManager);
+        this.cacheAttributeSource.setCreateCaches(true);
+        this.cacheAttributeSource.setBeanFactory(new DefaultListableBeanFactory());
+        this.cacheAttributeSource.setDefaultCacheKeyGenerator(new HashCodeCacheKeyGenerator());
+        this.cacheAttributeSource.afterPropertiesSet();
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        this.cacheAttributeSource.destroy();
+        this.cacheManager.shutdown();
+    }
+    
+    @Test
+    public void testBaseInterfaces() throws Exception {
+        final CacheAttributeSource baseAttributeSource = delegate(CacheAttributeSource.class, this.cacheAttributeSource, new ResultWrapper() {
+            public Object wrap(Object result) {
+                if (result instanceof CacheableAttribute) {
+                    return delegate(CacheableAttribute.class, result, null);
+                }
+                return result;
+            }
+        });
+        
+        final EhCacheInterceptor interceptor = new EhCacheInterceptor();
+        interceptor.setCacheAttributeSource(baseAttributeSource);
+        
+        final CountingMethodsImpl target = new CountingMethodsImpl();
+        final ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(interceptor);
+        final CountingMethods proxy = (CountingMethods)proxyFactory.getProxy();
+        
+        Assert.assertEquals("load(1)", proxy.load(1));
+        Assert.assertEquals("load(1)", proxy.load(1));
+        Assert.assertEquals("load(2)", proxy.load(2));
+        Assert.assertEquals(2, target.loads.get());
+        
+        proxy.removeAll();
+        Assert.assertEquals("load(1)", proxy.load(1));
+        Assert.assertEquals("load(1)", proxy.load(1));
+        Assert.assertEquals(3, target.loads.get());
+    }
+    
+    private interface ResultWrapper {
+        Object wrap(Object result);
+    }
+    
+    /**
+     * Proxy that only implements the specified interface
+     */
+    private static <T> T delegate(Class<T> type, final Object target, final ResultWrapper wrapper) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final Object result;
+                try {
+                    result = method.invoke(target, args);
+                }
+                catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (wrapper != null) {
+                    return wrapper.wrap(result);
+                }
+                return result;
+            }
+        }));
+    }
+    
+    public interface CountingMethods {
+        @Cacheable(cacheName="baseInterfacesCache")
+        String load(int id);
+        
+        @TriggersRemove(cacheName="baseInterfacesCache", removeAll=true)
+        void removeAll();
+    }
+    
+    public static class CountingMethodsImpl implements CountingMethods {
+        private final AtomicInteger loads = new AtomicInteger();
+        
+        public String load(int id) {
+            this.loads.incrementAndGet();
+            return "load(" + id + ")";
+        }
+        
+        public void removeAll() {
+        }
+    }
+}
@@ -23,6 +23,8 @@ import static org.easymock.EasyMock.verify;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 
+import junit.framework.Assert;
+
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Test;
 
@@ -68,4 +70,81 @@ public abstract class AbstractDeepCacheKeyGeneratorTest<KG extends AbstractDeepC
     }
     protected void setupTestCircularReferenceWithReflection(KG generator) {}
     protected abstract void verifyTestCircularReferenceWithReflection(MethodInvocation invocation, T key);
+    
+    /**
+     * Test that keys generated from the memoized method signature match keys generated from the full data array
+     */
+    @Test
+    public final void testMethodSeed() throws SecurityException, NoSuchMethodException {
+        final KG generator = this.getCacheKeyGenerator();
+        generator.setCheckforCycles(true);
+        
+        final Method testMethod = MethodInvocationHelper.class.getMethod("testMethod2", int[].class, String.class, boolean[].class, Object.class);
+        final Object[] arguments = new Object[] { new int[] {1, 2}, "foo", new boolean[] {true}, new Object[] { "bar", null } };
+        
+        for (final boolean includeParameterTypes : new boolean[] { true, false, true }) {
+            generator.setIncludeMethod(true);
+            generator.setIncludeParameterTypes(includeParameterTypes);
+            
+            final T expected;
+            if (includeParameterTypes) {
+                expected = generator.generateKey(testMethod.getDeclaringClass(), testMethod.getName(), testMethod.getReturnType(), 
+                        testMethod.getParameterTypes(), arguments);
+            }
+            else {
+                expected = generator.generateKey(testMethod.getDeclaringClass(), testMethod.getName(), testMethod.getReturnType(), arguments);
+            }
+            
+            //First call creates the seed, the following calls use it
+            for (int i = 0; i < 3; i++) {
+                final MethodInvocation invocation = createMock(MethodInvocation.class);
+                expect(invocation.getArguments()).andReturn(arguments);
+                expect(invocation.getMethod()).andReturn(testMethod);
+                replay(invocation);
+                
+                Assert.assertEquals(expected, generator.generateKey(invocation));
+                
+                verify(invocation);
+            }
+        }
+    }
+    
+    /**
+     * Test that the scalar key generation path creates the same keys as the deep path
+     */
+    @Test
+    public final void testScalarKey() throws SecurityException, NoSuchMethodException {
+        final KG generator = this.getCacheKeyGenerator();
+        final ScalarCacheKeyGenerator<T> scalarGenerator = new ScalarCacheKeyGenerator<T>(generator);
+        
+        final Method testMethod = MethodInvocationHelper.class.getMethod("testMethod3", int.class, long.class, boolean.class, Integer.class);
+        Assert.assertTrue(ScalarCacheKeyGenerator.isScalarType(int.class));
+        Assert.assertTrue(ScalarCacheKeyGenerator.isScalarType(Integer.class));
+        Assert.assertTrue(ScalarCacheKeyGenerator.isScalarType(SimpleEnum.class));
+        Assert.assertFalse(ScalarCacheKeyGenerator.isScalarType(Object.class));
+        Assert.assertFalse(ScalarCacheKeyGenerator.isScalarType(Number.class));
+        Assert.assertFalse(ScalarCacheKeyGenerator.isScalarType(int[].class));
+        
+        //Only the built-in generators are specialized, subclasses may change how keys are generated
+        Assert.assertTrue(ScalarCacheKeyGenerator.isSpecializable(generator));
+        Assert.assertFalse(ScalarCacheKeyGenerator.isSpecializable(new HashCodeCacheKeyGenerator() { }));
+        
+        for (final Object[] arguments : new Object[][] { { 1, 2L, true, 4 }, { 1, 2L, false, null } }) {
+            final MethodInvocation invocation = createMock(MethodInvocation.class);
+            expect(invocation.getArguments()).andReturn(arguments).anyTimes();
+            expect(invocation.getMethod()).andReturn(testMethod).anyTimes();
+            replay(invocation);
+            
+            for (final boolean includeMethod : new boolean[] { true, false }) {
+                for (final boolean includeParameterTypes : new boolean[] { true, false }) {
+                    generator.setIncludeMethod(includeMethod);
+                    generator.setIncludeParameterTypes(includeParameterTypes);
+                    
+                    final T expected = generator.generateKey(invocation);
+                    Assert.assertEquals(expected, scalarGenerator.generateKey(invocation));
+                    Assert.assertEquals(expected, scalarGenerator.generateKey(invocation));
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.googlecode.ehcache.annotations.util.MockMethodInvocation;
+
+/**
+ * Runs the {@link HashCodeCacheKeyGenerator} tests with {@link HashCodeCacheKeyGenerator#setAllocationFree(boolean)}
+ * enabled, the generated keys must be identical.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class AllocationFreeHashCodeCacheKeyGeneratorTest extends HashCodeCacheKeyGeneratorTest {
+    private static final int ITERATIONS = 100000;
+    
+    @Override
+    protected AbstractDeepCacheKeyGenerator<?, Long> getCacheKeyGenerator() {
+        final HashCodeCacheKeyGenerator generator = new HashCodeCacheKeyGenerator();
+        generator.setAllocationFree(true);
+        return generator;
+    }
+    
+    @Test
+    public void testAllocationBudget() throws Exception {
+        //getThreadAllocatedBytes is only available on the com.sun.management.ThreadMXBean extension
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Method getThreadAllocatedBytes = null;
+        try {
+            final Class<?> sunThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (sunThreadMXBean.isInstance(threadMXBean)) {
+                getThreadAllocatedBytes = sunThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        }
+        catch (ClassNotFoundException e) {
+            //Not supported on this JVM
+        }
+        catch (NoSuchMethodException e) {
+            //Not supported on this JVM
+        }
+        Assume.assumeNotNull(getThreadAllocatedBytes);
+        
+        final long threadId = Thread.currentThread().getId();
+        
+        final MockMethodInvocation invocation = new MockMethodInvocation();
+        invocation.setMethod(MethodInvocationHelper.class.getMethod("testMethod3", int.class, long.class, boolean.class, Integer.class));
+        final Object[][] arguments = new Object[][] {
+                { 1, 2l, true, 3 },
+                { 4, 5l, false, 6 },
+                { "foo", TimeUnit.SECONDS, null, 7 },
+                { TimeUnit.DAYS, 8l, "bar", null },
+        };
+        
+        for (final boolean includeMethod : new boolean[] { true, false }) {
+            final HashCodeCacheKeyGenerator generator = (HashCodeCacheKeyGenerator)this.getCacheKeyGenerator();
+            generator.setIncludeMethod(includeMethod);
+            
+            //Warm up the method seed, the thread generator and the key cache
+            for (final Object[] args : arguments) {
+                invocation.setArguments(args);
+                generator.generateKey(invocation);
+            }
+            
+            final long start = (Long)getThreadAllocatedBytes.invoke(threadMXBean, threadId);
+            for (int i = 0; i < ITERATIONS; i++) {
+                invocation.setArguments(arguments[i & 3]);
+                generator.generateKey(invocation);
+            }
+            final long allocated = (Long)getThreadAllocatedBytes.invoke(threadMXBean, threadId) - start;
+            
+            //Allow for the reflective calls around the loop, anything per-call would be at least ITERATIONS * 16 bytes
+            Assert.assertTrue("Allocated " + allocated + " bytes for " + ITERATIONS + " keys with includeMethod=" + includeMethod, 
+                    allocated < ITERATIONS);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class ArrayCacheKeyGeneratorTest extends AbstractDeepCacheKeyGeneratorTest<ArrayCacheKeyGenerator, ArrayCacheKey> {
+
+    @Override
+    protected ArrayCacheKeyGenerator getCacheKeyGenerator() {
+        return new ArrayCacheKeyGenerator();
+    }
+    
+    @Test
+    public void testKeyEqualityAndSerialization() throws Exception {
+        final ArrayCacheKeyGenerator generator = this.getCacheKeyGenerator();
+        
+        final int[] ints = new int[] { 1, 2, 3 };
+        final ArrayCacheKey key = generator.generateKey("foo", new Object[] { 42, null }, ints);
+        assertEquals(key, generator.generateKey("foo", new Object[] { 42, null }, new int[] { 1, 2, 3 }));
+        assertEquals(key.hashCode(), generator.generateKey("foo", new Object[] { 42, null }, new int[] { 1, 2, 3 }).hashCode());
+        
+        //The key must not change if the argument does
+        ints[0] = 4;
+        assertEquals(key, generator.generateKey("foo", new Object[] { 42, null }, new int[] { 1, 2, 3 }));
+        
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(key);
+        out.close();
+        final Object deserialized = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertNotSame(key, deserialized);
+        assertEquals(key, deserialized);
+        assertEquals(key.hashCode(), deserialized.hashCode());
+        
+        //Nesting must affect the key
+        assertFalse(generator.generateKey(new Object[] { "a" }, "b").equals(generator.generateKey((Object)new Object[] { "a", "b" })));
+        assertFalse(generator.generateKey("a", "b").equals(generator.generateKey((Object)new Object[] { "a", "b" })));
+        
+        //Single elements
+        assertEquals(new ArrayCacheKey("a"), generator.generateKey("a"));
+        assertEquals(new ArrayCacheKey(new long[] { 1 }), generator.generateKey(new long[] { 1 }));
+        assertFalse(new ArrayCacheKey("a").equals(generator.generateKey("a", null)));
+    }
+
+    @Test
+    public void testNestedKeySerialization() throws Exception {
+        final ArrayCacheKeyGenerator generator = this.getCacheKeyGenerator();
+        
+        final ArrayCacheKey key = generator.generateKey("foo", Arrays.asList("a", "b"), new Object[] { 42, new int[] { 1, 2 } });
+        
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(key);
+        out.close();
+        final Object deserialized = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertNotSame(key, deserialized);
+        assertEquals(key, deserialized);
+        assertEquals(key.hashCode(), deserialized.hashCode());
+        assertEquals(generator.generateKey("foo", Arrays.asList("a", "b"), new Object[] { 42, new int[] { 1, 2 } }), deserialized);
+        
+        //The nesting markers must not contribute identity hash codes, they differ between JVMs
+        int expected = 1;
+        expected = 31 * expected + ArrayCacheKey.Marker.BEGIN.hash;
+        expected = 31 * expected + "a".hashCode();
+        expected = 31 * expected + ArrayCacheKey.Marker.END.hash;
+        assertEquals(expected, new ArrayCacheKey(ArrayCacheKey.Marker.BEGIN, "a", ArrayCacheKey.Marker.END).hashCode());
+        assertEquals('[', ArrayCacheKey.Marker.BEGIN.hash);
+        assertEquals(']', ArrayCacheKey.Marker.END.hash);
+    }
+
+    @Override
+    protected void verifyTestCircularReference(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [[[null, childArgString], argString]]]", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestCircularReferenceWithReflection(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [[[[class com.googlecode.ehcache.annotations.key.RequiresReflectionKey, null], childArgString], argString]]]", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestForDocs(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [49931]]", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestEnumHashCode(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[SECONDS, TEST1]", key.toString());
+    }
+
+    @Override
+    protected void verifyClassHashCode(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class java.lang.Integer]", key.toString());
+    }
+
+    @Override
+    protected void verifyTestComplexHashCode(MethodInvocation invocation, ArrayCacheKey key) {
+        final Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        cal.setTimeInMillis(0);
+        
+        final ArrayCacheKey expected = new ArrayCacheKey(
+                MethodInvocationHelper.class,
+                "testMethod2",
+                Object.class,
+                ArrayCacheKey.Marker.BEGIN,
+                    new int[] {1, 2, 3, 4},
+                    "foo",
+                    new boolean[] {false, true},
+                    ArrayCacheKey.Marker.BEGIN,
+                        null, 
+                        cal,
+                    ArrayCacheKey.Marker.END,
+                ArrayCacheKey.Marker.END);
+        
+        assertEquals(expected, key);
+        assertEquals(expected.hashCode(), key.hashCode());
+    }
+
+    @Override
+    protected void verifyTestPrimitiveArrayHandling(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [[[], [], [], [], [], [], [], [], [1], [2], [3], [4], [a], [6.8], [7.9], [true], [1, 2, 3], [4, 5, 6], [7, 8, 9], [10, 11, 12], [a, b, c], [16.1, 17.2, 18.3], [19.4, 20.5, 21.6], [true, false, false]]]]", key.toString());
+    }
+
+    @Override
+    protected void verifyTestCollectionHandling(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [[[foo, bar, bop], [[A, 123], [B, [hello, world]]]]]]", key.toString());
+    }
+
+    @Override
+    protected void verifyTestPrimitiveHandling(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[class com.googlecode.ehcache.annotations.key.MethodInvocationHelper, testMethod1, class java.lang.Object, [class java.lang.Object], [[1, 2, 3, 4, a, 6.8, 7.9, true]]]", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestNoArguments(MethodInvocation invocation, ArrayCacheKey key) {
+        assertEquals("[]", key.toString());
+    }
+
+    @Override
+    protected void verifyTestGeneratesDifferentKeysWithDifferentNonIntegerPartsOfDoubleParameter(
+            MethodInvocation invocation, ArrayCacheKey firstKey, ArrayCacheKey secondKey) {
+        assertEquals("[1.5]", firstKey.toString());
+        assertEquals("[1.7]", secondKey.toString());
+    }
+
+    @Override
+    protected void verifyTestGeneratesDifferentKeysWithDifferentNonIntegerPartsOfFloatParameter(
+            MethodInvocation invocation, ArrayCacheKey firstKey, ArrayCacheKey secondKey) {
+        assertEquals("[1.5]", firstKey.toString());
+        assertEquals("[1.7]", secondKey.toString());
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MessageDigestOutputStream}.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class MessageDigestOutputStreamTest {
+    @Test
+    public void testSameDigestAsDataOutputStream() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream dataOutputStream = new DataOutputStream(bytes);
+        final MessageDigestOutputStream digestOutputStream = new MessageDigestOutputStream(MessageDigest.getInstance("SHA-1"));
+        
+        //Enough data to flush the internal buffer several times
+        final StringBuilder mixedString = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            mixedString.append((char)(i * 37));
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            dataOutputStream.writeBoolean(i % 2 == 0);
+            digestOutputStream.writeBoolean(i % 2 == 0);
+            dataOutputStream.writeByte(i);
+            digestOutputStream.writeByte(i);
+            dataOutputStream.writeChar('\u20ac' + i);
+            digestOutputStream.writeChar('\u20ac' + i);
+            dataOutputStream.writeDouble(i / 3d);
+            digestOutputStream.writeDouble(i / 3d);
+            dataOutputStream.writeFloat(i / 7f);
+            digestOutputStream.writeFloat(i / 7f);
+            dataOutputStream.writeInt(Integer.MIN_VALUE + i);
+            digestOutputStream.writeInt(Integer.MIN_VALUE + i);
+            dataOutputStream.writeLong(Long.MAX_VALUE - i);
+            digestOutputStream.writeLong(Long.MAX_VALUE - i);
+            dataOutputStream.writeShort(-i);
+            digestOutputStream.writeShort(-i);
+            dataOutputStream.writeUTF("string " + i + " \u0000 \u00e9 \u4e2d");
+            digestOutputStream.writeUTF("string " + i + " \u0000 \u00e9 \u4e2d");
+            dataOutputStream.writeUTF(mixedString.toString());
+            digestOutputStream.writeUTF(mixedString.toString());
+            dataOutputStream.write(new byte[i * 100]);
+            digestOutputStream.write(new byte[i * 100]);
+        }
+        dataOutputStream.flush();
+        
+        final byte[] expected = MessageDigest.getInstance("SHA-1").digest(bytes.toByteArray());
+        Assert.assertTrue(Arrays.equals(expected, digestOutputStream.getMessageDigest().digest()));
+    }
+    
+    @Test
+    public void testLongStrings() throws Exception {
+        final char[] chars = new char[70000];
+        Arrays.fill(chars, 'a');
+        final String first = new String(chars);
+        chars[chars.length - 1] = 'b';
+        final String second = new String(chars);
+        
+        final MessageDigestOutputStream firstStream = new MessageDigestOutputStream(MessageDigest.getInstance("SHA-1"));
+        firstStream.writeUTF(first);
+        final MessageDigestOutputStream secondStream = new MessageDigestOutputStream(MessageDigest.getInstance("SHA-1"));
+        secondStream.writeUTF(second);
+        
+        //Strings that are too long for DataOutputStream.writeUTF must still be part of the digest
+        Assert.assertFalse(Arrays.equals(firstStream.getMessageDigest().digest(), secondStream.getMessageDigest().digest()));
+    }
+}
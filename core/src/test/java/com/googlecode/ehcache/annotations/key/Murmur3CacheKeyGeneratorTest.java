@@ -0,0 +1,124 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.key;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class Murmur3CacheKeyGeneratorTest extends AbstractDeepCacheKeyGeneratorTest<Murmur3CacheKeyGenerator, Hash128CacheKey> {
+
+    @Override
+    protected Murmur3CacheKeyGenerator getCacheKeyGenerator() {
+        return new Murmur3CacheKeyGenerator();
+    }
+    
+    @Test
+    public void testKeyEqualityAndSerialization() throws Exception {
+        final Murmur3CacheKeyGenerator generator = this.getCacheKeyGenerator();
+        
+        final Hash128CacheKey key = generator.generateKey("foo", 42, new int[] { 1, 2, 3 });
+        assertEquals(key, generator.generateKey("foo", 42, new int[] { 1, 2, 3 }));
+        assertEquals(key.hashCode(), generator.generateKey("foo", 42, new int[] { 1, 2, 3 }).hashCode());
+        
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(key);
+        out.close();
+        final Object deserialized = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(key, deserialized);
+        
+        //Nesting, String boundaries and nulls must all affect the key
+        assertFalse(generator.generateKey(new Object[] { "a" }, "b").equals(generator.generateKey(new Object[] { "a", "b" })));
+        assertFalse(generator.generateKey("ab", "c").equals(generator.generateKey("a", "bc")));
+        assertFalse(generator.generateKey((Object)null).equals(generator.generateKey(new Object[0])));
+    }
+
+    @Override
+    protected void verifyTestCircularReference(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("23445c8fa8d1600742bf86e5a34e2792", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestCircularReferenceWithReflection(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("ecb075444028c244da9498ba532bc9a7", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestForDocs(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("321bd9cc1fa13c7eff780d7b48aa66de", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestEnumHashCode(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("8cd9d4e340fc8b4d6665d1dc88ca5369", key.toString());
+    }
+
+    @Override
+    protected void verifyClassHashCode(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("a3dbe49457b05c43f3b8c01d96842136", key.toString());
+    }
+
+    @Override
+    protected void verifyTestComplexHashCode(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("b62553b7420a91fb47dedf8e49786899", key.toString());
+    }
+
+    @Override
+    protected void verifyTestPrimitiveArrayHandling(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("e6f95c42cdfcdd11663846aa383d7ebf", key.toString());
+    }
+
+    @Override
+    protected void verifyTestCollectionHandling(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("a682c0a57f7e3bfba05abb272d3a3a0f", key.toString());
+    }
+
+    @Override
+    protected void verifyTestPrimitiveHandling(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("3d0ff966eba28e332878b4ab7bc0f54c", key.toString());
+    }
+    
+    @Override
+    protected void verifyTestNoArguments(MethodInvocation invocation, Hash128CacheKey key) {
+        assertEquals("dc3694d7d7571a8db5d3e5a90dfb001b", key.toString());
+    }
+
+    @Override
+    protected void verifyTestGeneratesDifferentKeysWithDifferentNonIntegerPartsOfDoubleParameter(
+            MethodInvocation invocation, Hash128CacheKey firstKey, Hash128CacheKey secondKey) {
+        assertEquals("bc0c980e3fdfb5a8e2e137ac641da57d", firstKey.toString());
+        assertEquals("614b1d5e4bb35f509ae690f41cdcc02f", secondKey.toString());
+    }
+
+    @Override
+    protected void verifyTestGeneratesDifferentKeysWithDifferentNonIntegerPartsOfFloatParameter(
+            MethodInvocation invocation, Hash128CacheKey firstKey, Hash128CacheKey secondKey) {
+        assertEquals("6814e00fe7ebe8c869a2ab04a6d5d150", firstKey.toString());
+        assertEquals("e33544e6f14eb44afc90655e7b9544f8", secondKey.toString());
+    }
+}
@@ -21,8 +21,10 @@ import static org.junit.Assert.assertNotSame;
 import java.io.Serializable;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -45,6 +47,24 @@ public class SpELCacheKeyGeneratorTest extends BaseCacheKeyGeneratorTest<CacheKe
         return this.cacheKeyGenerator;
     }
 
+    @Test
+    public void testRootObject() throws Exception {
+        final SpELCacheKeyGenerator generator = new SpELCacheKeyGenerator();
+        generator.setBeanFactory(new DefaultListableBeanFactory());
+        generator.setExpression("#key.string(args[0], #args.length, invocation)");
+        generator.afterPropertiesSet();
+        
+        //Evaluate repeatedly so the expression is compiled where the SpEL compiler is available
+        for (int i = 0; i < 5; i++) {
+            assertEquals("[foo, 2, null]", generator.generateKey("foo", "bar"));
+        }
+        
+        //Variables assigned by the expression must not leak into later evaluations
+        generator.setExpression("(#args.length > 1 ? (#last = args[1]) : 'none') + #last");
+        assertEquals("barbar", generator.generateKey("foo", "bar"));
+        assertEquals("nonenull", generator.generateKey("foo"));
+    }
+
     @Override
     protected void verifyTestForDocs(MethodInvocation invocation, Serializable key) {
         assertEquals("[testMethod1, [49931]]", key);
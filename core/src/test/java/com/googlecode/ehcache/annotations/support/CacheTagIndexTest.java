@@ -0,0 +1,112 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class CacheTagIndexTest {
+    @Test
+    public void testIndex() {
+        final CacheTagIndex tagIndex = new CacheTagIndex();
+        tagIndex.add("k1", new LinkedHashSet<String>(Arrays.asList("a", "b")));
+        tagIndex.add("k2", Collections.singleton("a"));
+        Assert.assertEquals(2, tagIndex.getTagCount());
+        Assert.assertEquals(2, tagIndex.getKeyCount());
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("k1", "k2")), new HashSet<Object>(tagIndex.getKeys("a")));
+        Assert.assertEquals(Arrays.asList("k1"), tagIndex.getKeys("b"));
+        Assert.assertEquals(Collections.emptyList(), tagIndex.getKeys("c"));
+        
+        //Re-adding a key replaces its tags
+        tagIndex.add("k1", Collections.singleton("c"));
+        Assert.assertEquals(Arrays.asList("k2"), tagIndex.getKeys("a"));
+        Assert.assertEquals(Collections.emptyList(), tagIndex.getKeys("b"));
+        Assert.assertEquals(Arrays.asList("k1"), tagIndex.getKeys("c"));
+        
+        //Tags without keys are dropped
+        tagIndex.remove("k2");
+        Assert.assertEquals(1, tagIndex.getTagCount());
+        Assert.assertEquals(1, tagIndex.getKeyCount());
+        
+        //Conditional removal only matches the add that was passed the same tags
+        final Set<String> tags = Collections.singleton("d");
+        tagIndex.add("k3", tags);
+        tagIndex.remove("k3", new HashSet<String>(tags));
+        Assert.assertEquals(Arrays.asList("k3"), tagIndex.getKeys("d"));
+        tagIndex.remove("k3", tags);
+        Assert.assertEquals(Collections.emptyList(), tagIndex.getKeys("d"));
+        Assert.assertEquals(1, tagIndex.getKeyCount());
+        
+        tagIndex.clear();
+        Assert.assertEquals(0, tagIndex.getTagCount());
+        Assert.assertEquals(0, tagIndex.getKeyCount());
+    }
+    
+    @Test
+    public void testCacheEvents() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 2))
+            .name("CacheTagIndexTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("taggedCache", 2));
+            cacheManager.addCache(cache);
+            
+            final CacheTagIndex tagIndex = new CacheTagIndex();
+            cache.getCacheEventNotificationService().registerListener(tagIndex);
+            
+            cache.put(new Element("k1", "v1"));
+            tagIndex.add("k1", Collections.singleton("a"));
+            cache.put(new Element("k2", "v2"));
+            tagIndex.add("k2", Collections.singleton("a"));
+            Assert.assertEquals(2, tagIndex.getKeys("a").size());
+            
+            //Removal drops the key from the index
+            cache.remove("k1");
+            Assert.assertEquals(Arrays.asList("k2"), tagIndex.getKeys("a"));
+            
+            //Eviction drops the key from the index
+            cache.put(new Element("k3", "v3"));
+            tagIndex.add("k3", Collections.singleton("b"));
+            cache.put(new Element("k4", "v4"));
+            tagIndex.add("k4", Collections.singleton("b"));
+            Assert.assertEquals(2, cache.getSize());
+            Assert.assertEquals(cache.getSize(), tagIndex.getKeyCount());
+            
+            cache.removeAll();
+            Assert.assertEquals(0, tagIndex.getTagCount());
+            Assert.assertEquals(0, tagIndex.getKeyCount());
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+}
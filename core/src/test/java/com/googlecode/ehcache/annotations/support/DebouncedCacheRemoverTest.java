@@ -0,0 +1,75 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+import net.sf.ehcache.Ehcache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DebouncedCacheRemover}.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class DebouncedCacheRemoverTest {
+    @Test
+    public void testCoalescing() {
+        final ManualScheduler scheduler = new ManualScheduler();
+        final DebouncedCacheRemover remover = new DebouncedCacheRemover(scheduler, 50);
+        Assert.assertEquals(50, scheduler.period);
+        
+        final Ehcache keyCache = createMock(Ehcache.class);
+        final Ehcache clearedCache = createMock(Ehcache.class);
+        
+        //Duplicate removals result in a single call
+        expect(keyCache.remove("a")).andReturn(true);
+        expect(keyCache.remove("b")).andReturn(true);
+        //Key removals from a cache being cleared are skipped
+        clearedCache.removeAll();
+        replay(keyCache, clearedCache);
+        
+        for (int i = 0; i < 1000; i++) {
+            remover.remove(keyCache, "a");
+            remover.remove(keyCache, "b");
+            remover.remove(clearedCache, "a");
+            remover.removeAll(clearedCache);
+        }
+        
+        scheduler.task.run();
+        verify(keyCache, clearedCache);
+        
+        //Nothing is left queued
+        scheduler.task.run();
+        verify(keyCache, clearedCache);
+    }
+    
+    private static final class ManualScheduler implements TaskSchedulerAdapter {
+        private Runnable task;
+        private long period;
+        
+        public void scheduleAtFixedRate(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+    }
+}
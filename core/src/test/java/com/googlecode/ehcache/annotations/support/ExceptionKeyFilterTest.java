@@ -0,0 +1,98 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class ExceptionKeyFilterTest {
+    @Test
+    public void testRebuildAndClear() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("ExceptionKeyFilterTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("exceptionCache", 100));
+            cacheManager.addCache(cache);
+            
+            final ExceptionKeyFilter filter = new ExceptionKeyFilter(cache, 10);
+            cache.getCacheEventNotificationService().registerListener(filter);
+            
+            for (int i = 0; i < 9; i++) {
+                filter.put("k" + i);
+                cache.put(new Element("k" + i, new Exception()));
+            }
+            Assert.assertTrue(filter.mightContain("k0"));
+            Assert.assertEquals(10, filter.getCapacity());
+            
+            //Exceptions that are gone from the cache are dropped when the filter fills up and is rebuilt
+            for (int i = 0; i < 8; i++) {
+                cache.remove("k" + i);
+            }
+            filter.put("k9");
+            cache.put(new Element("k9", new Exception()));
+            Assert.assertEquals(10, filter.getCapacity());
+            Assert.assertTrue(filter.mightContain("k8"));
+            for (int i = 0; i < 8; i++) {
+                Assert.assertFalse(filter.mightContain("k" + i));
+            }
+            
+            //Clearing the cache clears the filter
+            cache.removeAll();
+            Assert.assertFalse(filter.mightContain("k8"));
+            Assert.assertFalse(filter.mightContain("k9"));
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+    
+    @Test
+    public void testRebuildGrowsFilter() {
+        final CacheManager cacheManager = new CacheManager(new Configuration()
+            .defaultCache(new CacheConfiguration("default", 100))
+            .name("ExceptionKeyFilterGrowTest"));
+        try {
+            final Cache cache = new Cache(new CacheConfiguration("exceptionCache", 100));
+            cacheManager.addCache(cache);
+            
+            final ExceptionKeyFilter filter = new ExceptionKeyFilter(cache, 10);
+            for (int i = 0; i < 30; i++) {
+                filter.put("k" + i);
+                cache.put(new Element("k" + i, new Exception()));
+            }
+            
+            //Every key still in the cache is kept in the filter
+            Assert.assertTrue(filter.getCapacity() >= 20);
+            for (int i = 0; i < 30; i++) {
+                Assert.assertTrue(filter.mightContain("k" + i));
+            }
+        }
+        finally {
+            cacheManager.shutdown();
+        }
+    }
+}
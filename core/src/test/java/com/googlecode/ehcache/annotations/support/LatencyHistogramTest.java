@@ -0,0 +1,91 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram} and {@link StripedCounter}.
+ * 
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void testBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(0, histogram.getMean(), 0);
+        
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.record(1023);
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        
+        final long[] buckets = histogram.getBuckets();
+        Assert.assertEquals(LatencyHistogram.BUCKETS, buckets.length);
+        Assert.assertEquals(2, buckets[0]);
+        Assert.assertEquals(1, buckets[1]);
+        Assert.assertEquals(2, buckets[10]);
+        Assert.assertEquals(1, buckets[63]);
+        Assert.assertEquals(6, histogram.getCount());
+        
+        Assert.assertEquals(0, histogram.getPercentile(0));
+        Assert.assertEquals(1, histogram.getPercentile(50));
+        Assert.assertEquals(1023, histogram.getPercentile(80));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+        
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getTotal());
+    }
+    
+    @Test
+    public void testConcurrentCounting() throws Exception {
+        final StripedCounter counter = new StripedCounter();
+        final LatencyHistogram histogram = new LatencyHistogram();
+        
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                        histogram.record(j);
+                    }
+                }
+            });
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        
+        Assert.assertEquals(80000, counter.get());
+        Assert.assertEquals(80000, histogram.getCount());
+        Assert.assertEquals(8 * (9999L * 10000 / 2), histogram.getTotal());
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import java.lang.reflect.Method;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import com.googlecode.ehcache.annotations.CacheOperation;
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+
+/**
+ * Base for the Flight Recorder events, the event is the {@link CacheOperation} handed back to the
+ * interceptor so recording an operation allocates nothing beyond the event itself. Details that do
+ * not apply to an event type are ignored.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@Category("Ehcache Spring Annotations")
+@StackTrace(false)
+abstract class CacheOperationEvent extends jdk.jfr.Event implements CacheOperation {
+    @Label("Class")
+    Class<?> declaringClass;
+    
+    @Label("Method")
+    String method;
+    
+    @Label("Cache")
+    String cacheName;
+    
+    void setMethod(Method method) {
+        if (method != null) {
+            this.declaringClass = method.getDeclaringClass();
+            this.method = method.getName();
+        }
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public void setSelfPopulating(boolean selfPopulating) {
+    }
+
+    public void setResult(CacheOperationResult result) {
+    }
+
+    public void setKeyGenerationTime(long nanos) {
+    }
+
+    public void setLoadTime(long nanos) {
+    }
+
+    public void complete() {
+        if (this.shouldCommit()) {
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * {@link CacheOperationType#REFRESH} operation, the duration is the time taken to reload the element
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@Name("com.googlecode.ehcache.annotations.Refresh")
+@Label("Cache Refresh")
+@Description("Refresh of an element by a RefreshingSelfPopulatingCache")
+class CacheRefreshEvent extends CacheOperationEvent {
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * {@link CacheOperationType#REMOVE} and {@link CacheOperationType#REMOVE_ALL} operations
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@Name("com.googlecode.ehcache.annotations.Remove")
+@Label("Cache Remove")
+@Description("Removal from a cache by a @TriggersRemove method")
+class CacheRemoveEvent extends CacheOperationEvent {
+    @Label("Remove All")
+    boolean removeAll;
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * {@link CacheOperationType#CACHEABLE} operation, spans from key generation until the value is returned
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+@Name("com.googlecode.ehcache.annotations.Cacheable")
+@Label("Cacheable Invocation")
+@Description("Invocation of a @Cacheable method")
+class CacheableEvent extends CacheOperationEvent {
+    @Label("Result")
+    String result;
+    
+    @Label("Self Populating")
+    boolean selfPopulating;
+    
+    @Label("Key Generation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long keyGenerationTime;
+    
+    @Label("Load Time")
+    @Description("Time spent invoking the method on a miss")
+    @Timespan(Timespan.NANOSECONDS)
+    long loadTime;
+
+    @Override
+    public void setSelfPopulating(boolean selfPopulating) {
+        this.selfPopulating = selfPopulating;
+    }
+
+    @Override
+    public void setResult(CacheOperationResult result) {
+        this.result = result.name();
+    }
+
+    @Override
+    public void setKeyGenerationTime(long nanos) {
+        this.keyGenerationTime = nanos;
+    }
+
+    @Override
+    public void setLoadTime(long nanos) {
+        this.loadTime = nanos;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import java.lang.reflect.Method;
+
+import com.googlecode.ehcache.annotations.CacheOperation;
+import com.googlecode.ehcache.annotations.CacheOperationListener;
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * {@link CacheOperationListener} that emits Java Flight Recorder events. Configure it with:
+ * 
+ * <pre>
+ * &lt;ehcache:annotation-driven cache-operation-listener="flightRecorderListener" /&gt;
+ * &lt;bean id="flightRecorderListener" class="com.googlecode.ehcache.annotations.jfr.FlightRecorderCacheOperationListener" /&gt;
+ * </pre>
+ * 
+ * While no recording has the events enabled {@link #begin(CacheOperationType, Method)} returns null
+ * without allocating anything.
+ *
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class FlightRecorderCacheOperationListener implements CacheOperationListener {
+    //Used to check if each event type is enabled before creating an event
+    private static final CacheableEvent CACHEABLE = new CacheableEvent();
+    private static final CacheRemoveEvent REMOVE = new CacheRemoveEvent();
+    private static final CacheRefreshEvent REFRESH = new CacheRefreshEvent();
+
+    /* (non-Javadoc)
+     * @see com.googlecode.ehcache.annotations.CacheOperationListener#begin(com.googlecode.ehcache.annotations.CacheOperationType, java.lang.reflect.Method)
+     */
+    public CacheOperation begin(CacheOperationType type, Method method) {
+        final CacheOperationEvent event;
+        switch (type) {
+            case CACHEABLE: {
+                if (!CACHEABLE.isEnabled()) {
+                    return null;
+                }
+                event = new CacheableEvent();
+                break;
+            }
+            case REMOVE:
+            case REMOVE_ALL: {
+                if (!REMOVE.isEnabled()) {
+                    return null;
+                }
+                final CacheRemoveEvent removeEvent = new CacheRemoveEvent();
+                removeEvent.removeAll = type == CacheOperationType.REMOVE_ALL;
+                event = removeEvent;
+                break;
+            }
+            case REFRESH: {
+                if (!REFRESH.isEnabled()) {
+                    return null;
+                }
+                event = new CacheRefreshEvent();
+                break;
+            }
+            default: {
+                return null;
+            }
+        }
+        
+        event.setMethod(method);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2010-2011 Nicholas Blair, Eric Dalquist
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.ehcache.annotations.jfr;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.googlecode.ehcache.annotations.CacheOperation;
+import com.googlecode.ehcache.annotations.CacheOperationResult;
+import com.googlecode.ehcache.annotations.CacheOperationType;
+
+/**
+ * @author Eric Dalquist
+ * @version $Revision$
+ */
+public class FlightRecorderCacheOperationListenerTest {
+    private final FlightRecorderCacheOperationListener listener = new FlightRecorderCacheOperationListener();
+    
+    @Test
+    public void testDisabledEvents() throws Exception {
+        final Method method = Object.class.getMethod("toString");
+        
+        for (final CacheOperationType type : CacheOperationType.values()) {
+            Assert.assertNull(this.listener.begin(type, method));
+        }
+    }
+    
+    @Test
+    public void testRecordedEvents() throws Exception {
+        final Method method = Object.class.getMethod("toString");
+        
+        final File file = File.createTempFile("cacheOperations", ".jfr");
+        file.deleteOnExit();
+        
+        final Recording recording = new Recording();
+        try {
+            recording.enable(CacheableEvent.class).withThreshold(null);
+            recording.enable(CacheRemoveEvent.class).withThreshold(null);
+            recording.disable(CacheRefreshEvent.class);
+            recording.start();
+            
+            final CacheOperation cacheable = this.listener.begin(CacheOperationType.CACHEABLE, method);
+            cacheable.setCacheName("testCache");
+            cacheable.setKeyGenerationTime(1000);
+            cacheable.setResult(CacheOperationResult.MISS);
+            cacheable.setLoadTime(5000);
+            cacheable.complete();
+            
+            final CacheOperation removeAll = this.listener.begin(CacheOperationType.REMOVE_ALL, method);
+            removeAll.setCacheName("testCache");
+            removeAll.complete();
+            
+            //Refresh events are disabled by the recording
+            Assert.assertNull(this.listener.begin(CacheOperationType.REFRESH, method));
+            
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        finally {
+            recording.close();
+        }
+        
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+        Assert.assertEquals(2, events.size());
+        
+        final RecordedEvent cacheableEvent = events.get(0);
+        Assert.assertEquals("com.googlecode.ehcache.annotations.Cacheable", cacheableEvent.getEventType().getName());
+        Assert.assertEquals("java.lang.Object", cacheableEvent.getClass("declaringClass").getName());
+        Assert.assertEquals("toString", cacheableEvent.getString("method"));
+        Assert.assertEquals("testCache", cacheableEvent.getString("cacheName"));
+        Assert.assertEquals("MISS", cacheableEvent.getString("result"));
+        Assert.assertFalse(cacheableEvent.getBoolean("selfPopulating"));
+        Assert.assertEquals(1000, cacheableEvent.getDuration("keyGenerationTime").toNanos());
+        Assert.assertEquals(5000, cacheableEvent.getDuration("loadTime").toNanos());
+        
+        final RecordedEvent removeEvent = events.get(1);
+        Assert.assertEquals("com.googlecode.ehcache.annotations.Remove", removeEvent.getEventType().getName());
+        Assert.assertEquals("testCache", removeEvent.getString("cacheName"));
+        Assert.assertTrue(removeEvent.getBoolean("removeAll"));
+    }
+}